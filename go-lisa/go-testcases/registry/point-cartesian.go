@@ -0,0 +1,14 @@
+package main
+
+type Point struct {
+	X, Y int
+}
+
+func (p Point) Sum() int {
+	return p.X + p.Y
+}
+
+func main() {
+	p := Point{1, 2}
+	s := p.Sum()
+}
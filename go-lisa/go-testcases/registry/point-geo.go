@@ -0,0 +1,14 @@
+package main
+
+type Point struct {
+	Lat float64
+}
+
+func (p Point) Latitude() float64 {
+	return p.Lat
+}
+
+func main() {
+	p := Point{45.4}
+	l := p.Latitude()
+}
@@ -0,0 +1,72 @@
+package main
+
+import (
+	"bytes"
+	"strconv"
+	"strings"
+)
+
+func builder() {
+	var sb strings.Builder
+	sb.WriteString("ab")
+	sb.WriteString("c")
+	s := sb.String()
+}
+
+func buffer() {
+	b := bytes.Buffer{}
+	b.WriteString("x")
+	b.Reset()
+	b.WriteString("yz")
+	s := b.String()
+}
+
+func pointer() {
+	b := new(bytes.Buffer)
+	b.WriteString("x")
+	s := b.String()
+}
+
+func trim(c bool) {
+	s := " a "
+	if c {
+		s = " b "
+	}
+	t := strings.TrimSpace(s)
+}
+
+func lower(c bool) {
+	s := "AB"
+	if c {
+		s = "Cd"
+	}
+	l := strings.ToLower(s)
+}
+
+func lowerUnicode() {
+	l := strings.ToLower("ÉİA")
+}
+
+func lowerUnknown(c bool) {
+	s := "É"
+	if c {
+		s = "B"
+	}
+	l := strings.ToLower(s)
+}
+
+func itoa(i int) {
+	s := strconv.Itoa(i)
+}
+
+func join(c bool) {
+	s := "a,b"
+	if c {
+		s = "c"
+	}
+	parts := strings.Split(s, ",")
+	j := strings.Join(parts, "-")
+}
+
+func main() {
+}
@@ -0,0 +1,20 @@
+package main
+
+type point struct {
+	a int
+	b int
+	c int
+}
+
+func array() {
+	a := [3]int{1, 2, 3}
+	x := a[1]
+}
+
+func structs() {
+	p := point{1, 2, 3}
+	y := p.b
+}
+
+func main() {
+}
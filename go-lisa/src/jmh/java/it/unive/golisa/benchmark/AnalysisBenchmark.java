@@ -0,0 +1,192 @@
+package it.unive.golisa.benchmark;
+
+import static it.unive.lisa.LiSAFactory.getDefaultFor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unive.golisa.analysis.ModularWorstCaseWithNativeCalls;
+import it.unive.golisa.analysis.Pentagons;
+import it.unive.golisa.analysis.composition.RelTarsis;
+import it.unive.golisa.analysis.rsubs.RelationalSubstringDomain;
+import it.unive.golisa.analysis.tarsis.Tarsis;
+import it.unive.golisa.antlr.GoParser.SourceFileContext;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.golisa.metrics.Metrics;
+import it.unive.golisa.metrics.Metrics.Sample;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.program.Program;
+
+/**
+ * End-to-end benchmark driver: generates synthetic Go packages of increasing
+ * size with {@link GoProgramGenerator} and, for each of them and each domain,
+ * measures:
+ * <ul>
+ * <li>{@code parse_ms}: lexing and parsing, done once</li>
+ * <li>{@code cfg_ms}: the construction of the cfgs from the parse tree</li>
+ * <li>{@code fixpoint_ms}: the fixpoints over the cfgs, as recorded by
+ * {@link ModularWorstCaseWithNativeCalls} in the {@link Metrics}</li>
+ * <li>{@code analysis_ms}: the whole LiSA run, that also includes type
+ * inference, call graph construction and checks</li>
+ * <li>{@code peak_heap_mb}: the peak heap usage</li>
+ * </ul>
+ * Results are printed as CSV on the standard output and written to
+ * {@code <out>/results.csv}. Run it with {@code gradle analysisBenchmark}.
+ * <br>
+ * <br>
+ * Options (comma-separated lists are benchmarked one value at a time):
+ * <ul>
+ * <li>{@code -functions} number of functions (default {@code 10,50,100})</li>
+ * <li>{@code -loops} loop nesting depth (default {@code 2})</li>
+ * <li>{@code -concat} string concatenation depth (default {@code 3})</li>
+ * <li>{@code -structs} number of structs (default {@code 5})</li>
+ * <li>{@code -interfaces} number of interfaces (default {@code 2})</li>
+ * <li>{@code -seed} generator seed (default {@code 42})</li>
+ * <li>{@code -domains} domains to run (default
+ * {@code Tarsis,RelTarsis,RelationalSubstringDomain,Pentagons})</li>
+ * <li>{@code -out} output directory (default
+ * {@code build/reports/analysis-benchmark})</li>
+ * </ul>
+ */
+public class AnalysisBenchmark {
+
+	private static final String HEADER = "domain,functions,loops,concat,structs,interfaces,parse_ms,cfg_ms,fixpoint_ms,analysis_ms,peak_heap_mb,status";
+
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = new HashMap<>();
+		options.put("-functions", "10,50,100");
+		options.put("-loops", "2");
+		options.put("-concat", "3");
+		options.put("-structs", "5");
+		options.put("-interfaces", "2");
+		options.put("-seed", "42");
+		options.put("-domains", "Tarsis,RelTarsis,RelationalSubstringDomain,Pentagons");
+		options.put("-out", "build/reports/analysis-benchmark");
+
+		for (int i = 0; i < args.length; i += 2) {
+			if (!options.containsKey(args[i]))
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			if (i + 1 == args.length)
+				throw new IllegalArgumentException("Missing value for option " + args[i]);
+			options.put(args[i], args[i + 1]);
+		}
+
+		Path out = Paths.get(options.get("-out"));
+		Files.createDirectories(out);
+		long seed = Long.parseLong(options.get("-seed"));
+		List<String> domains = Arrays.asList(options.get("-domains").split(","));
+
+		try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(out.resolve("results.csv"), StandardCharsets.UTF_8))) {
+			report(csv, HEADER);
+			for (int functions : ints(options.get("-functions")))
+				for (int loops : ints(options.get("-loops")))
+					for (int concat : ints(options.get("-concat")))
+						for (int structs : ints(options.get("-structs")))
+							for (int interfaces : ints(options.get("-interfaces"))) {
+								GoProgramGenerator generator = new GoProgramGenerator(functions, loops, concat,
+										structs, interfaces, seed);
+								Path source = out.resolve("synthetic-" + functions + "-" + loops + "-" + concat + "-"
+										+ structs + "-" + interfaces + ".go");
+								generator.writeTo(source);
+
+								for (String domain : domains)
+									report(csv, domain + "," + functions + "," + loops + "," + concat + "," + structs
+											+ "," + interfaces + "," + run(source, domain, out));
+							}
+		}
+	}
+
+	private static String run(Path source, String domain, Path out) {
+		long parse = -1, cfg = -1, fixpoint = -1, analysis = -1;
+		resetPeaks();
+		try {
+			Metrics metrics = Metrics.reset();
+			SourceFileContext tree = GoFrontEnd.parse(source.toString());
+			parse = wall(metrics, "lexing") + wall(metrics, "parsing");
+
+			Program program = GoFrontEnd.processParseTree(source.toString(), tree);
+			cfg = wall(metrics, "cfg-construction");
+
+			LiSAConfiguration conf = new LiSAConfiguration();
+			conf.setWorkdir(out.resolve("lisa").toString())
+					.setInferTypes(true)
+					.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class),
+							domain(domain)))
+					.setInterproceduralAnalysis(new ModularWorstCaseWithNativeCalls<>());
+
+			long start = System.nanoTime();
+			new LiSA(conf).run(program);
+			analysis = System.nanoTime() - start;
+			fixpoint = wall(metrics, "fixpoint");
+
+			return millis(parse) + "," + millis(cfg) + "," + millis(fixpoint) + "," + millis(analysis) + ","
+					+ peakHeap() + ",ok";
+		} catch (Exception | StackOverflowError | OutOfMemoryError e) {
+			return millis(parse) + "," + millis(cfg) + "," + millis(fixpoint) + "," + millis(analysis) + ","
+					+ peakHeap() + "," + e.getClass().getSimpleName();
+		}
+	}
+
+	private static long wall(Metrics metrics, String phase) {
+		Sample sample = metrics.getPhases().get(phase);
+		return sample == null ? 0 : sample.getWallNanos();
+	}
+
+	private static Object domain(String name) {
+		switch (name) {
+		case "Tarsis":
+			return new Tarsis();
+		case "RelTarsis":
+			return new RelTarsis();
+		case "RelationalSubstringDomain":
+			return new RelationalSubstringDomain();
+		case "Pentagons":
+			return new Pentagons();
+		default:
+			throw new IllegalArgumentException("Unknown domain " + name);
+		}
+	}
+
+	private static void resetPeaks() {
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+	}
+
+	private static long peakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+		return peak / (1024 * 1024);
+	}
+
+	private static String millis(long nanos) {
+		return nanos < 0 ? "" : String.valueOf(nanos / 1_000_000);
+	}
+
+	private static int[] ints(String list) {
+		return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+	}
+
+	private static void report(PrintWriter csv, String line) {
+		System.out.println(line);
+		csv.println(line);
+		csv.flush();
+	}
+}
@@ -0,0 +1,158 @@
+package it.unive.golisa.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * A deterministic generator of synthetic Go packages, used to measure how
+ * GoLiSA scales. The shape of the generated package is controlled by the
+ * number of functions, the nesting depth of their loops, the depth of their
+ * string concatenations and the number of structs and interfaces. Each struct
+ * implements one of the interfaces, and each function calls the method of a
+ * struct through its interface, so that calls have to be resolved
+ * dynamically. The same parameters and seed always yield the same program.
+ */
+public class GoProgramGenerator {
+
+	private final int functions;
+
+	private final int loopDepth;
+
+	private final int concatDepth;
+
+	private final int structs;
+
+	private final int interfaces;
+
+	private final long seed;
+
+	/**
+	 * Builds the generator.
+	 *
+	 * @param functions   the number of functions of the generated package
+	 * @param loopDepth   the nesting depth of the loops of each function
+	 * @param concatDepth the number of operands of each string concatenation
+	 * @param structs     the number of struct types (each with a method)
+	 * @param interfaces  the number of interface types
+	 * @param seed        the seed used to pick literals and operands
+	 */
+	public GoProgramGenerator(int functions, int loopDepth, int concatDepth, int structs, int interfaces, long seed) {
+		this.functions = functions;
+		this.loopDepth = loopDepth;
+		this.concatDepth = Math.max(1, concatDepth);
+		this.structs = structs;
+		this.interfaces = interfaces;
+		this.seed = seed;
+	}
+
+	/**
+	 * Yields the source code of the generated package.
+	 *
+	 * @return the source code
+	 */
+	public String generate() {
+		Random random = new Random(seed);
+		StringBuilder sb = new StringBuilder("package synthetic\n\n");
+
+		for (int i = 0; i < interfaces; i++)
+			sb.append("type I").append(i).append(" interface {\n")
+					.append("\tName").append(i).append("() string\n")
+					.append("}\n\n");
+
+		for (int i = 0; i < structs; i++) {
+			sb.append("type S").append(i).append(" struct {\n")
+					.append("\tname string\n")
+					.append("\tsize int\n")
+					.append("}\n\n");
+
+			sb.append("func (s S").append(i).append(") Name").append(i % Math.max(1, interfaces))
+					.append("() string {\n")
+					.append("\treturn s.name + \"").append(literal(random)).append("\"\n")
+					.append("}\n\n");
+		}
+
+		for (int i = 0; i < functions; i++)
+			function(sb, i, random);
+
+		return sb.toString();
+	}
+
+	private void function(StringBuilder sb, int index, Random random) {
+		sb.append("func f").append(index).append("(p string, n int) string {\n");
+		sb.append("\tres := \"").append(literal(random)).append("\"\n");
+		sb.append("\tcount := 0\n");
+
+		if (structs > 0) {
+			int s = random.nextInt(structs);
+			sb.append("\tv := S").append(s).append("{\"").append(literal(random)).append("\", ").append(index)
+					.append("}\n");
+			sb.append("\tres = res + v.name\n");
+			if (interfaces > 0) {
+				// S<s> implements I<s % interfaces>
+				int i = s % interfaces;
+				sb.append("\tvar it I").append(i).append(" = v\n");
+				sb.append("\tres = res + it.Name").append(i).append("()\n");
+			}
+		}
+
+		String indent = "\t";
+		for (int d = 0; d < loopDepth; d++) {
+			sb.append(indent).append("for i").append(d).append(" := 0; i").append(d).append(" < n; i").append(d)
+					.append("++ {\n");
+			indent += "\t";
+		}
+
+		sb.append(indent).append("res = res");
+		for (int c = 0; c < concatDepth; c++)
+			if (random.nextBoolean())
+				sb.append(" + p");
+			else
+				sb.append(" + \"").append(literal(random)).append("\"");
+		sb.append("\n");
+		sb.append(indent).append("count = count + ").append(1 + random.nextInt(9)).append("\n");
+
+		sb.append(indent).append("if res == p {\n");
+		sb.append(indent).append("\tres = p + \"").append(literal(random)).append("\"\n");
+		sb.append(indent).append("}\n");
+
+		for (int d = loopDepth - 1; d >= 0; d--) {
+			indent = indent.substring(1);
+			sb.append(indent).append("}\n");
+		}
+
+		if (index > 0)
+			sb.append("\tres = res + f").append(random.nextInt(index)).append("(p, count)\n");
+
+		sb.append("\treturn res\n");
+		sb.append("}\n\n");
+	}
+
+	private static String literal(Random random) {
+		char[] chars = new char[1 + random.nextInt(4)];
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = (char) ('a' + random.nextInt(26));
+		return new String(chars);
+	}
+
+	/**
+	 * Writes the generated package to {@code file}.
+	 *
+	 * @param file the file to write
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeTo(Path file) throws IOException {
+		if (file.getParent() != null)
+			Files.createDirectories(file.getParent());
+		Files.write(file, generate().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public String toString() {
+		return "functions=" + functions + ", loopDepth=" + loopDepth + ", concatDepth=" + concatDepth
+				+ ", structs=" + structs + ", interfaces=" + interfaces + ", seed=" + seed;
+	}
+}
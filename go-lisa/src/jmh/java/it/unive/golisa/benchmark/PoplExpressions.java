@@ -0,0 +1,249 @@
+package it.unive.golisa.benchmark;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+
+import it.unive.golisa.antlr.GoLexer;
+import it.unive.golisa.cfg.type.GoBoolType;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * Deterministic benchmark inputs built from the string literals, the
+ * identifiers and the integer literals of the Go programs in
+ * {@code go-testcases/popl}.
+ */
+public class PoplExpressions {
+
+	/**
+	 * The folder containing the Go programs the inputs are built from.
+	 */
+	public static final String POPL_DIR = "go-testcases/popl";
+
+	private final List<String> strings;
+
+	private final List<String> names;
+
+	private final List<Integer> integers;
+
+	private PoplExpressions(List<String> strings, List<String> names, List<Integer> integers) {
+		this.strings = strings;
+		this.names = names;
+		this.integers = integers;
+	}
+
+	/**
+	 * Lexes the programs in {@link #POPL_DIR}, collecting their literals and
+	 * identifiers in order of appearance.
+	 *
+	 * @return the collected inputs
+	 *
+	 * @throws IOException if a program cannot be read
+	 */
+	public static PoplExpressions load() throws IOException {
+		Set<String> strings = new LinkedHashSet<>();
+		Set<String> names = new LinkedHashSet<>();
+		Set<Integer> integers = new LinkedHashSet<>();
+
+		List<Path> sources;
+		try (Stream<Path> files = Files.list(Paths.get(POPL_DIR))) {
+			sources = files.filter(p -> p.toString().endsWith(".go")).sorted().collect(Collectors.toList());
+		}
+
+		for (Path source : sources) {
+			GoLexer lexer = new GoLexer(CharStreams.fromPath(source, StandardCharsets.UTF_8));
+			for (Token token : lexer.getAllTokens())
+				switch (token.getType()) {
+				case GoLexer.INTERPRETED_STRING_LIT:
+				case GoLexer.RAW_STRING_LIT:
+					strings.add(token.getText().substring(1, token.getText().length() - 1));
+					break;
+				case GoLexer.IDENTIFIER:
+					names.add(token.getText());
+					break;
+				case GoLexer.DECIMAL_LIT:
+					Integer value = decimal(token.getText());
+					if (value != null)
+						integers.add(value);
+					break;
+				default:
+					break;
+				}
+		}
+
+		if (strings.isEmpty())
+			strings.add("");
+		if (integers.isEmpty())
+			integers.add(1);
+
+		return new PoplExpressions(new ArrayList<>(strings), new ArrayList<>(names), new ArrayList<>(integers));
+	}
+
+	/**
+	 * Yields {@code size} string variables, named after the identifiers of the
+	 * programs.
+	 *
+	 * @param size the number of variables
+	 *
+	 * @return the variables
+	 */
+	public List<Identifier> stringVariables(int size) {
+		return variables(size, Caches.types().mkSingletonSet(GoStringType.INSTANCE));
+	}
+
+	/**
+	 * Yields {@code size} integer variables, named after the identifiers of
+	 * the programs.
+	 *
+	 * @param size the number of variables
+	 *
+	 * @return the variables
+	 */
+	public List<Identifier> intVariables(int size) {
+		return variables(size, Caches.types().mkSingletonSet(GoIntType.INSTANCE));
+	}
+
+	private List<Identifier> variables(int size, ExternalSet<Type> types) {
+		List<Identifier> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			String name = names.isEmpty() ? "v" : names.get(i % names.size());
+			result.add(new Variable(types, name + "_" + i, SyntheticLocation.INSTANCE));
+		}
+		return result;
+	}
+
+	/**
+	 * Yields one string expression to assign to each of the given variables:
+	 * literals of the programs, and concatenations of previous variables with
+	 * literals.
+	 *
+	 * @param ids   the variables
+	 * @param shift the offset of the first literal to use, to build different
+	 *                  sequences of assignments
+	 *
+	 * @return the expressions
+	 */
+	public List<ValueExpression> stringAssignments(List<Identifier> ids, int shift) {
+		List<ValueExpression> result = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			Constant lit = stringConstant(i + shift);
+			switch (i % 3) {
+			case 0:
+				result.add(lit);
+				break;
+			case 1:
+				result.add(concat(ids.get(i - 1), lit));
+				break;
+			default:
+				result.add(concat(concat(lit, ids.get(i - 2)), ids.get(i - 1)));
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Yields one integer expression to assign to each of the given variables:
+	 * literals of the programs, and sums and differences of previous variables
+	 * with literals.
+	 *
+	 * @param ids   the variables
+	 * @param shift the offset of the first literal to use, to build different
+	 *                  sequences of assignments
+	 *
+	 * @return the expressions
+	 */
+	public List<ValueExpression> intAssignments(List<Identifier> ids, int shift) {
+		List<ValueExpression> result = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			Constant lit = intConstant(i + shift);
+			if (i == 0)
+				result.add(lit);
+			else
+				result.add(new BinaryExpression(Caches.types().mkSingletonSet(GoIntType.INSTANCE), ids.get(i - 1), lit,
+						i % 2 == 0 ? BinaryOperator.NUMERIC_ADD : BinaryOperator.NUMERIC_SUB, SyntheticLocation.INSTANCE));
+		}
+		return result;
+	}
+
+	/**
+	 * Yields the string conditions checked by the benchmarks on the given
+	 * variables.
+	 *
+	 * @param ids the variables
+	 *
+	 * @return the conditions
+	 */
+	public List<ValueExpression> stringConditions(List<Identifier> ids) {
+		List<ValueExpression> result = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++)
+			result.add(new BinaryExpression(Caches.types().mkSingletonSet(GoBoolType.INSTANCE),
+					ids.get(i), i % 2 == 0 ? stringConstant(i) : ids.get((i + 1) % ids.size()),
+					BinaryOperator.STRING_CONTAINS, SyntheticLocation.INSTANCE));
+		return result;
+	}
+
+	/**
+	 * Yields the integer conditions checked by the benchmarks on the given
+	 * variables.
+	 *
+	 * @param ids the variables
+	 *
+	 * @return the conditions
+	 */
+	public List<ValueExpression> intConditions(List<Identifier> ids) {
+		List<ValueExpression> result = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++)
+			result.add(new BinaryExpression(Caches.types().mkSingletonSet(GoBoolType.INSTANCE),
+					ids.get(i), ids.get((i + 1) % ids.size()),
+					i % 2 == 0 ? BinaryOperator.COMPARISON_LT : BinaryOperator.COMPARISON_EQ, SyntheticLocation.INSTANCE));
+		return result;
+	}
+
+	private Constant stringConstant(int i) {
+		return new Constant(GoStringType.INSTANCE, strings.get(i % strings.size()), SyntheticLocation.INSTANCE);
+	}
+
+	/**
+	 * Parses a decimal literal, ignoring the underscores that Go allows
+	 * between digits. Literals that do not fit in an int are skipped
+	 * ({@code null} is returned), since the numeric domains only evaluate
+	 * int constants, as the ones built by the front-end.
+	 */
+	private static Integer decimal(String literal) {
+		BigInteger value = new BigInteger(literal.replace("_", ""));
+		return value.bitLength() < Integer.SIZE ? value.intValue() : null;
+	}
+
+	private Constant intConstant(int i) {
+		return new Constant(GoIntType.INSTANCE, integers.get(i % integers.size()), SyntheticLocation.INSTANCE);
+	}
+
+	private BinaryExpression concat(ValueExpression left, ValueExpression right) {
+		return new BinaryExpression(Caches.types().mkSingletonSet(GoStringType.INSTANCE), left, right,
+				BinaryOperator.STRING_CONCAT, SyntheticLocation.INSTANCE);
+	}
+}
@@ -0,0 +1,82 @@
+package it.unive.golisa.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unive.golisa.antlr.GoParser.SourceFileContext;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.golisa.cli.TokenCache;
+
+/**
+ * Compares parsing a Go file lexed from scratch with parsing it from the
+ * tokens of a warm {@link TokenCache}, on synthetic programs of increasing
+ * size built with {@link GoProgramGenerator}. The difference between the two
+ * is the time saved by the cache. Run it with {@code gradle jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenCacheBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int functions;
+
+	private Path directory;
+
+	private String source;
+
+	private TokenCache cache;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("token-cache-benchmark");
+		Path file = directory.resolve("program.go");
+		new GoProgramGenerator(functions, 2, 4, 2, 1, 42).writeTo(file);
+		source = file.toString();
+
+		cache = new TokenCache(directory.resolve("cache"));
+		GoFrontEnd.setTokenCache(cache);
+		GoFrontEnd.parse(source);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		GoFrontEnd.setTokenCache(null);
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public SourceFileContext lexed() throws IOException {
+		GoFrontEnd.setTokenCache(null);
+		return GoFrontEnd.parse(source);
+	}
+
+	@Benchmark
+	public SourceFileContext cached() throws IOException {
+		GoFrontEnd.setTokenCache(cache);
+		return GoFrontEnd.parse(source);
+	}
+}
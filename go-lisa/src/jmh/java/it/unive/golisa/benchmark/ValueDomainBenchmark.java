@@ -0,0 +1,185 @@
+package it.unive.golisa.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import it.unive.golisa.analysis.Pentagons;
+import it.unive.golisa.analysis.StrictUpperBounds;
+import it.unive.golisa.analysis.composition.RelTarsis;
+import it.unive.golisa.analysis.rsubs.RelationalSubstringDomain;
+import it.unive.golisa.analysis.tarsis.Tarsis;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueExpression;
+
+/**
+ * Microbenchmarks of the lattice operations and of the transfer functions of
+ * the string and numerical domains, on abstract states built from the
+ * literals and identifiers of the programs in {@code go-testcases/popl}.
+ * Run them with {@code gradle jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueDomainBenchmark {
+
+	@Param({ "Tarsis", "RelTarsis", "RelationalSubstringDomain", "Pentagons", "StrictUpperBounds" })
+	private String domain;
+
+	@Param({ "8", "32" })
+	private int variables;
+
+	private Fixture<?> fixture;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		PoplExpressions inputs = PoplExpressions.load();
+		Program program = GoFrontEnd.processFile(PoplExpressions.POPL_DIR + "/strings.go");
+		CFG cfg = program.getAllCFGs().iterator().next();
+		ProgramPoint pp = cfg.getGenericProgramPoint();
+
+		switch (domain) {
+		case "Tarsis":
+			fixture = Fixture.strings(new ValueEnvironment<>(new Tarsis()), inputs, variables, pp);
+			break;
+		case "RelTarsis":
+			fixture = Fixture.strings(new RelTarsis(), inputs, variables, pp);
+			break;
+		case "RelationalSubstringDomain":
+			fixture = Fixture.strings(new RelationalSubstringDomain(), inputs, variables, pp);
+			break;
+		case "Pentagons":
+			fixture = Fixture.ints(new Pentagons(), inputs, variables, pp);
+			break;
+		case "StrictUpperBounds":
+			fixture = Fixture.ints(new StrictUpperBounds(), inputs, variables, pp);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown domain " + domain);
+		}
+	}
+
+	@Benchmark
+	public Object lub() throws SemanticException {
+		return fixture.lub();
+	}
+
+	@Benchmark
+	public Object widening() throws SemanticException {
+		return fixture.widening();
+	}
+
+	@Benchmark
+	public boolean lessOrEqual() throws SemanticException {
+		return fixture.lessOrEqual();
+	}
+
+	@Benchmark
+	public Object assign() throws SemanticException {
+		return fixture.assign();
+	}
+
+	@Benchmark
+	public void satisfies(Blackhole bh) throws SemanticException {
+		fixture.satisfies(bh);
+	}
+
+	/**
+	 * Two abstract states of the same domain, obtained by two different
+	 * sequences of assignments to the same variables, together with an extra
+	 * assignment and the conditions to check on them.
+	 *
+	 * @param <T> the domain
+	 */
+	private static class Fixture<T extends ValueDomain<T>> {
+
+		private final T left;
+
+		private final T right;
+
+		private final Identifier target;
+
+		private final ValueExpression expression;
+
+		private final List<ValueExpression> conditions;
+
+		private final ProgramPoint pp;
+
+		private Fixture(T top, List<Identifier> ids, List<ValueExpression> leftExps, List<ValueExpression> rightExps,
+				List<ValueExpression> conditions, ProgramPoint pp) throws SemanticException {
+			T l = top;
+			T r = top;
+			for (int i = 0; i < ids.size(); i++) {
+				l = l.assign(ids.get(i), leftExps.get(i), pp);
+				// the right state leaves one variable out of three unassigned
+				if (i % 3 != 2)
+					r = r.assign(ids.get(i), rightExps.get(i), pp);
+			}
+
+			this.left = l;
+			this.right = r;
+			this.target = ids.get(ids.size() - 1);
+			this.expression = rightExps.get(ids.size() - 1);
+			this.conditions = conditions;
+			this.pp = pp;
+		}
+
+		private static <T extends ValueDomain<T>> Fixture<T> strings(T top, PoplExpressions inputs, int size,
+				ProgramPoint pp) throws SemanticException {
+			List<Identifier> ids = inputs.stringVariables(size);
+			return new Fixture<>(top, ids, inputs.stringAssignments(ids, 0), inputs.stringAssignments(ids, 1),
+					inputs.stringConditions(ids), pp);
+		}
+
+		private static <T extends ValueDomain<T>> Fixture<T> ints(T top, PoplExpressions inputs, int size,
+				ProgramPoint pp) throws SemanticException {
+			List<Identifier> ids = inputs.intVariables(size);
+			return new Fixture<>(top, ids, inputs.intAssignments(ids, 0), inputs.intAssignments(ids, 1),
+					inputs.intConditions(ids), pp);
+		}
+
+		private T lub() throws SemanticException {
+			return left.lub(right);
+		}
+
+		private T widening() throws SemanticException {
+			return left.widening(right);
+		}
+
+		private boolean lessOrEqual() throws SemanticException {
+			return left.lessOrEqual(right);
+		}
+
+		private T assign() throws SemanticException {
+			return left.assign(target, expression, pp);
+		}
+
+		private void satisfies(Blackhole bh) throws SemanticException {
+			for (ValueExpression condition : conditions)
+				bh.consume(left.satisfies(condition, pp));
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package it.unive.golisa.analysis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.stream.JsonWriter;
+
+import it.unive.lisa.program.cfg.CFG;
+
+/**
+ * Budgets bounding the analysis of each cfg (wall time, number of transfer
+ * function applications, size of the abstract states) and of the whole
+ * program (wall time). A cfg exceeding its budget, or analysed after the
+ * global budget has been exhausted, is degraded: from that moment on, the
+ * {@link BudgetedDomain} yields top for each of its program points, as
+ * {@link ModularWorstCaseWithNativeCalls} does for calls, so that its fixpoint
+ * terminates quickly. Degradations are recorded and can be written as a
+ * report. A budget of {@code 0} means no limit.
+ */
+public class AnalysisBudget {
+
+	private static final Logger log = LogManager.getLogger(AnalysisBudget.class);
+
+	private static final ThreadLocal<AnalysisBudget> CURRENT = new ThreadLocal<>();
+
+	private final long cfgMillis;
+
+	private final long cfgSteps;
+
+	private final long stateSize;
+
+	private final long totalMillis;
+
+	private final List<Degradation> degradations;
+
+	private long start = -1;
+
+	private CFG cfg;
+
+	private long cfgStart;
+
+	private long steps;
+
+	private String reason;
+
+	/**
+	 * Builds the budget.
+	 *
+	 * @param cfgMillis   the maximum wall time spent on a cfg, in milliseconds
+	 * @param cfgSteps    the maximum number of transfer function applications
+	 *                        on a cfg
+	 * @param stateSize   the maximum size of an abstract state (length of its
+	 *                        representation)
+	 * @param totalMillis the maximum wall time spent on the whole program, in
+	 *                        milliseconds
+	 */
+	public AnalysisBudget(long cfgMillis, long cfgSteps, long stateSize, long totalMillis) {
+		this.cfgMillis = cfgMillis;
+		this.cfgSteps = cfgSteps;
+		this.stateSize = stateSize;
+		this.totalMillis = totalMillis;
+		this.degradations = new ArrayList<>();
+	}
+
+	/**
+	 * Installs {@code budget} as the one of the analyses run by the current
+	 * thread.
+	 *
+	 * @param budget the budget, or {@code null} to remove it
+	 */
+	public static void install(AnalysisBudget budget) {
+		if (budget == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(budget);
+	}
+
+	/**
+	 * Yields the budget of the analyses run by the current thread.
+	 *
+	 * @return the budget, or {@code null} if there is none
+	 */
+	public static AnalysisBudget current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Starts the analysis of {@code cfg}. If the global budget is already
+	 * exhausted, the cfg is degraded immediately.
+	 *
+	 * @param cfg the cfg
+	 */
+	public void begin(CFG cfg) {
+		long now = System.nanoTime();
+		if (start < 0)
+			start = now;
+
+		this.cfg = cfg;
+		this.cfgStart = now;
+		this.steps = 0;
+		this.reason = null;
+
+		if (totalMillis > 0 && (now - start) / 1_000_000 > totalMillis)
+			degrade("global time budget of " + totalMillis + "ms exhausted");
+	}
+
+	/**
+	 * Ends the analysis of the current cfg.
+	 *
+	 * @return the reason why the cfg has been degraded, or {@code null} if it
+	 *             has been analysed within its budget
+	 */
+	public String end() {
+		String result = reason;
+		cfg = null;
+		reason = null;
+		return result;
+	}
+
+	/**
+	 * Yields whether the cfg being analysed has been degraded.
+	 *
+	 * @return {@code true} if and only if the cfg has been degraded
+	 */
+	public boolean isDegraded() {
+		return reason != null;
+	}
+
+	/**
+	 * Accounts for a transfer function application on the cfg being
+	 * analysed, degrading the cfg if that exceeds its budget.
+	 *
+	 * @param size the size of the produced state, computed only if a state
+	 *                 size budget is set
+	 *
+	 * @return {@code true} if and only if the cfg is degraded
+	 */
+	public boolean step(Supplier<Integer> size) {
+		if (cfg == null || reason != null)
+			return reason != null;
+
+		steps++;
+		if (cfgSteps > 0 && steps > cfgSteps)
+			degrade("more than " + cfgSteps + " transfer function applications");
+		else if (cfgMillis > 0 && (System.nanoTime() - cfgStart) / 1_000_000 > cfgMillis)
+			degrade("time budget of " + cfgMillis + "ms exceeded");
+		else if (stateSize > 0 && size.get() > stateSize)
+			degrade("abstract state larger than " + stateSize);
+
+		return reason != null;
+	}
+
+	private void degrade(String reason) {
+		this.reason = reason;
+		String name = cfg.getDescriptor().getFullSignature();
+		degradations.add(new Degradation(name, reason, steps, (System.nanoTime() - cfgStart) / 1_000_000));
+		log.warn("Analysis of {} degraded to top: {}", name, reason);
+	}
+
+	/**
+	 * Yields the degradations recorded so far.
+	 *
+	 * @return the degradations
+	 */
+	public List<Degradation> getDegradations() {
+		return Collections.unmodifiableList(degradations);
+	}
+
+	/**
+	 * Writes the recorded degradations as a json file.
+	 *
+	 * @param file the file to write
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeReport(Path file) throws IOException {
+		try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			writer.setIndent("  ");
+			writer.beginObject();
+			writer.name("budget").beginObject();
+			writer.name("cfgMillis").value(cfgMillis);
+			writer.name("cfgSteps").value(cfgSteps);
+			writer.name("stateSize").value(stateSize);
+			writer.name("totalMillis").value(totalMillis);
+			writer.endObject();
+			writer.name("degradations").beginArray();
+			for (Degradation d : degradations) {
+				writer.beginObject();
+				writer.name("cfg").value(d.cfg);
+				writer.name("reason").value(d.reason);
+				writer.name("steps").value(d.steps);
+				writer.name("millis").value(d.millis);
+				writer.endObject();
+			}
+			writer.endArray();
+			writer.endObject();
+		}
+	}
+
+	/**
+	 * A cfg whose analysis has been degraded to top.
+	 */
+	public static class Degradation {
+
+		private final String cfg;
+
+		private final String reason;
+
+		private final long steps;
+
+		private final long millis;
+
+		private Degradation(String cfg, String reason, long steps, long millis) {
+			this.cfg = cfg;
+			this.reason = reason;
+			this.steps = steps;
+			this.millis = millis;
+		}
+
+		/**
+		 * Yields the signature of the degraded cfg.
+		 *
+		 * @return the signature
+		 */
+		public String getCfg() {
+			return cfg;
+		}
+
+		/**
+		 * Yields the reason of the degradation.
+		 *
+		 * @return the reason
+		 */
+		public String getReason() {
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			return "Analysis of " + cfg + " degraded to top: " + reason;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package it.unive.golisa.analysis;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unive.golisa.cfg.BasicBlocks;
+import it.unive.golisa.cfg.CompactCFG;
+import it.unive.golisa.cfg.VariableScopingCFG;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.cfg.statement.Statement;
+
+/**
+ * The results of a {@link BlockFixpoint}. Only the states at the end of each
+ * basic block are stored: the state after any other statement is recomputed
+ * from the state at the beginning of its block when it is requested (e.g.,
+ * by a dump or a report). The states of the few most recently requested
+ * blocks are kept, so that visiting all the statements of a cfg recomputes
+ * each block only once in most cases. The states of inner expressions (e.g.,
+ * the parameters of a call) are recomputed together with the ones of their
+ * block: the first request of an expression whose block is not known yet
+ * recomputes the blocks until it is found, recording the block of each
+ * expression met on the way.
+ *
+ * @param <A> the type of {@link AbstractState}
+ * @param <H> the type of the {@link HeapDomain}
+ * @param <V> the type of the {@link ValueDomain}
+ */
+public class BlockAnalysisResults<A extends AbstractState<A, H, V>,
+		H extends HeapDomain<H>,
+		V extends ValueDomain<V>> extends CFGWithAnalysisResults<A, H, V> {
+
+	private static final int RECOMPUTED_BLOCKS = 8;
+
+	private final CompactCFG graph;
+
+	private final BasicBlocks blocks;
+
+	private final List<AnalysisState<A, H, V>> entries;
+
+	private final InterproceduralAnalysis<A, H, V> interprocedural;
+
+	private final Map<Integer, Block> recomputed;
+
+	private final Map<Statement, Integer> owners = new HashMap<>();
+
+	private final BitSet scanned = new BitSet();
+
+	/**
+	 * Builds the results.
+	 *
+	 * @param cfg             the analysed cfg
+	 * @param entryState      the state at the entrypoints of the cfg
+	 * @param results         the states at the end of each basic block
+	 * @param entries         the states at the beginning of each basic block,
+	 *                            indexed by block ({@code null} for
+	 *                            unreachable blocks)
+	 * @param interprocedural the interprocedural analysis used to compute the
+	 *                            results
+	 */
+	public BlockAnalysisResults(VariableScopingCFG cfg, AnalysisState<A, H, V> entryState,
+			Map<Statement, AnalysisState<A, H, V>> results, List<AnalysisState<A, H, V>> entries,
+			InterproceduralAnalysis<A, H, V> interprocedural) {
+		super(cfg, entryState, results);
+		this.graph = cfg.getCompactView();
+		this.blocks = cfg.getBasicBlocks();
+		this.entries = entries;
+		this.interprocedural = interprocedural;
+		this.recomputed = new LinkedHashMap<Integer, Block>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+				return size() > RECOMPUTED_BLOCKS;
+			}
+		};
+	}
+
+	@Override
+	public AnalysisState<A, H, V> getAnalysisStateAfter(Statement st) {
+		int index = graph.indexOf(st);
+		if (index < 0)
+			// not a node of the cfg, e.g., an inner expression
+			return expressionState(st);
+
+		int block = blocks.blockOf(index);
+		int position = blocks.positionOf(index);
+		if (position == blocks.statements(block).length - 1 || entries.get(block) == null)
+			return super.getAnalysisStateAfter(st);
+
+		return recompute(block).states.get(position);
+	}
+
+	private synchronized AnalysisState<A, H, V> expressionState(Statement expression) {
+		Integer block = owners.get(expression);
+		for (int b = scanned.nextClearBit(0); block == null && b < blocks.size(); b = scanned.nextClearBit(b + 1))
+			if (entries.get(b) != null) {
+				recompute(b);
+				block = owners.get(expression);
+			}
+
+		if (block == null)
+			// not an expression of this cfg, or unreachable
+			return super.getAnalysisStateAfter(expression);
+		return recompute(block).expressions.getState(expression);
+	}
+
+	private synchronized Block recompute(int block) {
+		Block result = recomputed.get(block);
+		if (result != null)
+			return result;
+
+		int[] stmts = blocks.statements(block);
+		AnalysisState<A, H, V> state = entries.get(block);
+		result = new Block(stmts.length, new StatementStore<>(state.bottom()));
+		try {
+			for (int stmt : stmts) {
+				state = BlockFixpoint.semantics(graph.node(stmt), state, interprocedural, result.expressions);
+				result.states.add(state);
+			}
+		} catch (SemanticException e) {
+			throw new IllegalStateException("Unable to recompute the states of " + graph.node(stmts[0]), e);
+		}
+
+		if (!scanned.get(block)) {
+			scanned.set(block);
+			for (Statement expression : result.expressions.getKeys())
+				owners.put(expression, block);
+		}
+
+		recomputed.put(block, result);
+		return result;
+	}
+
+	/**
+	 * The recomputed states of a block.
+	 */
+	private class Block {
+
+		private final List<AnalysisState<A, H, V>> states;
+
+		private final StatementStore<A, H, V> expressions;
+
+		private Block(int size, StatementStore<A, H, V> expressions) {
+			this.states = new ArrayList<>(size);
+			this.expressions = expressions;
+		}
+	}
+}
@@ -0,0 +1,298 @@
+package it.unive.golisa.analysis;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unive.golisa.cfg.BasicBlocks;
+import it.unive.golisa.cfg.CompactCFG;
+import it.unive.golisa.cfg.VariableScopingCFG;
+import it.unive.golisa.cfg.WeakTopologicalOrder;
+import it.unive.golisa.cfg.WeakTopologicalOrder.Element;
+import it.unive.golisa.metrics.Metrics;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+
+/**
+ * A fixpoint over the {@link BasicBlocks} of a {@link VariableScopingCFG}.
+ * Each block is analysed as a whole, starting from the lub of the states at
+ * the end of its predecessors, and only the states at its beginning and at
+ * its end are kept. States of statements inside a block are recomputed on
+ * demand by {@link BlockAnalysisResults}, so that functions with long
+ * straight-line bodies store far fewer states than with LiSA's fixpoint.
+ * Blocks can be processed in two ways:
+ * <ul>
+ * <li>{@link FixpointStrategy#BLOCKS}: through a worklist ordered by block
+ * number (that is, in reverse postorder), joining or widening at the
+ * beginning of loop heads, that are the targets of retreating edges</li>
+ * <li>{@link FixpointStrategy#WTO}: following the
+ * {@link WeakTopologicalOrder} of the blocks, with Bourdoncle's recursive
+ * strategy: each loop is iterated until its head is stable, inner loops are
+ * stabilized at each iteration of the outer ones, and joins and widenings
+ * happen only at loop heads</li>
+ * </ul>
+ * The number of block evaluations and of widenings are recorded in the
+ * {@link Metrics} of the current thread.
+ */
+public class BlockFixpoint {
+
+	/**
+	 * The number of lubs at the same block after which widening is used, as
+	 * in LiSA's fixpoint.
+	 */
+	public static final int WIDENING_THRESHOLD = 5;
+
+	/**
+	 * The counter of the evaluations of basic blocks.
+	 */
+	public static final String EVALUATIONS = "fixpoint_block_evaluations";
+
+	/**
+	 * The counter of the widenings applied.
+	 */
+	public static final String WIDENINGS = "fixpoint_widenings";
+
+	private BlockFixpoint() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Computes the fixpoint over {@code cfg}.
+	 *
+	 * @param <A>             the type of {@link AbstractState}
+	 * @param <H>             the type of the {@link HeapDomain}
+	 * @param <V>             the type of the {@link ValueDomain}
+	 * @param cfg             the cfg
+	 * @param entryState      the state at the entrypoints of the cfg
+	 * @param interprocedural the interprocedural analysis resolving calls
+	 * @param strategy        either {@link FixpointStrategy#BLOCKS} or
+	 *                            {@link FixpointStrategy#WTO}
+	 * @param widenAfter      the number of lubs at the same block after which
+	 *                            widening is used ({@code 0} means never)
+	 *
+	 * @return the results of the fixpoint
+	 *
+	 * @throws FixpointException if the semantics of a statement fails
+	 */
+	public static <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> CFGWithAnalysisResults<A, H, V> run(VariableScopingCFG cfg,
+					AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural,
+					FixpointStrategy strategy, int widenAfter) throws FixpointException {
+		Iteration<A, H, V> iteration = new Iteration<>(cfg, entryState, interprocedural, widenAfter);
+		try {
+			if (strategy == FixpointStrategy.WTO)
+				iteration.stabilize(cfg.getWeakTopologicalOrder().getElements());
+			else
+				iteration.worklist();
+		} catch (SemanticException e) {
+			throw new FixpointException("Error while computing the fixpoint over " + cfg, e);
+		} finally {
+			Metrics metrics = Metrics.current();
+			metrics.count(EVALUATIONS, iteration.evaluations);
+			metrics.count(WIDENINGS, iteration.widenings);
+		}
+
+		return iteration.results();
+	}
+
+	/**
+	 * Yields the state after {@code statement}, starting from {@code state}.
+	 * The states of its inner expressions are stored in {@code expressions}.
+	 */
+	static <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> AnalysisState<A, H, V> semantics(Statement statement,
+					AnalysisState<A, H, V> state, InterproceduralAnalysis<A, H, V> interprocedural,
+					StatementStore<A, H, V> expressions) throws SemanticException {
+		return statement.semantics(state, interprocedural, expressions);
+	}
+
+	private static class Iteration<A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> {
+
+		private final VariableScopingCFG cfg;
+
+		private final CompactCFG graph;
+
+		private final BasicBlocks blocks;
+
+		private final AnalysisState<A, H, V> entryState;
+
+		private final InterproceduralAnalysis<A, H, V> interprocedural;
+
+		private final int widenAfter;
+
+		private final BitSet isEntry;
+
+		private final BitSet isLoopHead;
+
+		private final List<AnalysisState<A, H, V>> entries;
+
+		private final List<AnalysisState<A, H, V>> exits;
+
+		private final int[] lubs;
+
+		private long evaluations;
+
+		private long widenings;
+
+		private Iteration(VariableScopingCFG cfg, AnalysisState<A, H, V> entryState,
+				InterproceduralAnalysis<A, H, V> interprocedural, int widenAfter) {
+			this.cfg = cfg;
+			this.graph = cfg.getCompactView();
+			this.blocks = cfg.getBasicBlocks();
+			this.entryState = entryState;
+			this.interprocedural = interprocedural;
+			this.widenAfter = widenAfter;
+
+			int size = blocks.size();
+			entries = new ArrayList<>(Collections.nCopies(size, null));
+			exits = new ArrayList<>(Collections.nCopies(size, null));
+			lubs = new int[size];
+			isEntry = new BitSet(size);
+			for (int entry : graph.entrypoints())
+				isEntry.set(blocks.blockOf(entry));
+
+			// blocks are numbered in reverse postorder: every cycle contains
+			// an edge to a block that does not follow its source
+			isLoopHead = new BitSet(size);
+			for (int b = 0; b < size; b++)
+				for (int pred : graph.predecessors(blocks.statements(b)[0]))
+					if (blocks.blockOf(pred) >= b)
+						isLoopHead.set(b);
+		}
+
+		private void worklist() throws SemanticException {
+			BitSet pending = (BitSet) isEntry.clone();
+			for (int b = pending.nextSetBit(0); b >= 0; b = pending.nextSetBit(0)) {
+				pending.clear(b);
+
+				AnalysisState<A, H, V> in = entryOf(b);
+				if (in == null)
+					// not reachable yet
+					continue;
+
+				AnalysisState<A, H, V> old = entries.get(b);
+				if (old != null) {
+					if (in.lessOrEqual(old))
+						continue;
+					if (isLoopHead.get(b))
+						in = join(b, old, in);
+				}
+
+				// the exit is always the evaluation of the stored entry, so
+				// that the states inside the block can be recomputed
+				entries.set(b, in);
+				exits.set(b, evaluate(b, in));
+				for (int succ : blocks.successors(b))
+					pending.set(succ);
+			}
+		}
+
+		private void stabilize(List<Element> elements) throws SemanticException {
+			for (Element element : elements)
+				if (!element.isComponent()) {
+					int b = element.getHead();
+					AnalysisState<A, H, V> in = entryOf(b);
+					if (in != null) {
+						entries.set(b, in);
+						exits.set(b, evaluate(b, in));
+					}
+				} else
+					stabilize(element);
+		}
+
+		private void stabilize(Element component) throws SemanticException {
+			int head = component.getHead();
+			while (true) {
+				AnalysisState<A, H, V> in = entryOf(head);
+				if (in == null) {
+					// the head is not reachable, but (in irreducible cfgs)
+					// its body might be
+					stabilize(component.getBody());
+					return;
+				}
+
+				AnalysisState<A, H, V> old = entries.get(head);
+				if (old != null) {
+					if (in.lessOrEqual(old))
+						return;
+					in = join(head, old, in);
+				}
+
+				entries.set(head, in);
+				exits.set(head, evaluate(head, in));
+				stabilize(component.getBody());
+			}
+		}
+
+		private AnalysisState<A, H, V> join(int block, AnalysisState<A, H, V> old, AnalysisState<A, H, V> current)
+				throws SemanticException {
+			if (widenAfter == 0 || ++lubs[block] <= widenAfter)
+				return current.lub(old);
+			widenings++;
+			return old.widening(current);
+		}
+
+		private AnalysisState<A, H, V> entryOf(int block) throws SemanticException {
+			int leader = blocks.statements(block)[0];
+			AnalysisState<A, H, V> in = isEntry.get(block) ? entryState : null;
+			for (int pred : graph.predecessors(leader)) {
+				AnalysisState<A, H, V> out = exits.get(blocks.blockOf(pred));
+				if (out != null) {
+					AnalysisState<A, H, V> traversed = traverse(pred, leader, out);
+					in = in == null ? traversed : in.lub(traversed);
+				}
+			}
+			return in;
+		}
+
+		private AnalysisState<A, H, V> traverse(int source, int dest, AnalysisState<A, H, V> state)
+				throws SemanticException {
+			AnalysisState<A, H, V> result = null;
+			int[] succs = graph.successors(source);
+			Edge[] edges = graph.outgoingEdges(source);
+			for (int i = 0; i < succs.length; i++)
+				if (succs[i] == dest) {
+					AnalysisState<A, H, V> traversed = edges[i].traverse(state);
+					result = result == null ? traversed : result.lub(traversed);
+				}
+			return result;
+		}
+
+		private AnalysisState<A, H, V> evaluate(int block, AnalysisState<A, H, V> in) throws SemanticException {
+			evaluations++;
+			// the states of inner expressions are not kept
+			StatementStore<A, H, V> expressions = new StatementStore<>(in.bottom());
+			AnalysisState<A, H, V> out = in;
+			for (int stmt : blocks.statements(block))
+				out = semantics(graph.node(stmt), out, interprocedural, expressions);
+			return out;
+		}
+
+		private CFGWithAnalysisResults<A, H, V> results() {
+			Map<Statement, AnalysisState<A, H, V>> results = new HashMap<>(blocks.size() * 2);
+			for (int b = 0; b < blocks.size(); b++)
+				if (exits.get(b) != null) {
+					int[] stmts = blocks.statements(b);
+					results.put(graph.node(stmts[stmts.length - 1]), exits.get(b));
+				}
+
+			return new BlockAnalysisResults<>(cfg, entryState, results, entries, interprocedural);
+		}
+	}
+}
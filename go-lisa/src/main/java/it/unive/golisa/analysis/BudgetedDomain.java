@@ -0,0 +1,159 @@
+package it.unive.golisa.analysis;
+
+import it.unive.lisa.analysis.BaseLattice;
+import it.unive.lisa.analysis.ScopeToken;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.representation.DomainRepresentation;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueExpression;
+
+/**
+ * A value domain wrapping another one, that accounts each application of the
+ * semantics of the wrapped domain against the current {@link AnalysisBudget}.
+ * Once the cfg being analysed exceeds its budget, the semantics yields top,
+ * so that the fixpoint over that cfg stabilizes quickly. Lattice operations
+ * are just delegated.
+ *
+ * @param <V> the wrapped domain
+ */
+public class BudgetedDomain<V extends ValueDomain<V>> extends BaseLattice<BudgetedDomain<V>>
+		implements ValueDomain<BudgetedDomain<V>> {
+
+	private final V domain;
+
+	/**
+	 * Builds the domain.
+	 *
+	 * @param domain the domain to bound
+	 */
+	public BudgetedDomain(V domain) {
+		this.domain = domain;
+	}
+
+	/**
+	 * Yields the wrapped domain.
+	 *
+	 * @return the wrapped domain
+	 */
+	public V getDomain() {
+		return domain;
+	}
+
+	private BudgetedDomain<V> account(V result) {
+		AnalysisBudget budget = AnalysisBudget.current();
+		if (budget != null && budget.step(() -> result.representation().toString().length()))
+			return new BudgetedDomain<>(result.top());
+		return new BudgetedDomain<>(result);
+	}
+
+	private static boolean degraded() {
+		AnalysisBudget budget = AnalysisBudget.current();
+		return budget != null && budget.isDegraded();
+	}
+
+	@Override
+	public BudgetedDomain<V> assign(Identifier id, ValueExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		if (degraded())
+			return top();
+		return account(domain.assign(id, expression, pp));
+	}
+
+	@Override
+	public BudgetedDomain<V> smallStepSemantics(ValueExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		if (degraded())
+			return top();
+		return account(domain.smallStepSemantics(expression, pp));
+	}
+
+	@Override
+	public BudgetedDomain<V> assume(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		if (degraded())
+			return top();
+		return account(domain.assume(expression, pp));
+	}
+
+	@Override
+	public Satisfiability satisfies(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		if (degraded())
+			return Satisfiability.UNKNOWN;
+		return domain.satisfies(expression, pp);
+	}
+
+	@Override
+	public BudgetedDomain<V> forgetIdentifier(Identifier id) throws SemanticException {
+		return new BudgetedDomain<>(domain.forgetIdentifier(id));
+	}
+
+	@Override
+	public BudgetedDomain<V> pushScope(ScopeToken token) throws SemanticException {
+		return new BudgetedDomain<>(domain.pushScope(token));
+	}
+
+	@Override
+	public BudgetedDomain<V> popScope(ScopeToken token) throws SemanticException {
+		return new BudgetedDomain<>(domain.popScope(token));
+	}
+
+	@Override
+	public DomainRepresentation representation() {
+		return domain.representation();
+	}
+
+	@Override
+	public BudgetedDomain<V> top() {
+		return new BudgetedDomain<>(domain.top());
+	}
+
+	@Override
+	public BudgetedDomain<V> bottom() {
+		return new BudgetedDomain<>(domain.bottom());
+	}
+
+	@Override
+	public boolean isTop() {
+		return domain.isTop();
+	}
+
+	@Override
+	public boolean isBottom() {
+		return domain.isBottom();
+	}
+
+	@Override
+	protected BudgetedDomain<V> lubAux(BudgetedDomain<V> other) throws SemanticException {
+		return new BudgetedDomain<>(domain.lub(other.domain));
+	}
+
+	@Override
+	protected BudgetedDomain<V> wideningAux(BudgetedDomain<V> other) throws SemanticException {
+		return new BudgetedDomain<>(domain.widening(other.domain));
+	}
+
+	@Override
+	protected boolean lessOrEqualAux(BudgetedDomain<V> other) throws SemanticException {
+		return domain.lessOrEqual(other.domain);
+	}
+
+	@Override
+	public int hashCode() {
+		return domain.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		return domain.equals(((BudgetedDomain<?>) obj).domain);
+	}
+
+	@Override
+	public String toString() {
+		return domain.toString();
+	}
+}
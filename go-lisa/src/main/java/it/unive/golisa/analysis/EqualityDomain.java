@@ -1,16 +1,20 @@
 package it.unive.golisa.analysis;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
+import it.unive.lisa.analysis.BaseLattice;
 import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.analysis.SemanticException;
-import it.unive.lisa.analysis.lattices.FunctionalLattice;
 import it.unive.lisa.analysis.representation.DomainRepresentation;
 import it.unive.lisa.analysis.representation.StringRepresentation;
 import it.unive.lisa.analysis.value.ValueDomain;
@@ -21,46 +25,178 @@ import it.unive.lisa.symbolic.value.OutOfScopeIdentifier;
 import it.unive.lisa.symbolic.value.UnaryExpression;
 import it.unive.lisa.symbolic.value.ValueExpression;
 
-public class EqualityDomain extends FunctionalLattice<EqualityDomain, Identifier, ExpressionInverseSet<Identifier>> implements ValueDomain<EqualityDomain> {
+/**
+ * An equality domain tracking the equivalence classes of identifiers holding
+ * the same value, represented as a union-find forest. Each identifier is
+ * mapped to a node of the forest, and two identifiers are equal if their
+ * nodes have the same root, so that checking an equality takes two
+ * {@link #find(Node)}s. Classes are linked by rank, hence trees have
+ * logarithmic height, and all the mappings are {@link PersistentMap}s:
+ * operations never modify an existing instance, and an assignment updates a
+ * logarithmic number of entries instead of copying the partition. Since
+ * states are shared, paths are not compressed by queries. A forgotten
+ * identifier leaves its node in the forest, so that the other members of its
+ * class still reach their root, and the forest is rebuilt once such nodes
+ * outnumber the identifiers, that amortizes the rebuild over the operations
+ * that left them.
+ */
+public class EqualityDomain extends BaseLattice<EqualityDomain> implements ValueDomain<EqualityDomain> {
+
+	private static final EqualityDomain TOP = new EqualityDomain(PersistentMap.empty(), PersistentMap.empty(),
+			PersistentMap.empty(), 0, 0, false);
+	private static final EqualityDomain BOTTOM = new EqualityDomain(PersistentMap.empty(), PersistentMap.empty(),
+			PersistentMap.empty(), 0, 0, true);
+
+	/**
+	 * The node of each identifier that has been joined to a class
+	 */
+	private final PersistentMap<Identifier, Node> nodes;
+
+	/**
+	 * The parent of each node that is not a root
+	 */
+	private final PersistentMap<Node, Node> parents;
+
+	/**
+	 * The rank and the number of identifiers of each root
+	 */
+	private final PersistentMap<Node, Root> roots;
+
+	/**
+	 * The number of equalities between identifiers, that is, the number of
+	 * identifiers in non-singleton classes minus the number of such classes
+	 */
+	private final int equalities;
+
+	/**
+	 * The number of nodes left by forgotten identifiers
+	 */
+	private final int forgotten;
+
+	private final boolean isBottom;
 
 	public EqualityDomain() {
-		this(new ExpressionInverseSet<>(), null);
+		this(PersistentMap.empty(), PersistentMap.empty(), PersistentMap.empty(), 0, 0, false);
 	}
 
-	private EqualityDomain(ExpressionInverseSet<Identifier> lattice, Map<Identifier, ExpressionInverseSet<Identifier>> function) {
-		super(lattice, function);
+	private EqualityDomain(PersistentMap<Identifier, Node> nodes, PersistentMap<Node, Node> parents,
+			PersistentMap<Node, Root> roots, int equalities, int forgotten, boolean isBottom) {
+		this.nodes = nodes;
+		this.parents = parents;
+		this.roots = roots;
+		this.equalities = equalities;
+		this.forgotten = forgotten;
+		this.isBottom = isBottom;
+	}
+
+	/**
+	 * Yields {@code true} if {@code x} and {@code y} are known to be equal.
+	 *
+	 * @param x the first identifier
+	 * @param y the second identifier
+	 *
+	 * @return {@code true} if {@code x} and {@code y} belong to the same class
+	 */
+	public boolean areEqual(Identifier x, Identifier y) {
+		if (x.equals(y))
+			return true;
+		Node root = rootOf(x);
+		return root != null && root == rootOf(y);
+	}
+
+	private Node rootOf(Identifier id) {
+		Node node = nodes.get(id);
+		return node == null ? null : find(node);
+	}
+
+	private Node find(Node node) {
+		Node parent;
+		while ((parent = parents.get(node)) != null)
+			node = parent;
+		return node;
+	}
+
+	private EqualityDomain union(Identifier x, Identifier y) {
+		if (areEqual(x, y))
+			return this;
+
+		// the nodes of a partition without equalities can be dropped
+		EqualityDomain base = isTop() ? TOP : this;
+		PersistentMap<Identifier, Node> nodes = base.nodes;
+		PersistentMap<Node, Root> roots = base.roots;
+
+		Node xRoot = base.rootOf(x);
+		if (xRoot == null) {
+			xRoot = new Node();
+			nodes = nodes.put(x, xRoot);
+			roots = roots.put(xRoot, Root.SINGLETON);
+		}
+
+		Node yRoot = base.rootOf(y);
+		if (yRoot == null) {
+			yRoot = new Node();
+			nodes = nodes.put(y, yRoot);
+			roots = roots.put(yRoot, Root.SINGLETON);
+		}
+
+		// the root of lower rank is linked to the other one
+		Root xInfo = roots.get(xRoot);
+		Root yInfo = roots.get(yRoot);
+		if (xInfo.rank < yInfo.rank) {
+			Node node = xRoot;
+			xRoot = yRoot;
+			yRoot = node;
+			Root info = xInfo;
+			xInfo = yInfo;
+			yInfo = info;
+		}
+
+		int rank = xInfo.rank == yInfo.rank ? xInfo.rank + 1 : xInfo.rank;
+		roots = roots.remove(yRoot).put(xRoot, new Root(rank, xInfo.members + yInfo.members));
+		return new EqualityDomain(nodes, base.parents.put(yRoot, xRoot), roots, base.equalities + 1,
+				base.forgotten, false);
 	}
 
 	@Override
 	public EqualityDomain assign(Identifier id, ValueExpression expression, ProgramPoint pp) throws SemanticException {
-		if (expression instanceof Identifier) {
-			Map<Identifier, ExpressionInverseSet<Identifier>> func;
-			if (function == null)
-				func = new HashMap<>();
-			else
-				func = new HashMap<>(function);
-
-			func.put(id, new ExpressionInverseSet<>(Collections.singleton((Identifier) expression)));
-			return new EqualityDomain(lattice, func);
-		}
+		if (isBottom())
+			return this;
+
+		// x = x does not change the classes
+		if (expression.equals(id))
+			return this;
+
+		EqualityDomain forgotten = forgetIdentifier(id);
+		if (expression instanceof Identifier)
+			return forgotten.union(id, (Identifier) expression);
 
-		return forgetIdentifier(id);
+		return forgotten;
 	}
 
 	@Override
 	public EqualityDomain smallStepSemantics(ValueExpression expression, ProgramPoint pp) throws SemanticException {
-		return new EqualityDomain(lattice, function);
+		return this;
 	}
 
 	@Override
 	public EqualityDomain assume(ValueExpression expression, ProgramPoint pp) throws SemanticException {
 		Satisfiability isSat = satisfies(expression, pp);
-		if ( isSat == Satisfiability.SATISFIED)
-			return this;
-		else if (isSat == Satisfiability.NOT_SATISFIED)
+		if (isSat == Satisfiability.NOT_SATISFIED)
 			return bottom();
-		else
-			return this;
+
+		if (isSat == Satisfiability.UNKNOWN && expression instanceof BinaryExpression) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			switch (binary.getOperator()) {
+			case COMPARISON_EQ:
+				if (binary.getLeft() instanceof Identifier && binary.getRight() instanceof Identifier)
+					return union((Identifier) binary.getLeft(), (Identifier) binary.getRight());
+				return this;
+			default:
+				return this;
+			}
+		}
+
+		return this;
 	}
 
 	@Override
@@ -68,15 +204,28 @@ public class EqualityDomain extends FunctionalLattice<EqualityDomain, Identifier
 		if (isTop() || isBottom())
 			return this;
 
-		EqualityDomain result = new EqualityDomain(lattice, new HashMap<>(function));
-		if (result.function.containsKey(id))
-			result.function.remove(id);
+		Node node = nodes.get(id);
+		if (node == null)
+			return this;
+
+		// the node stays in the forest, as other members may reach the root
+		// through it
+		Node root = find(node);
+		Root info = roots.get(root);
+		int equalities = info.members > 1 ? this.equalities - 1 : this.equalities;
+		EqualityDomain result = new EqualityDomain(nodes.remove(id), parents,
+				roots.put(root, new Root(info.rank, info.members - 1)), equalities, forgotten + 1, false);
 
+		if (result.forgotten > result.nodes.size())
+			return of(result.classes());
 		return result;
 	}
 
 	@Override
 	public Satisfiability satisfies(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		if (isBottom())
+			return Satisfiability.BOTTOM;
+
 		if (expression instanceof UnaryExpression) {
 			UnaryExpression unary = (UnaryExpression) expression;
 
@@ -91,6 +240,15 @@ public class EqualityDomain extends FunctionalLattice<EqualityDomain, Identifier
 		if (expression instanceof BinaryExpression) {
 			BinaryExpression binary = (BinaryExpression) expression;
 
+			switch(binary.getOperator()) {
+			case LOGICAL_AND:
+				return satisfies((ValueExpression) binary.getLeft(), pp).and(satisfies((ValueExpression) binary.getRight(), pp));
+			case LOGICAL_OR:
+				return satisfies((ValueExpression) binary.getLeft(), pp).or(satisfies((ValueExpression) binary.getRight(), pp));
+			default:
+				break;
+			}
+
 			if (!(binary.getLeft() instanceof Identifier) || !(binary.getRight() instanceof Identifier))
 				return Satisfiability.UNKNOWN;
 
@@ -101,23 +259,20 @@ public class EqualityDomain extends FunctionalLattice<EqualityDomain, Identifier
 			case COMPARISON_GE:
 			case COMPARISON_EQ:
 			case COMPARISON_LE:
-				if (getState(left).contains(right) || getState(right).contains(left))
+				if (areEqual(left, right))
 					return Satisfiability.SATISFIED;
 				return Satisfiability.UNKNOWN;
 			case COMPARISON_NE:
 			case COMPARISON_LT:
 			case COMPARISON_GT:
-				if (getState(left).contains(right) || getState(right).contains(left))
+				if (areEqual(left, right))
 					return Satisfiability.NOT_SATISFIED;
-				return Satisfiability.UNKNOWN;			
-			case LOGICAL_AND:
-				return satisfies((ValueExpression) left, pp).and(satisfies((ValueExpression) right, pp));
-			case LOGICAL_OR:
-				return satisfies((ValueExpression) left, pp).or(satisfies((ValueExpression) right, pp));
+				return Satisfiability.UNKNOWN;
 			default:
 				return Satisfiability.UNKNOWN;
 			}
 		}
+
 		return Satisfiability.UNKNOWN;
 	}
 
@@ -129,31 +284,112 @@ public class EqualityDomain extends FunctionalLattice<EqualityDomain, Identifier
 		if (isBottom())
 			return Lattice.BOTTOM_REPR;
 
-		StringBuilder builder = new StringBuilder();
-		for (Entry<Identifier, ExpressionInverseSet<Identifier>> entry : function.entrySet())
-			builder.append(entry.getKey()).append(" == ").append(entry.getValue().toString()).append("\n");
+		List<String> lines = new ArrayList<>();
+		for (Set<Identifier> members : classes()) {
+			List<String> names = new ArrayList<>();
+			for (Identifier member : members)
+				names.add(member.toString());
+			Collections.sort(names);
+			lines.add(String.join(" == ", names));
+		}
+		Collections.sort(lines);
 
-		return new StringRepresentation(builder.toString().trim());
+		return new StringRepresentation(String.join("\n", lines));
 	}
 
 	@Override
 	public EqualityDomain top() {
-		return new EqualityDomain(lattice.top(), null);
+		return TOP;
 	}
 
 	@Override
 	public EqualityDomain bottom() {
-		return new EqualityDomain(lattice.bottom(), null);
+		return BOTTOM;
 	}
 
 	@Override
 	public boolean isTop() {
-		return lattice.isTop() && function == null;
+		return !isBottom && equalities == 0;
 	}
 
 	@Override
 	public boolean isBottom() {
-		return lattice.isBottom() && function == null;
+		return isBottom;
+	}
+
+	@Override
+	protected EqualityDomain lubAux(EqualityDomain other) throws SemanticException {
+		// partition meet: two identifiers are equal in the result iff they
+		// are equal in both the partitions
+		Map<Node, Map<Node, Set<Identifier>>> meets = new HashMap<>();
+		nodes.forEach((id, node) -> {
+			Node otherRoot = other.rootOf(id);
+			if (otherRoot != null)
+				meets.computeIfAbsent(find(node), k -> new HashMap<>())
+						.computeIfAbsent(otherRoot, k -> new HashSet<>()).add(id);
+		});
+
+		List<Set<Identifier>> result = new ArrayList<>();
+		for (Map<Node, Set<Identifier>> byOther : meets.values())
+			result.addAll(byOther.values());
+
+		return of(result);
+	}
+
+	@Override
+	protected EqualityDomain wideningAux(EqualityDomain other) throws SemanticException {
+		// the lattice has finite height
+		return lubAux(other);
+	}
+
+	@Override
+	protected boolean lessOrEqualAux(EqualityDomain other) throws SemanticException {
+		// each class of other must be contained in a class of this
+		for (Set<Identifier> otherClass : other.classes()) {
+			Node root = null;
+			for (Identifier member : otherClass) {
+				Node memberRoot = rootOf(member);
+				if (memberRoot == null || (root != null && root != memberRoot))
+					return false;
+				root = memberRoot;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (isBottom ? 1231 : 1237);
+		for (Set<Identifier> members : classes())
+			result += members.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		EqualityDomain other = (EqualityDomain) obj;
+		if (isBottom != other.isBottom)
+			return false;
+		if (equalities != other.equalities)
+			return false;
+		try {
+			return lessOrEqualAux(other) && other.lessOrEqualAux(this);
+		} catch (SemanticException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return representation().toString();
 	}
 
 	@Override
@@ -179,19 +415,87 @@ public class EqualityDomain extends FunctionalLattice<EqualityDomain, Identifier
 			throw new SemanticException("Popping the scope '" + token + "' raised an error", holder.get());
 
 		return result;
-	}	
-	
+	}
+
 	private EqualityDomain liftIdentifiers(Function<Identifier, Identifier> lifter) throws SemanticException {
 		if (isBottom() || isTop())
 			return this;
 
-		Map<Identifier, ExpressionInverseSet<Identifier>> function = mkNewFunction(null);
-		for (Identifier id : getKeys()) {
-			Identifier lifted = lifter.apply(id);
-			if (lifted != null)
-				function.put(lifted, getState(id));
+		List<Set<Identifier>> result = new ArrayList<>();
+		for (Set<Identifier> members : classes()) {
+			Set<Identifier> lifted = new HashSet<>();
+			for (Identifier member : members) {
+				Identifier id = lifter.apply(member);
+				if (id != null)
+					lifted.add(id);
+			}
+			result.add(lifted);
 		}
 
-		return new EqualityDomain(lattice, function);
+		return of(result);
+	}
+
+	/**
+	 * Yields the non-singleton classes of this partition.
+	 */
+	private Collection<Set<Identifier>> classes() {
+		Map<Node, Set<Identifier>> classes = new HashMap<>();
+		nodes.forEach((id, node) -> {
+			Node root = find(node);
+			if (roots.get(root).members > 1)
+				classes.computeIfAbsent(root, k -> new HashSet<>()).add(id);
+		});
+		return classes.values();
+	}
+
+	/**
+	 * Builds a partition from its classes, each one becoming a tree of height
+	 * one. Classes with less than two identifiers are ignored.
+	 */
+	private static EqualityDomain of(Collection<Set<Identifier>> classes) {
+		PersistentMap<Identifier, Node> nodes = PersistentMap.empty();
+		PersistentMap<Node, Node> parents = PersistentMap.empty();
+		PersistentMap<Node, Root> roots = PersistentMap.empty();
+		int equalities = 0;
+
+		for (Set<Identifier> members : classes) {
+			if (members.size() < 2)
+				continue;
+
+			Node root = new Node();
+			roots = roots.put(root, new Root(1, members.size()));
+			for (Identifier member : members) {
+				Node node = new Node();
+				nodes = nodes.put(member, node);
+				parents = parents.put(node, root);
+			}
+			equalities += members.size() - 1;
+		}
+
+		return new EqualityDomain(nodes, parents, roots, equalities, 0, false);
+	}
+
+	/**
+	 * A node of the forest, compared by identity.
+	 */
+	private static final class Node {
+	}
+
+	/**
+	 * The rank of a root, that bounds the height of its tree, and the number
+	 * of identifiers in its class.
+	 */
+	private static final class Root {
+
+		private static final Root SINGLETON = new Root(0, 1);
+
+		private final int rank;
+
+		private final int members;
+
+		private Root(int rank, int members) {
+			this.rank = rank;
+			this.members = members;
+		}
 	}
 }
@@ -0,0 +1,42 @@
+package it.unive.golisa.analysis;
+
+import it.unive.golisa.cfg.VariableScopingCFG;
+
+/**
+ * The strategies available to compute the fixpoint over a
+ * {@link VariableScopingCFG}. Other cfgs (e.g., runtime models) always use
+ * LiSA's fixpoint.
+ */
+public enum FixpointStrategy {
+
+	/**
+	 * LiSA's fixpoint, storing an abstract state after each statement.
+	 */
+	STATEMENTS,
+
+	/**
+	 * A fixpoint over basic blocks, storing an abstract state only at the end
+	 * of each block (see {@link BlockFixpoint}).
+	 */
+	BLOCKS,
+
+	/**
+	 * A fixpoint over basic blocks following their weak topological order,
+	 * stabilizing inner loops first and widening only at loop heads (see
+	 * {@link BlockFixpoint}).
+	 */
+	WTO;
+
+	/**
+	 * Yields the strategy corresponding to a command line name.
+	 *
+	 * @param name the name, case insensitive
+	 *
+	 * @return the strategy
+	 *
+	 * @throws IllegalArgumentException if no strategy has that name
+	 */
+	public static FixpointStrategy of(String name) {
+		return valueOf(name.toUpperCase());
+	}
+}
@@ -1,5 +1,6 @@
 package it.unive.golisa.analysis;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -9,6 +10,11 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import it.unive.golisa.cfg.VariableScopingCFG;
+import it.unive.golisa.logging.SampledProgress;
+import it.unive.golisa.metrics.Metrics;
+import it.unive.golisa.metrics.Metrics.Measure;
+import it.unive.golisa.outputs.StreamingJsonReport;
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.CFGWithAnalysisResults;
@@ -21,7 +27,6 @@ import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.interprocedural.InterproceduralAnalysisException;
 import it.unive.lisa.interprocedural.callgraph.CallGraph;
 import it.unive.lisa.interprocedural.callgraph.CallResolutionException;
-import it.unive.lisa.logging.IterationLogger;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.Parameter;
@@ -57,6 +62,16 @@ V extends ValueDomain<V>> implements InterproceduralAnalysis<A, H, V> {
 	private Program program;
 	
 	private CallGraph callGraph;
+
+	/**
+	 * The report where the results of each cfg are streamed, if any.
+	 */
+	private StreamingJsonReport report;
+
+	/**
+	 * The strategy used to compute the fixpoint over go cfgs.
+	 */
+	private FixpointStrategy strategy = FixpointStrategy.STATEMENTS;
 	
 	@Override
 	public void init(Program program, CallGraph callgraph) throws InterproceduralAnalysisException {
@@ -71,11 +86,57 @@ V extends ValueDomain<V>> implements InterproceduralAnalysis<A, H, V> {
 		this.results = new ConcurrentHashMap<>();
 	}
 
+	/**
+	 * Builds the analysis, streaming the results of each cfg to
+	 * {@code report} as soon as the fixpoint over that cfg terminates. Since
+	 * results are not needed after being written, they are not kept in memory:
+	 * {@link #getAnalysisResultsOf(CFG)} yields no results for the cfgs that
+	 * have been streamed, thus semantic checks (and anything else inspecting
+	 * the results after the fixpoint) see no results when this analysis is
+	 * used.
+	 * 
+	 * @param report the report where the results are streamed
+	 */
+	public ModularWorstCaseWithNativeCalls(StreamingJsonReport report) {
+		this();
+		this.report = report;
+	}
+
+	/**
+	 * Builds the analysis, computing the fixpoint over go cfgs with the given
+	 * strategy.
+	 * 
+	 * @param strategy the fixpoint strategy
+	 */
+	public ModularWorstCaseWithNativeCalls(FixpointStrategy strategy) {
+		this();
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Builds the analysis, streaming the results of each cfg to
+	 * {@code report} and computing the fixpoint over go cfgs with the given
+	 * strategy. As for {@link #ModularWorstCaseWithNativeCalls(StreamingJsonReport)},
+	 * streamed results are not retained.
+	 * 
+	 * @param report   the report where the results are streamed
+	 * @param strategy the fixpoint strategy
+	 */
+	public ModularWorstCaseWithNativeCalls(StreamingJsonReport report, FixpointStrategy strategy) {
+		this(report);
+		this.strategy = strategy;
+	}
+
 	@Override
 	public void fixpoint(AnalysisState<A, H, V> entryState) throws FixpointException {
-		for (CFG cfg : IterationLogger.iterate(log, program.getAllCFGs(), "Computing fixpoint over the whole program",
+		Metrics metrics = Metrics.current();
+		AnalysisBudget budget = AnalysisBudget.current();
+		for (CFG cfg : SampledProgress.iterate(log, program.getAllCFGs(), "Computing fixpoint over the whole program",
 				"cfgs"))
-			try {
+			try (Measure phase = metrics.phase("fixpoint"); Measure m = metrics.cfg(cfg.getDescriptor().getFullSignature())) {
+				if (budget != null)
+					budget.begin(cfg);
+
 				AnalysisState<A, H, V> prepared = entryState;
 
 				for (Parameter arg : cfg.getDescriptor().getArgs()) {
@@ -84,15 +145,42 @@ V extends ValueDomain<V>> implements InterproceduralAnalysis<A, H, V> {
 					prepared = prepared.assign(id, new PushAny(all, arg.getLocation()), cfg.getGenericProgramPoint());
 				}
 
-				results.put(cfg, Optional.of(cfg.fixpoint(prepared, this)));
+				CFGWithAnalysisResults<A, H, V> result;
+				if (strategy != FixpointStrategy.STATEMENTS && cfg instanceof VariableScopingCFG)
+					result = BlockFixpoint.run((VariableScopingCFG) cfg, prepared, this, strategy,
+							BlockFixpoint.WIDENING_THRESHOLD);
+				else
+					result = cfg.fixpoint(prepared, this);
+				if (report == null)
+					results.put(cfg, Optional.of(result));
+				else {
+					report.write(result);
+					results.put(cfg, Optional.empty());
+				}
 			} catch (SemanticException e) {
 				throw new FixpointException("Error while creating the entrystate for " + cfg, e);
+			} catch (IOException e) {
+				throw new FixpointException("Error while writing the results of " + cfg, e);
+			} finally {
+				if (budget != null) {
+					String degradation = budget.end();
+					if (degradation != null && report != null)
+						report.addWarning("Analysis of " + cfg.getDescriptor().getFullSignature() + " degraded to top: " + degradation);
+				}
 			}
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * If the results are streamed to a {@link StreamingJsonReport}, they are
+	 * released as soon as they are written, and this method yields an empty
+	 * collection for every cfg.
+	 */
 	@Override
 	public Collection<CFGWithAnalysisResults<A, H, V>> getAnalysisResultsOf(CFG cfg) {
-		return Collections.singleton(results.get(cfg).orElse(null));
+		Optional<CFGWithAnalysisResults<A, H, V>> result = results.get(cfg);
+		return result == null || !result.isPresent() ? Collections.emptySet() : Collections.singleton(result.get());
 	}
 
 	@Override
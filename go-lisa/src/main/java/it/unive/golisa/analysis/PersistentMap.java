@@ -0,0 +1,306 @@
+package it.unive.golisa.analysis;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A persistent hash map, implemented as a hash array mapped trie. Operations
+ * never modify an existing instance: an update copies only the nodes on the
+ * path to the updated key, that are at most seven, and shares the rest of the
+ * trie with the previous instance. Keys are compared through
+ * {@link Object#equals(Object)} and {@link Object#hashCode()}, and
+ * {@code null} keys and values are not allowed.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class PersistentMap<K, V> {
+
+	private static final int BITS = 5;
+
+	private static final int MASK = (1 << BITS) - 1;
+
+	private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+	/**
+	 * The root of the trie, either {@code null}, a {@link Leaf}, a
+	 * {@link Collision} or a {@link Branch}
+	 */
+	private final Object root;
+
+	private final int size;
+
+	private PersistentMap(Object root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Yields the empty map.
+	 *
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 *
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	static <K, V> PersistentMap<K, V> empty() {
+		return (PersistentMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * Yields the number of keys of this map.
+	 *
+	 * @return the number of keys
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Yields the value of {@code key}.
+	 *
+	 * @param key the key
+	 *
+	 * @return the value of {@code key}, or {@code null} if it is not in this
+	 *             map
+	 */
+	@SuppressWarnings("unchecked")
+	V get(K key) {
+		int hash = key.hashCode();
+		Object node = root;
+		for (int shift = 0; node != null; shift += BITS) {
+			if (node instanceof Leaf) {
+				Leaf leaf = (Leaf) node;
+				return leaf.hash == hash && leaf.key.equals(key) ? (V) leaf.value : null;
+			}
+
+			if (node instanceof Collision) {
+				Collision collision = (Collision) node;
+				if (collision.hash == hash)
+					for (Leaf leaf : collision.leaves)
+						if (leaf.key.equals(key))
+							return (V) leaf.value;
+				return null;
+			}
+
+			Branch branch = (Branch) node;
+			int bit = bit(hash, shift);
+			if ((branch.bitmap & bit) == 0)
+				return null;
+			node = branch.children[branch.index(bit)];
+		}
+
+		return null;
+	}
+
+	/**
+	 * Yields a map where {@code key} is mapped to {@code value}, and the other
+	 * keys are mapped as in this map.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 *
+	 * @return the updated map
+	 */
+	PersistentMap<K, V> put(K key, V value) {
+		Leaf leaf = new Leaf(key.hashCode(), key, value);
+		return new PersistentMap<>(put(root, 0, leaf), get(key) == null ? size + 1 : size);
+	}
+
+	/**
+	 * Yields a map without {@code key}, where the other keys are mapped as in
+	 * this map.
+	 *
+	 * @param key the key
+	 *
+	 * @return the updated map, or this map if {@code key} is not in it
+	 */
+	PersistentMap<K, V> remove(K key) {
+		if (get(key) == null)
+			return this;
+		return new PersistentMap<>(remove(root, 0, key.hashCode(), key), size - 1);
+	}
+
+	/**
+	 * Applies {@code action} to each key of this map and its value, in no
+	 * particular order.
+	 *
+	 * @param action the action
+	 */
+	void forEach(BiConsumer<? super K, ? super V> action) {
+		forEach(root, action);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void forEach(Object node, BiConsumer<? super K, ? super V> action) {
+		if (node instanceof Leaf) {
+			Leaf leaf = (Leaf) node;
+			action.accept((K) leaf.key, (V) leaf.value);
+		} else if (node instanceof Collision)
+			for (Leaf leaf : ((Collision) node).leaves)
+				action.accept((K) leaf.key, (V) leaf.value);
+		else if (node instanceof Branch)
+			for (Object child : ((Branch) node).children)
+				forEach(child, action);
+	}
+
+	private static int bit(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	private static Object put(Object node, int shift, Leaf leaf) {
+		if (node == null)
+			return leaf;
+
+		if (node instanceof Leaf) {
+			Leaf old = (Leaf) node;
+			if (old.hash != leaf.hash)
+				return merge(old, old.hash, leaf, shift);
+			if (old.key.equals(leaf.key))
+				return leaf;
+			return new Collision(leaf.hash, new Leaf[] { old, leaf });
+		}
+
+		if (node instanceof Collision) {
+			Collision collision = (Collision) node;
+			if (collision.hash != leaf.hash)
+				return merge(collision, collision.hash, leaf, shift);
+
+			Leaf[] leaves = collision.leaves;
+			for (int i = 0; i < leaves.length; i++)
+				if (leaves[i].key.equals(leaf.key)) {
+					Leaf[] updated = leaves.clone();
+					updated[i] = leaf;
+					return new Collision(leaf.hash, updated);
+				}
+
+			Leaf[] updated = new Leaf[leaves.length + 1];
+			System.arraycopy(leaves, 0, updated, 0, leaves.length);
+			updated[leaves.length] = leaf;
+			return new Collision(leaf.hash, updated);
+		}
+
+		Branch branch = (Branch) node;
+		int bit = bit(leaf.hash, shift);
+		int index = branch.index(bit);
+		if ((branch.bitmap & bit) != 0) {
+			Object[] children = branch.children.clone();
+			children[index] = put(children[index], shift + BITS, leaf);
+			return new Branch(branch.bitmap, children);
+		}
+
+		Object[] children = new Object[branch.children.length + 1];
+		System.arraycopy(branch.children, 0, children, 0, index);
+		children[index] = leaf;
+		System.arraycopy(branch.children, index, children, index + 1, branch.children.length - index);
+		return new Branch(branch.bitmap | bit, children);
+	}
+
+	/**
+	 * Builds the smallest trie containing {@code node}, whose keys all have
+	 * hash {@code hash}, and {@code leaf}, whose hash is different. Since the
+	 * two hashes differ, they end up in different children before all their
+	 * bits are consumed.
+	 */
+	private static Object merge(Object node, int hash, Leaf leaf, int shift) {
+		int bit = bit(hash, shift);
+		int leafBit = bit(leaf.hash, shift);
+		if (bit == leafBit)
+			return new Branch(bit, new Object[] { merge(node, hash, leaf, shift + BITS) });
+		if (Integer.compareUnsigned(bit, leafBit) < 0)
+			return new Branch(bit | leafBit, new Object[] { node, leaf });
+		return new Branch(bit | leafBit, new Object[] { leaf, node });
+	}
+
+	private static Object remove(Object node, int shift, int hash, Object key) {
+		if (node instanceof Leaf)
+			return null;
+
+		if (node instanceof Collision) {
+			Leaf[] leaves = ((Collision) node).leaves;
+			if (leaves.length == 2)
+				return leaves[0].key.equals(key) ? leaves[1] : leaves[0];
+
+			Leaf[] updated = new Leaf[leaves.length - 1];
+			int j = 0;
+			for (Leaf leaf : leaves)
+				if (!leaf.key.equals(key))
+					updated[j++] = leaf;
+			return new Collision(hash, updated);
+		}
+
+		Branch branch = (Branch) node;
+		int bit = bit(hash, shift);
+		int index = branch.index(bit);
+		Object child = remove(branch.children[index], shift + BITS, hash, key);
+
+		if (child != null) {
+			// a single leaf does not need a branch above it
+			if (branch.children.length == 1 && !(child instanceof Branch))
+				return child;
+			Object[] children = branch.children.clone();
+			children[index] = child;
+			return new Branch(branch.bitmap, children);
+		}
+
+		if (branch.children.length == 1)
+			return null;
+		if (branch.children.length == 2 && !(branch.children[1 - index] instanceof Branch))
+			return branch.children[1 - index];
+
+		Object[] children = new Object[branch.children.length - 1];
+		System.arraycopy(branch.children, 0, children, 0, index);
+		System.arraycopy(branch.children, index + 1, children, index, children.length - index);
+		return new Branch(branch.bitmap & ~bit, children);
+	}
+
+	private static final class Leaf {
+
+		private final int hash;
+
+		private final Object key;
+
+		private final Object value;
+
+		private Leaf(int hash, Object key, Object value) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * The leaves of keys with the same hash.
+	 */
+	private static final class Collision {
+
+		private final int hash;
+
+		private final Leaf[] leaves;
+
+		private Collision(int hash, Leaf[] leaves) {
+			this.hash = hash;
+			this.leaves = leaves;
+		}
+	}
+
+	/**
+	 * An inner node, with a child for each bit set in its bitmap, ordered by
+	 * bit.
+	 */
+	private static final class Branch {
+
+		private final int bitmap;
+
+		private final Object[] children;
+
+		private Branch(int bitmap, Object[] children) {
+			this.bitmap = bitmap;
+			this.children = children;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+	}
+}
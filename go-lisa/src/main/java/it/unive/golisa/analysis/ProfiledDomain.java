@@ -0,0 +1,159 @@
+package it.unive.golisa.analysis;
+
+import java.util.function.LongSupplier;
+
+import it.unive.golisa.metrics.StatementProfiler;
+import it.unive.lisa.analysis.BaseLattice;
+import it.unive.lisa.analysis.ScopeToken;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.representation.DomainRepresentation;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueExpression;
+
+/**
+ * A value domain wrapping another one, that records in the
+ * {@link StatementProfiler} the time spent in the semantics of the wrapped
+ * domain at each program point, and the size of the states it produces. The
+ * size of a state is the length of its representation, computed outside of
+ * the measured time and only when the profiler samples it (see
+ * {@link StatementProfiler#record(ProgramPoint, long, LongSupplier)}).
+ * Lattice operations are not attributed to program points, and are just
+ * delegated.
+ *
+ * @param <V> the wrapped domain
+ */
+public class ProfiledDomain<V extends ValueDomain<V>> extends BaseLattice<ProfiledDomain<V>>
+		implements ValueDomain<ProfiledDomain<V>> {
+
+	private static final StatementProfiler PROFILER = StatementProfiler.getInstance();
+
+	private final V domain;
+
+	/**
+	 * Builds the domain.
+	 *
+	 * @param domain the domain to profile
+	 */
+	public ProfiledDomain(V domain) {
+		this.domain = domain;
+	}
+
+	/**
+	 * Yields the wrapped domain.
+	 *
+	 * @return the wrapped domain
+	 */
+	public V getDomain() {
+		return domain;
+	}
+
+	private ProfiledDomain<V> record(ProgramPoint pp, long start, V result) {
+		long elapsed = System.nanoTime() - start;
+		PROFILER.record(pp, elapsed, () -> result.representation().toString().length());
+		return new ProfiledDomain<>(result);
+	}
+
+	@Override
+	public ProfiledDomain<V> assign(Identifier id, ValueExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		long start = System.nanoTime();
+		return record(pp, start, domain.assign(id, expression, pp));
+	}
+
+	@Override
+	public ProfiledDomain<V> smallStepSemantics(ValueExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		long start = System.nanoTime();
+		return record(pp, start, domain.smallStepSemantics(expression, pp));
+	}
+
+	@Override
+	public ProfiledDomain<V> assume(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		long start = System.nanoTime();
+		return record(pp, start, domain.assume(expression, pp));
+	}
+
+	@Override
+	public Satisfiability satisfies(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		long start = System.nanoTime();
+		Satisfiability result = domain.satisfies(expression, pp);
+		PROFILER.record(pp, System.nanoTime() - start, null);
+		return result;
+	}
+
+	@Override
+	public ProfiledDomain<V> forgetIdentifier(Identifier id) throws SemanticException {
+		return new ProfiledDomain<>(domain.forgetIdentifier(id));
+	}
+
+	@Override
+	public ProfiledDomain<V> pushScope(ScopeToken token) throws SemanticException {
+		return new ProfiledDomain<>(domain.pushScope(token));
+	}
+
+	@Override
+	public ProfiledDomain<V> popScope(ScopeToken token) throws SemanticException {
+		return new ProfiledDomain<>(domain.popScope(token));
+	}
+
+	@Override
+	public DomainRepresentation representation() {
+		return domain.representation();
+	}
+
+	@Override
+	public ProfiledDomain<V> top() {
+		return new ProfiledDomain<>(domain.top());
+	}
+
+	@Override
+	public ProfiledDomain<V> bottom() {
+		return new ProfiledDomain<>(domain.bottom());
+	}
+
+	@Override
+	public boolean isTop() {
+		return domain.isTop();
+	}
+
+	@Override
+	public boolean isBottom() {
+		return domain.isBottom();
+	}
+
+	@Override
+	protected ProfiledDomain<V> lubAux(ProfiledDomain<V> other) throws SemanticException {
+		return new ProfiledDomain<>(domain.lub(other.domain));
+	}
+
+	@Override
+	protected ProfiledDomain<V> wideningAux(ProfiledDomain<V> other) throws SemanticException {
+		return new ProfiledDomain<>(domain.widening(other.domain));
+	}
+
+	@Override
+	protected boolean lessOrEqualAux(ProfiledDomain<V> other) throws SemanticException {
+		return domain.lessOrEqual(other.domain);
+	}
+
+	@Override
+	public int hashCode() {
+		return domain.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		return domain.equals(((ProfiledDomain<?>) obj).domain);
+	}
+
+	@Override
+	public String toString() {
+		return domain.toString();
+	}
+}
@@ -0,0 +1,113 @@
+package it.unive.golisa.analysis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pool of interned string constants, used by
+ * {@link StringConstantPropagation}. Each string is mapped to an integer
+ * id, so that comparisons between abstract values are comparisons between
+ * ids, and the results of the string operations are memoized on pairs (or
+ * triples) of ids, so that re-evaluating an unchanged program point during
+ * the fixpoint does not allocate new strings.<br>
+ * <br>
+ * Each pool belongs to a single analysis: it is created together with the
+ * top element of {@link StringConstantPropagation} built for that analysis,
+ * and it is shared by all the abstract values derived from it, so that it is
+ * released with them when the analysis ends. Methods are synchronized since
+ * the values can be used by more than one thread of the same analysis.
+ */
+public class StringConstantPool {
+
+	private final Map<String, Integer> ids;
+
+	private final List<String> values;
+
+	private final Map<Long, Integer> concatenations;
+
+	private final Map<List<Integer>, Integer> replacements;
+
+	/**
+	 * Builds an empty pool.
+	 */
+	StringConstantPool() {
+		ids = new HashMap<>();
+		values = new ArrayList<>();
+		concatenations = new HashMap<>();
+		replacements = new HashMap<>();
+	}
+
+	/**
+	 * Yields the id of {@code value}, interning it if it was not part of the
+	 * pool.
+	 *
+	 * @param value the string to intern
+	 *
+	 * @return the id of {@code value}
+	 */
+	public synchronized int intern(String value) {
+		Integer id = ids.get(value);
+		if (id != null)
+			return id;
+
+		id = values.size();
+		values.add(value);
+		ids.put(value, id);
+		return id;
+	}
+
+	/**
+	 * Yields the string whose id is {@code id}.
+	 *
+	 * @param id the id
+	 *
+	 * @return the string interned with {@code id}
+	 */
+	public synchronized String get(int id) {
+		return values.get(id);
+	}
+
+	/**
+	 * Yields the id of the concatenation of the strings with ids
+	 * {@code left} and {@code right}.
+	 *
+	 * @param left  the id of the left string
+	 * @param right the id of the right string
+	 *
+	 * @return the id of the concatenation
+	 */
+	public synchronized int concat(int left, int right) {
+		long key = ((long) left << 32) | (right & 0xFFFFFFFFL);
+		Integer result = concatenations.get(key);
+		if (result == null) {
+			result = intern(values.get(left) + values.get(right));
+			concatenations.put(key, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields the id of the string obtained replacing, in the string with id
+	 * {@code target}, each occurrence of the string with id {@code search}
+	 * with the string with id {@code replacement}.
+	 *
+	 * @param target      the id of the target string
+	 * @param search      the id of the string to replace
+	 * @param replacement the id of the replacing string
+	 *
+	 * @return the id of the result of the replacement
+	 */
+	public synchronized int replace(int target, int search, int replacement) {
+		List<Integer> key = List.of(target, search, replacement);
+		Integer result = replacements.get(key);
+		if (result == null) {
+			result = intern(values.get(target).replaceAll(values.get(search), values.get(replacement)));
+			replacements.put(key, result);
+		}
+
+		return result;
+	}
+}
@@ -17,37 +17,52 @@ import it.unive.lisa.symbolic.value.ValueExpression;
 
 public class StringConstantPropagation extends BaseNonRelationalValueDomain<StringConstantPropagation> {
 
-	private static final StringConstantPropagation TOP = new StringConstantPropagation(true, false);
-	private static final StringConstantPropagation BOTTOM = new StringConstantPropagation(false, true);
+	private static final int NO_VALUE = -1;
 
 	private final boolean isTop, isBottom;
 
-	private final String value;
+	/**
+	 * The pool of the analysis this value belongs to
+	 */
+	private final StringConstantPool pool;
+
+	/**
+	 * The id of the string constant in {@link #pool}
+	 */
+	private final int value;
 
 	/**
-	 * Builds the top abstract value.
+	 * Builds the top abstract value, with a new {@link StringConstantPool}
+	 * shared by all the values derived from it.
 	 */
 	public StringConstantPropagation() {
-		this(null, true, false);
+		this(new StringConstantPool(), NO_VALUE, true, false);
 	}
 
-	private StringConstantPropagation(String value, boolean isTop, boolean isBottom) {
+	private StringConstantPropagation(StringConstantPool pool, int value, boolean isTop, boolean isBottom) {
+		this.pool = pool;
 		this.value = value;
 		this.isTop = isTop;
 		this.isBottom = isBottom;
 	}
 
-	private StringConstantPropagation(String value) {
-		this(value, false, false);
+	private StringConstantPropagation constant(int value) {
+		return new StringConstantPropagation(pool, value, false, false);
 	}
 
-	private StringConstantPropagation(boolean isTop, boolean isBottom) {
-		this(null, isTop, isBottom);
+	/**
+	 * Yields the id of the constant {@code other} in the pool of this value.
+	 * Values built from different tops of this domain belong to different
+	 * pools, where the same id stands for different strings: their ids are
+	 * never compared, and the string is interned in this pool instead.
+	 */
+	private int idOf(StringConstantPropagation other) {
+		return other.pool == pool ? other.value : pool.intern(other.getString());
 	}
 
 	@Override
 	public StringConstantPropagation top() {
-		return TOP;
+		return isTop ? this : new StringConstantPropagation(pool, NO_VALUE, true, false);
 	}
 
 	@Override
@@ -57,7 +72,7 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 
 	@Override
 	public StringConstantPropagation bottom() {
-		return BOTTOM;
+		return isBottom ? this : new StringConstantPropagation(pool, NO_VALUE, false, true);
 	}
 
 	@Override
@@ -67,7 +82,7 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 		if (isTop())
 			return Lattice.TOP_REPR;
 
-		return new StringRepresentation(value.toString());
+		return new StringRepresentation(getString());
 	}
 
 	@Override
@@ -78,7 +93,7 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 	@Override
 	protected StringConstantPropagation evalNonNullConstant(Constant constant, ProgramPoint pp) {
 		if (constant.getValue() instanceof String)
-			return new StringConstantPropagation((String) constant.getValue());
+			return constant(pool.intern((String) constant.getValue()));
 		return top();
 	}
 
@@ -94,10 +109,13 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 		
 		if (left.isTop() || right.isTop())
 			return top();
+
+		if (left.isBottom() || right.isBottom())
+			return bottom();
 		
 		switch (operator) {
 		case STRING_CONCAT:
-			return new StringConstantPropagation(left.value + right.value);
+			return constant(pool.concat(idOf(left), idOf(right)));
 		default:
 			return top();
 		}
@@ -110,10 +128,13 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 		
 		if (left.isTop() || middle.isTop || right.isTop())
 			return top();
+
+		if (left.isBottom() || middle.isBottom() || right.isBottom())
+			return bottom();
 		
 		switch (operator) {
 		case STRING_REPLACE:
-			return new StringConstantPropagation(left.value.replaceAll(middle.value, right.value));
+			return constant(pool.replace(idOf(left), idOf(middle), idOf(right)));
 		default:
 			return top();
 		}
@@ -121,7 +142,7 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 
 	@Override
 	protected StringConstantPropagation lubAux(StringConstantPropagation other) throws SemanticException {
-		return TOP;
+		return value == idOf(other) ? this : top();
 	}
 
 	@Override
@@ -131,7 +152,11 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 
 	@Override
 	protected boolean lessOrEqualAux(StringConstantPropagation other) throws SemanticException {
-		return false;
+		// two constants are comparable only if they are the same string:
+		// distinct instances of the same constant (e.g., the ones built when
+		// a statement is evaluated again) must be equivalent, otherwise the
+		// fixpoint cannot detect that they are stable
+		return value == idOf(other);
 	}
 
 	@Override
@@ -140,7 +165,9 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 		int result = 1;
 		result = prime * result + (isBottom ? 1231 : 1237);
 		result = prime * result + (isTop ? 1231 : 1237);
-		result = prime * result + ((value == null) ? 0 : value.hashCode());
+		// consistent with equals, that compares values of different pools
+		// through their strings
+		result = prime * result + (value == NO_VALUE ? 0 : getString().hashCode());
 		return result;
 	}
 
@@ -157,12 +184,9 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 			return false;
 		if (isTop != other.isTop)
 			return false;
-		if (value == null) {
-			if (other.value != null)
-				return false;
-		} else if (!value.equals(other.value))
-			return false;
-		return true;
+		if (value == NO_VALUE || other.value == NO_VALUE)
+			return value == other.value;
+		return value == idOf(other);
 	}
 
 	@Override
@@ -172,24 +196,25 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 		if (left.isTop() || right.isTop())
 			return Satisfiability.UNKNOWN;
 
+		if (left.isBottom() || right.isBottom())
+			return Satisfiability.BOTTOM;
+
 		switch (operator) {
 		case STRING_CONTAINS:
-			return left.value.contains(right.value) ? Satisfiability.SATISFIED
+			return left.getString().contains(right.getString()) ? Satisfiability.SATISFIED
 					: Satisfiability.NOT_SATISFIED;
 		case STRING_STARTS_WITH:
-			return left.value.startsWith(right.value) ? Satisfiability.SATISFIED
+			return left.getString().startsWith(right.getString()) ? Satisfiability.SATISFIED
 					: Satisfiability.NOT_SATISFIED;
 		case STRING_ENDS_WITH:
-			return left.value.endsWith(right.value) ? Satisfiability.SATISFIED
+			return left.getString().endsWith(right.getString()) ? Satisfiability.SATISFIED
 					: Satisfiability.NOT_SATISFIED;
 		case STRING_EQUALS:
-			return left.value.equals(right.value) ? Satisfiability.SATISFIED
-					: Satisfiability.NOT_SATISFIED;
 		case COMPARISON_EQ:
-			return left.value.equals(right.value) ? Satisfiability.SATISFIED
+			return left.value == left.idOf(right) ? Satisfiability.SATISFIED
 					: Satisfiability.NOT_SATISFIED;
 		case COMPARISON_NE:
-			return !left.value.equals(right.value) ? Satisfiability.SATISFIED
+			return left.value != left.idOf(right) ? Satisfiability.SATISFIED
 					: Satisfiability.NOT_SATISFIED;
 		default:
 			return Satisfiability.UNKNOWN;
@@ -197,7 +222,7 @@ public class StringConstantPropagation extends BaseNonRelationalValueDomain<Stri
 	}
 	
 	public String getString() {
-		return value;
+		return value == NO_VALUE ? null : pool.get(value);
 	}
 
 	@Override
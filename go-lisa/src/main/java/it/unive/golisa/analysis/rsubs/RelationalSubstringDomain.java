@@ -12,6 +12,8 @@ import org.apache.commons.lang3.ArrayUtils;
 
 import it.unive.golisa.analysis.ExpressionInverseSet;
 import it.unive.golisa.analysis.StringConstantPropagation;
+import it.unive.golisa.cfg.VariablePacking;
+import it.unive.golisa.cfg.VariableScopingCFG;
 import it.unive.golisa.cfg.type.GoStringType;
 import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.ScopeToken;
@@ -101,9 +103,11 @@ public class RelationalSubstringDomain extends FunctionalLattice<RelationalSubst
 		// Add phase
 		func.put(id, func.get(id) == null ? getRelations(expression) : func.get(id).glb(getRelations(expression)));
 
-		// Inter-asg phase
+		// Inter-asg phase (identifiers of other packs are skipped, if packing
+		// is enabled)
+		VariablePacking packing = packingOf(pp);
 		for (Identifier y : func.keySet())
-			if (!y.equals(id) && func.get(y).contains(func.get(id)))
+			if (!y.equals(id) && mayBeRelated(packing, id, y) && func.get(y).contains(func.get(id)))
 				func.put(y, func.get(y).addExpression(id));
 
 		// Improvement of add phase
@@ -112,22 +116,66 @@ public class RelationalSubstringDomain extends FunctionalLattice<RelationalSubst
 				func.put(id, func.get(id) == null ? func.get(idRel) : func.get(id).glb(func.get(idRel)));
 
 		// Closure phase
-		return new RelationalSubstringDomain(lattice, func).closure();
+		return new RelationalSubstringDomain(lattice, func).closure(packing);
 	}
 
-	private RelationalSubstringDomain closure() {
+	private RelationalSubstringDomain closure(VariablePacking packing) {
 		if (isTop() || isBottom())
 			return new RelationalSubstringDomain(lattice, function);
 
-
 		Map<Identifier, ExpressionInverseSet<ValueExpression>>  clos = new HashMap<>(function);
 
-		for (Identifier x : clos.keySet())
-			for (Identifier y : clos.keySet())
-				for (Identifier z : clos.keySet())
+		if (packing == null) {
+			closure(clos, clos.keySet());
+			return new RelationalSubstringDomain(lattice, clos);
+		}
+
+		// each pack is closed on its own, together with the identifiers
+		// that do not belong to the packed cfg, since they might be
+		// related to any of the packs
+		Map<Integer, Set<Identifier>> packs = new HashMap<>();
+		Set<Identifier> unpacked = new HashSet<>();
+		for (Identifier id : clos.keySet()) {
+			int pack = packing.getPack(id.getName());
+			if (pack == VariablePacking.UNPACKED)
+				unpacked.add(id);
+			else
+				packs.computeIfAbsent(pack, k -> new HashSet<>()).add(id);
+		}
+
+		if (packs.isEmpty())
+			closure(clos, unpacked);
+
+		for (Set<Identifier> pack : packs.values()) {
+			pack.addAll(unpacked);
+			closure(clos, pack);
+		}
+
+		return new RelationalSubstringDomain(lattice, clos);
+	}
+
+	private void closure(Map<Identifier, ExpressionInverseSet<ValueExpression>> clos, Set<Identifier> ids) {
+		for (Identifier x : ids)
+			for (Identifier y : ids)
+				for (Identifier z : ids)
 					if (clos.get(y).contains(x) && clos.get(z).contains(y))
 						clos.put(z, clos.get(z).addExpression(x));
-		return new RelationalSubstringDomain(lattice, clos);
+	}
+
+	private VariablePacking packingOf(ProgramPoint pp) {
+		// packing loses relations between variables of different packs
+		if (VariablePacking.isEnabled() && pp != null && pp.getCFG() instanceof VariableScopingCFG)
+			return ((VariableScopingCFG) pp.getCFG()).getVariablePacking();
+		return null;
+	}
+
+	private boolean mayBeRelated(VariablePacking packing, Identifier x, Identifier y) {
+		if (packing == null)
+			return true;
+
+		int xPack = packing.getPack(x.getName());
+		int yPack = packing.getPack(y.getName());
+		return xPack == VariablePacking.UNPACKED || yPack == VariablePacking.UNPACKED || xPack == yPack;
 	}
 
 	@Override
@@ -0,0 +1,36 @@
+package it.unive.golisa.cfg;
+
+/**
+ * The policies used to name the memory allocated by Go statements (see
+ * {@link AllocationSites}). Allocations with the same name are merged by the
+ * heap domain, so coarser policies trade precision for smaller states.
+ */
+public enum AllocationSitePolicy {
+
+	/**
+	 * Each allocating statement is a site.
+	 */
+	SITE,
+
+	/**
+	 * All the allocations of the same type are merged in a single site,
+	 * including the components of a statement's allocation (e.g., the
+	 * backing array allocated by {@code make}) that have the same type of
+	 * other allocations.
+	 */
+	TYPE;
+
+	/**
+	 * Yields the policy corresponding to a command line name.
+	 *
+	 * @param name the name, case insensitive, with {@code -} in place of
+	 *                 {@code _}
+	 *
+	 * @return the policy
+	 *
+	 * @throws IllegalArgumentException if no policy has that name
+	 */
+	public static AllocationSitePolicy of(String name) {
+		return valueOf(name.toUpperCase().replace('-', '_'));
+	}
+}
@@ -0,0 +1,127 @@
+package it.unive.golisa.cfg;
+
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.type.Type;
+
+/**
+ * The names of the memory allocated by Go statements, following the current
+ * {@link AllocationSitePolicy}. The name of an allocation is the code location
+ * of the {@link it.unive.lisa.symbolic.heap.HeapAllocation} that creates it,
+ * that the heap domain uses to identify the allocated memory.<br>
+ * <br>
+ * A statement can allocate more than one block of memory (e.g., {@code make}
+ * allocates both a slice and its backing array): each block other than the
+ * main one is a named component of the statement's site, so that it gets a
+ * site of its own under the {@link AllocationSitePolicy#SITE} policy.<br>
+ * <br>
+ * No policy distinguishes allocations by call string: the modular analysis
+ * analyses each function once, with no calling context, and the runtime
+ * models that allocate on behalf of their caller are already evaluated at
+ * the location of the call, so call strings would always coincide with
+ * sites.
+ */
+public class AllocationSites {
+
+	private static volatile AllocationSitePolicy policy = AllocationSitePolicy.SITE;
+
+	private AllocationSites() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Sets the policy used to name allocations.
+	 *
+	 * @param policy the policy
+	 */
+	public static void setPolicy(AllocationSitePolicy policy) {
+		AllocationSites.policy = policy;
+	}
+
+	/**
+	 * Yields the policy used to name allocations.
+	 *
+	 * @return the policy
+	 */
+	public static AllocationSitePolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Yields the name of the memory of type {@code type} allocated by
+	 * {@code allocator}.
+	 *
+	 * @param allocator the allocating statement
+	 * @param type      the type of the allocated memory
+	 *
+	 * @return the name of the allocation
+	 */
+	public static CodeLocation of(Statement allocator, Type type) {
+		return of(allocator, type, null);
+	}
+
+	/**
+	 * Yields the name of a component of the memory allocated by
+	 * {@code allocator}.
+	 *
+	 * @param allocator the allocating statement
+	 * @param type      the type of the allocated memory
+	 * @param component the name of the component, {@code null} for the main
+	 *                      allocation of the statement
+	 *
+	 * @return the name of the allocation
+	 */
+	public static CodeLocation of(Statement allocator, Type type, String component) {
+		CodeLocation location = allocator.getLocation();
+		switch (policy) {
+		case TYPE:
+			// components are merged as well, as the policy requires
+			return new AllocationSite(type.toString());
+		case SITE:
+		default:
+			return component == null ? location : new AllocationSite(location.getCodeLocation() + "#" + component);
+		}
+	}
+
+	/**
+	 * A name of allocated memory that does not correspond to a single code
+	 * location.
+	 */
+	public static class AllocationSite implements CodeLocation {
+
+		private final String name;
+
+		private AllocationSite(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getCodeLocation() {
+			return name;
+		}
+
+		@Override
+		public int compareTo(CodeLocation other) {
+			return name.compareTo(other.getCodeLocation());
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			return name.equals(((AllocationSite) obj).name);
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+}
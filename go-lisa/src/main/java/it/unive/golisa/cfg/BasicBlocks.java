@@ -0,0 +1,151 @@
+package it.unive.golisa.cfg;
+
+import java.util.Arrays;
+
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+
+/**
+ * The partition of the statements of a {@link CompactCFG} into basic blocks,
+ * that are maximal chains of statements where each statement but the first
+ * has a single predecessor, reached through a {@link SequentialEdge} that is
+ * its only outgoing edge. Blocks are numbered in the order of the number of
+ * their first statement, so they inherit the reverse postorder of the
+ * compact view.
+ */
+public class BasicBlocks {
+
+	private final int[][] blocks;
+
+	private final int[] blockOf;
+
+	private final int[] positionOf;
+
+	private final int[][] successors;
+
+	private final int[][] predecessors;
+
+	/**
+	 * Partitions the statements of {@code graph} into basic blocks.
+	 *
+	 * @param graph the compact view of a cfg
+	 */
+	public BasicBlocks(CompactCFG graph) {
+		int n = graph.size();
+		boolean[] leader = new boolean[n];
+		for (int entry : graph.entrypoints())
+			leader[entry] = true;
+		for (int i = 0; i < n; i++) {
+			int[] preds = graph.predecessors(i);
+			if (preds.length != 1 || preds[0] == i || graph.successors(preds[0]).length != 1
+					|| !(graph.outgoingEdges(preds[0])[0] instanceof SequentialEdge))
+				leader[i] = true;
+		}
+
+		blockOf = new int[n];
+		positionOf = new int[n];
+		Arrays.fill(blockOf, -1);
+		int[][] result = new int[n][];
+		int count = 0;
+		for (int pass = 0; pass < 2; pass++)
+			for (int i = 0; i < n; i++) {
+				// the second pass collects cycles of non-leaders, that are not
+				// reachable from any entrypoint
+				if (blockOf[i] >= 0 || (pass == 0 && !leader[i]))
+					continue;
+
+				int[] chain = new int[4];
+				int length = 0;
+				int current = i;
+				while (true) {
+					if (length == chain.length)
+						chain = Arrays.copyOf(chain, length * 2);
+					chain[length] = current;
+					blockOf[current] = count;
+					positionOf[current] = length++;
+
+					int[] succs = graph.successors(current);
+					if (succs.length != 1 || leader[succs[0]] || blockOf[succs[0]] >= 0)
+						break;
+					current = succs[0];
+				}
+				result[count++] = Arrays.copyOf(chain, length);
+			}
+
+		blocks = Arrays.copyOf(result, count);
+		successors = new int[count][];
+		predecessors = new int[count][];
+		for (int b = 0; b < count; b++) {
+			int[] stmts = blocks[b];
+			successors[b] = Arrays.stream(graph.successors(stmts[stmts.length - 1])).map(s -> blockOf[s]).distinct()
+					.toArray();
+			predecessors[b] = Arrays.stream(graph.predecessors(stmts[0])).map(p -> blockOf[p]).distinct().toArray();
+		}
+	}
+
+	/**
+	 * Yields the number of blocks.
+	 *
+	 * @return the number of blocks
+	 */
+	public int size() {
+		return blocks.length;
+	}
+
+	/**
+	 * Yields the numbers of the statements of a block, in execution order.
+	 * The returned array must not be modified.
+	 *
+	 * @param block the block
+	 *
+	 * @return the statements of the block
+	 */
+	public int[] statements(int block) {
+		return blocks[block];
+	}
+
+	/**
+	 * Yields the block containing a statement.
+	 *
+	 * @param statement the number of the statement
+	 *
+	 * @return the block
+	 */
+	public int blockOf(int statement) {
+		return blockOf[statement];
+	}
+
+	/**
+	 * Yields the position of a statement inside its block.
+	 *
+	 * @param statement the number of the statement
+	 *
+	 * @return the position, {@code 0} for the first statement of the block
+	 */
+	public int positionOf(int statement) {
+		return positionOf[statement];
+	}
+
+	/**
+	 * Yields the successors of a block. The returned array must not be
+	 * modified.
+	 *
+	 * @param block the block
+	 *
+	 * @return the successor blocks
+	 */
+	public int[] successors(int block) {
+		return successors[block];
+	}
+
+	/**
+	 * Yields the predecessors of a block. The returned array must not be
+	 * modified.
+	 *
+	 * @param block the block
+	 *
+	 * @return the predecessor blocks
+	 */
+	public int[] predecessors(int block) {
+		return predecessors[block];
+	}
+}
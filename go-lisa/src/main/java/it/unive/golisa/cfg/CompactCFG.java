@@ -0,0 +1,217 @@
+package it.unive.golisa.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Statement;
+
+/**
+ * A compact, immutable index over the structure of a {@link CFG}. This is not
+ * a replacement of the adjacency matrix of the cfg, that is still used by
+ * LiSA's own fixpoint and by everything else: it is an auxiliary copy of the
+ * structure, built on demand (see
+ * {@link VariableScopingCFG#getCompactView()}) for the block fixpoints, that
+ * need {@link BasicBlocks} and the {@link WeakTopologicalOrder}. Statements are
+ * densely numbered in reverse postorder from the entrypoints (statements that
+ * are not reachable from them follow), and successors and predecessors are
+ * stored as primitive int arrays indexed by statement number. Iterating in
+ * increasing order of numbers visits each statement after all its
+ * predecessors, back edges aside, so the numbering is a good priority for
+ * worklist-based fixpoints.
+ */
+public class CompactCFG {
+
+	private static final int[] NONE = new int[0];
+
+	private final Statement[] nodes;
+
+	private final Map<Statement, Integer> numbers;
+
+	private final int[][] successors;
+
+	private final Edge[][] outgoing;
+
+	private final int[][] predecessors;
+
+	private final int[] entrypoints;
+
+	/**
+	 * Builds the compact view of {@code cfg}. The cfg must not be modified
+	 * afterwards.
+	 *
+	 * @param cfg the cfg
+	 */
+	public CompactCFG(CFG cfg) {
+		Collection<Statement> all = cfg.getNodes();
+		Map<Statement, Collection<Edge>> out = new HashMap<>(all.size() * 2);
+		for (Edge edge : cfg.getEdges())
+			out.computeIfAbsent(edge.getSource(), s -> new ArrayList<>()).add(edge);
+
+		int n = all.size();
+		nodes = new Statement[n];
+		numbers = new HashMap<>(n * 2);
+
+		// iterative dfs computing the postorder, reversed afterwards
+		Statement[] post = new Statement[n];
+		int count = 0;
+		Set<Statement> visited = new HashSet<>(n * 2);
+		for (Statement entry : cfg.getEntrypoints())
+			count = postorder(entry, out, visited, post, count);
+		for (int i = 0; i < count; i++)
+			number(post[count - 1 - i]);
+		for (Statement node : all)
+			if (!numbers.containsKey(node))
+				number(node);
+
+		successors = new int[n][];
+		outgoing = new Edge[n][];
+		int[] inDegree = new int[n];
+		for (int i = 0; i < n; i++) {
+			Collection<Edge> edges = out.get(nodes[i]);
+			if (edges == null) {
+				successors[i] = NONE;
+				outgoing[i] = new Edge[0];
+				continue;
+			}
+
+			successors[i] = new int[edges.size()];
+			outgoing[i] = edges.toArray(new Edge[edges.size()]);
+			for (int j = 0; j < outgoing[i].length; j++) {
+				int dest = numbers.get(outgoing[i][j].getDestination());
+				successors[i][j] = dest;
+				inDegree[dest]++;
+			}
+		}
+
+		predecessors = new int[n][];
+		for (int i = 0; i < n; i++)
+			predecessors[i] = inDegree[i] == 0 ? NONE : new int[inDegree[i]];
+		int[] filled = new int[n];
+		for (int i = 0; i < n; i++)
+			for (int succ : successors[i])
+				predecessors[succ][filled[succ]++] = i;
+
+		entrypoints = cfg.getEntrypoints().stream().mapToInt(numbers::get).sorted().toArray();
+	}
+
+	private void number(Statement node) {
+		int index = numbers.size();
+		numbers.put(node, index);
+		nodes[index] = node;
+	}
+
+	private static int postorder(Statement root, Map<Statement, Collection<Edge>> out,
+			Set<Statement> visited, Statement[] post, int count) {
+		if (visited.contains(root))
+			return count;
+
+		Deque<Statement> stack = new ArrayDeque<>();
+		Deque<Iterator<Edge>> iterators = new ArrayDeque<>();
+		visited.add(root);
+		stack.push(root);
+		iterators.push(out.getOrDefault(root, Collections.emptyList()).iterator());
+		while (!stack.isEmpty()) {
+			Iterator<Edge> it = iterators.peek();
+			if (it.hasNext()) {
+				Statement next = it.next().getDestination();
+				if (!visited.contains(next)) {
+					visited.add(next);
+					stack.push(next);
+					iterators.push(out.getOrDefault(next, Collections.emptyList()).iterator());
+				}
+			} else {
+				post[count++] = stack.pop();
+				iterators.pop();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Yields the number of statements.
+	 *
+	 * @return the number of statements
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * Yields the statement with the given number.
+	 *
+	 * @param index the number
+	 *
+	 * @return the statement
+	 */
+	public Statement node(int index) {
+		return nodes[index];
+	}
+
+	/**
+	 * Yields the number of a statement.
+	 *
+	 * @param node the statement
+	 *
+	 * @return the number, or {@code -1} if {@code node} is not part of the cfg
+	 */
+	public int indexOf(Statement node) {
+		Integer index = numbers.get(node);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Yields the numbers of the successors of a statement. The returned array
+	 * must not be modified.
+	 *
+	 * @param index the number of the statement
+	 *
+	 * @return the numbers of its successors
+	 */
+	public int[] successors(int index) {
+		return successors[index];
+	}
+
+	/**
+	 * Yields the outgoing edges of a statement, in the same order of
+	 * {@link #successors(int)}. The returned array must not be modified.
+	 *
+	 * @param index the number of the statement
+	 *
+	 * @return the outgoing edges
+	 */
+	public Edge[] outgoingEdges(int index) {
+		return outgoing[index];
+	}
+
+	/**
+	 * Yields the numbers of the predecessors of a statement. The returned
+	 * array must not be modified.
+	 *
+	 * @param index the number of the statement
+	 *
+	 * @return the numbers of its predecessors
+	 */
+	public int[] predecessors(int index) {
+		return predecessors[index];
+	}
+
+	/**
+	 * Yields the numbers of the entrypoints, in increasing order.
+	 *
+	 * @return the numbers of the entrypoints
+	 */
+	public int[] entrypoints() {
+		return Arrays.copyOf(entrypoints, entrypoints.length);
+	}
+}
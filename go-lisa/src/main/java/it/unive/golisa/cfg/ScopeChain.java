@@ -0,0 +1,152 @@
+package it.unive.golisa.cfg;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import it.unive.lisa.program.cfg.statement.VariableRef;
+
+/**
+ * A persistent chain of the IDs visible at a program point. Each link binds
+ * one name and points to the chain that was visible before the binding was
+ * introduced, so that extending a chain never copies it, and chains of
+ * statements of the same lexical block (and of nested blocks) share their
+ * common prefix. Leaving a block just means going back to the chain that was
+ * visible when the block was entered. Inner bindings shadow outer ones with
+ * the same name.
+ */
+public final class ScopeChain {
+
+	/**
+	 * The chain with no visible IDs.
+	 */
+	public static final ScopeChain EMPTY = new ScopeChain(null, null, null, 0);
+
+	private final String name;
+
+	private final VariableRef ref;
+
+	private final ScopeChain parent;
+
+	private final int length;
+
+	private ScopeChain(String name, VariableRef ref, ScopeChain parent, int length) {
+		this.name = name;
+		this.ref = ref;
+		this.parent = parent;
+		this.length = length;
+	}
+
+	/**
+	 * Builds a chain holding the given IDs.
+	 *
+	 * @param ids the IDs
+	 *
+	 * @return the chain
+	 */
+	public static ScopeChain of(Map<String, VariableRef> ids) {
+		ScopeChain chain = EMPTY;
+		for (Map.Entry<String, VariableRef> id : ids.entrySet())
+			chain = chain.bind(id.getKey(), id.getValue());
+		return chain;
+	}
+
+	/**
+	 * Yields the chain where {@code name} is bound to {@code ref}, on top of
+	 * this one. This chain is not modified.
+	 *
+	 * @param name the name
+	 * @param ref  the reference bound to {@code name}
+	 *
+	 * @return the extended chain
+	 */
+	public ScopeChain bind(String name, VariableRef ref) {
+		return new ScopeChain(name, ref, this, length + 1);
+	}
+
+	/**
+	 * Yields the reference bound to {@code name} in the innermost scope.
+	 *
+	 * @param name the name
+	 *
+	 * @return the reference, or {@code null} if {@code name} is not visible
+	 */
+	public VariableRef lookup(String name) {
+		for (ScopeChain chain = this; chain != EMPTY; chain = chain.parent)
+			if (chain.name.equals(name))
+				return chain.ref;
+		return null;
+	}
+
+	/**
+	 * Yields whether {@code name} is visible in this chain.
+	 *
+	 * @param name the name
+	 *
+	 * @return {@code true} if and only if {@code name} is visible
+	 */
+	public boolean isVisible(String name) {
+		return lookup(name) != null;
+	}
+
+	/**
+	 * Yields the bindings introduced on top of {@code ancestor}, innermost
+	 * first. If {@code ancestor} is not a prefix of this chain, all the
+	 * bindings of this chain are returned.
+	 *
+	 * @param ancestor the ancestor
+	 *
+	 * @return the bindings, with inner bindings shadowing outer ones
+	 */
+	public Map<String, VariableRef> boundSince(ScopeChain ancestor) {
+		Map<String, VariableRef> result = new LinkedHashMap<>();
+		for (ScopeChain chain = this; chain != EMPTY && chain != ancestor; chain = chain.parent)
+			result.putIfAbsent(chain.name, chain.ref);
+		return result;
+	}
+
+	/**
+	 * Yields a read-only map view of this chain. Lookups walk the chain, while
+	 * the entries are materialized only if the map is iterated.
+	 *
+	 * @return the view
+	 */
+	public Map<String, VariableRef> asMap() {
+		return new View(this);
+	}
+
+	private static class View extends AbstractMap<String, VariableRef> {
+
+		private final ScopeChain chain;
+
+		private Set<Entry<String, VariableRef>> entries;
+
+		private View(ScopeChain chain) {
+			this.chain = chain;
+		}
+
+		@Override
+		public VariableRef get(Object key) {
+			return key instanceof String ? chain.lookup((String) key) : null;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public Set<Entry<String, VariableRef>> entrySet() {
+			if (entries == null) {
+				Map<String, VariableRef> ids = new HashMap<>(chain.length * 2);
+				for (ScopeChain c = chain; c != EMPTY; c = c.parent)
+					ids.putIfAbsent(c.name, c.ref);
+				entries = Collections.unmodifiableMap(ids).entrySet();
+			}
+			return entries;
+		}
+	}
+}
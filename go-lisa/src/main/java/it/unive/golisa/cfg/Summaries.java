@@ -0,0 +1,74 @@
+package it.unive.golisa.cfg;
+
+import it.unive.golisa.cfg.type.composite.GoArrayType;
+import it.unive.golisa.cfg.type.composite.GoSliceType;
+import it.unive.golisa.cfg.type.composite.GoStructType;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.Untyped;
+
+/**
+ * The single, smashed child standing for all the elements of a summarized
+ * array (see {@link GoArrayType#isSummarized()}) or of a slice, whose length
+ * is never known statically, or for all the fields of a field-insensitive
+ * struct (see {@link GoStructType#isFieldInsensitive()}).
+ * Initializations, accesses and runtime models producing summarized memory
+ * must all go through {@link #child()}, so that field-sensitive heap domains
+ * resolve them to the same heap location.
+ */
+public final class Summaries {
+
+	private static final String NAME = "*";
+
+	private Summaries() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields the child standing for all the elements (or fields) of
+	 * summarized memory.
+	 *
+	 * @return the child
+	 */
+	public static Variable child() {
+		return new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), NAME, SyntheticLocation.INSTANCE);
+	}
+
+	/**
+	 * Yields whether the children of the values of type {@code type} are
+	 * represented by {@link #child()}.
+	 *
+	 * @param type the type
+	 *
+	 * @return {@code true} if {@code type} is a summarized array, a slice or
+	 *             a field-insensitive struct
+	 */
+	public static boolean isSummarized(Type type) {
+		if (type instanceof GoArrayType)
+			return ((GoArrayType) type).isSummarized();
+		if (type instanceof GoSliceType)
+			return true;
+		if (type instanceof GoStructType)
+			return ((GoStructType) type).isFieldInsensitive();
+		return false;
+	}
+
+	/**
+	 * Yields whether some of the types in {@code types} is summarized (see
+	 * {@link #isSummarized(Type)}). Accesses to memory that might be
+	 * summarized read {@link #child()}, since it is the only child written
+	 * for summarized memory.
+	 *
+	 * @param types the types
+	 *
+	 * @return {@code true} if some of the types is summarized
+	 */
+	public static boolean isSummarized(Iterable<Type> types) {
+		for (Type type : types)
+			if (isSummarized(type))
+				return true;
+		return false;
+	}
+}
@@ -0,0 +1,197 @@
+package it.unive.golisa.cfg;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+
+/**
+ * A partition of the variables of a {@link CFG} into packs. Two variables
+ * belong to the same pack if they (transitively) appear together in the same
+ * statement, e.g., the target and the operands of a concatenation or the two
+ * sides of a comparison. Relational domains can analyse each pack separately
+ * to reduce their cost.<br>
+ * <br>
+ * The packing is syntactic, and analysing packs separately loses precision:
+ * variables that never appear in the same statement can still be related
+ * through their values (e.g., after {@code y := "xabcx"; x := "abc"}, the
+ * relational substring domain knows that {@code y} contains {@code x}), and
+ * relations through identifiers that are not variables of the cfg (e.g., heap
+ * identifiers) are closed only inside each pack. Variables are identified by
+ * name, so variables with the same name in different scopes share their
+ * pack, that is safe but makes packs larger. For these reasons, domains use
+ * packing only if it is enabled through {@link #setEnabled(boolean)}, and it
+ * is disabled by default.
+ */
+public class VariablePacking {
+
+	private static volatile boolean enabled = false;
+
+	/**
+	 * Sets whether relational domains analyse each pack separately, trading
+	 * precision for speed.
+	 *
+	 * @param enabled {@code true} to enable packing
+	 */
+	public static void setEnabled(boolean enabled) {
+		VariablePacking.enabled = enabled;
+	}
+
+	/**
+	 * Yields whether relational domains analyse each pack separately.
+	 *
+	 * @return {@code true} if packing is enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * The pack index of variables that do not belong to the packed cfg (e.g.,
+	 * heap identifiers or variables of other cfgs).
+	 */
+	public static final int UNPACKED = -1;
+
+	/**
+	 * The union-find parents, indexed by variable name.
+	 */
+	private final Map<String, String> parents;
+
+	/**
+	 * The pack index of each variable name, computed once the partition is
+	 * complete.
+	 */
+	private final Map<String, Integer> packs;
+
+	private VariablePacking() {
+		this.parents = new HashMap<>();
+		this.packs = new HashMap<>();
+	}
+
+	/**
+	 * Computes the packing of the variables appearing in {@code cfg}.
+	 *
+	 * @param cfg the cfg whose variables have to be packed
+	 *
+	 * @return the packing of the variables of {@code cfg}
+	 */
+	public static VariablePacking of(CFG cfg) {
+		VariablePacking packing = new VariablePacking();
+
+		for (Statement node : cfg.getNodes()) {
+			Set<String> names = new HashSet<>();
+			node.accept(new VariableCollector(), names);
+
+			String first = null;
+			for (String name : names)
+				if (first == null)
+					first = packing.add(name);
+				else
+					packing.union(first, packing.add(name));
+		}
+
+		int index = 0;
+		Map<String, Integer> roots = new HashMap<>();
+		for (String name : packing.parents.keySet()) {
+			String root = packing.find(name);
+			if (!roots.containsKey(root))
+				roots.put(root, index++);
+			packing.packs.put(name, roots.get(root));
+		}
+
+		return packing;
+	}
+
+	private String add(String name) {
+		parents.putIfAbsent(name, name);
+		return name;
+	}
+
+	private String find(String name) {
+		String root = name;
+		while (!parents.get(root).equals(root))
+			root = parents.get(root);
+
+		// path compression
+		String current = name;
+		while (!current.equals(root)) {
+			String next = parents.get(current);
+			parents.put(current, root);
+			current = next;
+		}
+
+		return root;
+	}
+
+	private void union(String x, String y) {
+		String xRoot = find(x);
+		String yRoot = find(y);
+		if (!xRoot.equals(yRoot))
+			parents.put(xRoot, yRoot);
+	}
+
+	/**
+	 * Yields the pack index of the variable named {@code name}, or
+	 * {@link #UNPACKED} if that variable does not appear in the packed cfg.
+	 *
+	 * @param name the name of the variable
+	 *
+	 * @return the pack index of the variable
+	 */
+	public int getPack(String name) {
+		return packs.getOrDefault(name, UNPACKED);
+	}
+
+	/**
+	 * Yields the number of packs of this packing.
+	 *
+	 * @return the number of packs
+	 */
+	public int size() {
+		return (int) packs.values().stream().distinct().count();
+	}
+
+	/**
+	 * Yields the names of the packed variables.
+	 *
+	 * @return the names of the packed variables
+	 */
+	public Collection<String> getVariables() {
+		return packs.keySet();
+	}
+
+	@Override
+	public String toString() {
+		Map<Integer, Set<String>> grouped = new HashMap<>();
+		for (Map.Entry<String, Integer> entry : packs.entrySet())
+			grouped.computeIfAbsent(entry.getValue(), k -> new HashSet<>()).add(entry.getKey());
+		return grouped.values().toString();
+	}
+
+	private static class VariableCollector implements GraphVisitor<CFG, Statement, Edge, Set<String>> {
+
+		@Override
+		public boolean visit(Set<String> tool, CFG graph) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(Set<String> tool, CFG graph, Statement node) {
+			if (node instanceof VariableRef)
+				tool.add(((VariableRef) node).getName());
+			return true;
+		}
+
+		@Override
+		public boolean visit(Set<String> tool, CFG graph, Edge edge) {
+			return true;
+		}
+	}
+}
@@ -7,6 +7,7 @@ import java.util.Map;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CFGDescriptor;
 import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.NoOp;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.VariableRef;
 import it.unive.lisa.util.datastructures.graph.AdjacencyMatrix;
@@ -20,9 +21,32 @@ import it.unive.lisa.util.datastructures.graph.AdjacencyMatrix;
 public class VariableScopingCFG extends CFG {
 
 	/**
-	 * The mapping between the statements and the IDs visible in those statements
+	 * The mapping between the statements and the IDs visible in those
+	 * statements. Chains of different statements share their common prefix,
+	 * so that this mapping is linear in the size of the cfg
 	 */
-	private final Map<Statement, Map<String, VariableRef>> scopingMap;
+	private final Map<Statement, ScopeChain> scopingMap;
+
+	/**
+	 * The packing of the variables of this cfg, lazily computed
+	 */
+	private VariablePacking packing;
+
+	/**
+	 * The compact view of this cfg, lazily computed
+	 */
+	private CompactCFG compactView;
+
+	/**
+	 * The basic blocks of this cfg, lazily computed
+	 */
+	private BasicBlocks basicBlocks;
+
+	/**
+	 * The weak topological order of the basic blocks of this cfg, lazily
+	 * computed
+	 */
+	private WeakTopologicalOrder wto;
 	
 	/**
 	 * Builds the control flow graph.
@@ -57,7 +81,19 @@ public class VariableScopingCFG extends CFG {
 	 * @param visibleIds the IDs visible to collect
 	 */
 	public void addNode(Statement node, Map<String, VariableRef> visibleIds) {
-		scopingMap.put(node, new HashMap<>(visibleIds));
+		addNode(node, ScopeChain.of(visibleIds));
+	}
+
+	/**
+	 * Adds the given node to the set of nodes, and records the chain of IDs
+	 * visible in that node. The chain is shared, not copied
+	 * 
+	 * @param node  the node to add
+	 * 
+	 * @param scope the chain of IDs visible in the node
+	 */
+	public void addNode(Statement node, ScopeChain scope) {
+		scopingMap.put(node, scope);
 		super.addNode(node);
 	}
 
@@ -70,6 +106,82 @@ public class VariableScopingCFG extends CFG {
 	 * @return the visible IDs  
 	 */
 	public Map<String, VariableRef> getVisibleIds(Statement node){
+		ScopeChain scope = scopingMap.get(node);
+		return scope == null ? null : scope.asMap();
+	}
+
+	/**
+	 * Yields the chain of IDs visible from a statement
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the chain, or {@code null} if the node has no scoping information
+	 */
+	public ScopeChain getScope(Statement node) {
 		return scopingMap.get(node);
 	}
+
+	/**
+	 * Removes the {@link NoOp}s of this cfg as {@link CFG#simplify()} does,
+	 * also dropping the scoping information of the removed statements and the
+	 * indexes built over the previous structure
+	 */
+	@Override
+	public void simplify() {
+		super.simplify();
+		scopingMap.keySet().removeIf(node -> !containsNode(node));
+		compactView = null;
+		basicBlocks = null;
+		wto = null;
+	}
+
+	/**
+	 * Yields the compact view of this cfg, computing it at the first
+	 * invocation. This is an auxiliary index, built next to the adjacency
+	 * matrix (that stays the representation of the cfg) and used by the block
+	 * fixpoints. The cfg must not be modified afterwards
+	 * 
+	 * @return the compact view of this cfg
+	 */
+	public synchronized CompactCFG getCompactView() {
+		if (compactView == null)
+			compactView = new CompactCFG(this);
+		return compactView;
+	}
+
+	/**
+	 * Yields the basic blocks of this cfg, over the numbering of its compact
+	 * view, computing them at the first invocation
+	 * 
+	 * @return the basic blocks of this cfg
+	 */
+	public synchronized BasicBlocks getBasicBlocks() {
+		if (basicBlocks == null)
+			basicBlocks = new BasicBlocks(getCompactView());
+		return basicBlocks;
+	}
+
+	/**
+	 * Yields the weak topological order of the basic blocks of this cfg,
+	 * computing it at the first invocation
+	 * 
+	 * @return the weak topological order of this cfg
+	 */
+	public synchronized WeakTopologicalOrder getWeakTopologicalOrder() {
+		if (wto == null)
+			wto = new WeakTopologicalOrder(getCompactView(), getBasicBlocks());
+		return wto;
+	}
+
+	/**
+	 * Yields the packing of the variables of this cfg, computing it at the
+	 * first invocation
+	 * 
+	 * @return the packing of the variables of this cfg
+	 */
+	public synchronized VariablePacking getVariablePacking() {
+		if (packing == null)
+			packing = VariablePacking.of(this);
+		return packing;
+	}
 }
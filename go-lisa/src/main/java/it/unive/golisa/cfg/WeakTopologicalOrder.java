@@ -0,0 +1,293 @@
+package it.unive.golisa.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A weak topological order of the {@link BasicBlocks} of a cfg, computed with
+ * Bourdoncle's algorithm. The order is a sequence of elements, each being
+ * either a single block or a component: a loop with a head block and a body
+ * that is itself a weak topological order (so that nested loops are nested
+ * components). Every back edge of the cfg targets the head of a component
+ * that contains its source, so that a fixpoint following this order needs to
+ * widen only at the heads of components, and can stabilize inner loops
+ * before outer ones.
+ */
+public class WeakTopologicalOrder {
+
+	private final List<Element> elements;
+
+	private final boolean[] heads;
+
+	private final int[] depths;
+
+	private int[] dfn;
+
+	private int num;
+
+	private Deque<Integer> stack;
+
+	/**
+	 * Computes the weak topological order of {@code blocks}, starting from the
+	 * blocks containing the entrypoints of {@code graph}. Blocks that are not
+	 * reachable from them are appended at the end.
+	 *
+	 * @param graph  the compact view of the cfg
+	 * @param blocks the basic blocks of the cfg
+	 */
+	public WeakTopologicalOrder(CompactCFG graph, BasicBlocks blocks) {
+		int size = blocks.size();
+		heads = new boolean[size];
+		depths = new int[size];
+		dfn = new int[size];
+		num = 0;
+		stack = new ArrayDeque<>();
+
+		// each root gets its own partition, since visits prepend elements
+		List<Element> result = new ArrayList<>();
+		for (int entry : graph.entrypoints())
+			if (dfn[blocks.blockOf(entry)] == 0) {
+				LinkedList<Element> partition = new LinkedList<>();
+				visit(blocks, blocks.blockOf(entry), partition);
+				result.addAll(partition);
+			}
+		for (int b = 0; b < size; b++)
+			if (dfn[b] == 0) {
+				LinkedList<Element> partition = new LinkedList<>();
+				visit(blocks, b, partition);
+				result.addAll(partition);
+			}
+
+		elements = Collections.unmodifiableList(result);
+		setDepths(elements, 0);
+
+		// only needed during the construction
+		dfn = null;
+		stack = null;
+	}
+
+	/**
+	 * Bourdoncle's visit from {@code root}, prepending the elements it builds
+	 * to {@code partition}. The recursion of the original algorithm (a visit
+	 * for each successor, and a nested visit of the successors of the head of
+	 * each component) is kept in an explicit stack of {@link Frame}s, so that
+	 * the depth of the cfg is not bounded by the size of the call stack.
+	 */
+	private void visit(BasicBlocks blocks, int root, LinkedList<Element> partition) {
+		Deque<Frame> frames = new ArrayDeque<>();
+		frames.push(enter(blocks, root, partition));
+		int returned = 0;
+
+		while (!frames.isEmpty()) {
+			Frame frame = frames.peek();
+			if (frame.awaiting) {
+				// the visit of a successor has just returned
+				frame.awaiting = false;
+				if (!frame.component && returned <= frame.head) {
+					frame.head = returned;
+					frame.loop = true;
+				}
+			}
+
+			if (frame.next < frame.successors.length) {
+				int succ = frame.successors[frame.next++];
+				if (dfn[succ] == 0) {
+					frame.awaiting = true;
+					frames.push(enter(blocks, succ, frame.component ? frame.body : frame.partition));
+				} else if (!frame.component && dfn[succ] <= frame.head) {
+					frame.head = dfn[succ];
+					frame.loop = true;
+				}
+				continue;
+			}
+
+			frames.pop();
+			if (frame.component) {
+				// the body of the component has been visited
+				heads[frame.vertex] = true;
+				frame.partition.addFirst(new Element(frame.vertex, Collections.unmodifiableList(frame.body)));
+				// the visit of the head returns to its parent
+				returned = frame.head;
+				continue;
+			}
+
+			returned = frame.head;
+			if (frame.head == dfn[frame.vertex]) {
+				dfn[frame.vertex] = Integer.MAX_VALUE;
+				int element = stack.pop();
+				if (frame.loop) {
+					while (element != frame.vertex) {
+						dfn[element] = 0;
+						element = stack.pop();
+					}
+					// the component is visited before returning to the parent
+					Frame component = new Frame(frame.vertex, blocks.successors(frame.vertex), frame.partition, true);
+					component.head = frame.head;
+					frames.push(component);
+				} else
+					frame.partition.addFirst(new Element(frame.vertex, null));
+			}
+		}
+	}
+
+	private Frame enter(BasicBlocks blocks, int vertex, LinkedList<Element> partition) {
+		stack.push(vertex);
+		dfn[vertex] = ++num;
+		Frame frame = new Frame(vertex, blocks.successors(vertex), partition, false);
+		frame.head = dfn[vertex];
+		return frame;
+	}
+
+	/**
+	 * A pending visit of a block, or of the successors of the head of a
+	 * component.
+	 */
+	private static class Frame {
+
+		private final int vertex;
+
+		private final int[] successors;
+
+		/**
+		 * The partition where the elements built by this visit are prepended
+		 */
+		private final LinkedList<Element> partition;
+
+		/**
+		 * Whether this frame visits the body of the component of
+		 * {@link #vertex}
+		 */
+		private final boolean component;
+
+		/**
+		 * The body of the component, if {@link #component} holds
+		 */
+		private final LinkedList<Element> body;
+
+		private int next;
+
+		private int head;
+
+		private boolean loop;
+
+		private boolean awaiting;
+
+		private Frame(int vertex, int[] successors, LinkedList<Element> partition, boolean component) {
+			this.vertex = vertex;
+			this.successors = successors;
+			this.partition = partition;
+			this.component = component;
+			this.body = component ? new LinkedList<>() : null;
+		}
+	}
+
+	// recursive only on the nesting of the components, that is bounded by
+	// the nesting of the loops of the source code
+	private void setDepths(List<Element> elements, int depth) {
+		for (Element element : elements)
+			if (element.isComponent()) {
+				depths[element.head] = depth + 1;
+				setDepths(element.body, depth + 1);
+			} else
+				depths[element.head] = depth;
+	}
+
+	/**
+	 * Yields the top-level elements of the order.
+	 *
+	 * @return the elements
+	 */
+	public List<Element> getElements() {
+		return elements;
+	}
+
+	/**
+	 * Yields whether a block is the head of a component.
+	 *
+	 * @param block the block
+	 *
+	 * @return {@code true} if and only if {@code block} is a head
+	 */
+	public boolean isHead(int block) {
+		return heads[block];
+	}
+
+	/**
+	 * Yields the number of components containing a block.
+	 *
+	 * @param block the block
+	 *
+	 * @return the nesting depth of {@code block}, {@code 0} if it is not part
+	 *             of any loop
+	 */
+	public int depthOf(int block) {
+		return depths[block];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Element element : elements)
+			sb.append(sb.length() == 0 ? "" : " ").append(element);
+		return sb.toString();
+	}
+
+	/**
+	 * An element of a weak topological order: either a single block, or a
+	 * component with a head and a body.
+	 */
+	public static class Element {
+
+		private final int head;
+
+		private final List<Element> body;
+
+		private Element(int head, List<Element> body) {
+			this.head = head;
+			this.body = body;
+		}
+
+		/**
+		 * Yields the block of this element, that is the head if this element
+		 * is a component.
+		 *
+		 * @return the block
+		 */
+		public int getHead() {
+			return head;
+		}
+
+		/**
+		 * Yields whether this element is a component.
+		 *
+		 * @return {@code true} if and only if this element is a component
+		 */
+		public boolean isComponent() {
+			return body != null;
+		}
+
+		/**
+		 * Yields the body of this component.
+		 *
+		 * @return the body, empty if this element is a single block
+		 */
+		public List<Element> getBody() {
+			return body == null ? Collections.emptyList() : body;
+		}
+
+		@Override
+		public String toString() {
+			if (body == null)
+				return String.valueOf(head);
+
+			StringBuilder sb = new StringBuilder("(").append(head);
+			for (Element element : body)
+				sb.append(" ").append(element);
+			return sb.append(")").toString();
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package it.unive.golisa.cfg.expression;
 
+import it.unive.golisa.cfg.Summaries;
 import it.unive.golisa.cfg.type.GoStringType;
 import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
 import it.unive.lisa.analysis.AbstractState;
@@ -50,7 +51,10 @@ public class GoCollectionAccess extends BinaryNativeCall {
 //			} else if (type.isPointerType()) {
 				AnalysisState<A, H, V> rec = entryState.smallStepSemantics(left, this);
 				for (SymbolicExpression expr : rec.getComputedExpressions()) {	
-					AnalysisState<A, H, V> tmp = rec.smallStepSemantics(new AccessChild(getRuntimeTypes(), new HeapDereference(getRuntimeTypes(), expr, getLocation()), right, getLocation()), this);
+					// the elements of summarized arrays are all represented by
+					// their smashed child, whatever the index
+					SymbolicExpression child = Summaries.isSummarized(expr.getTypes()) ? Summaries.child() : right;
+					AnalysisState<A, H, V> tmp = rec.smallStepSemantics(new AccessChild(getRuntimeTypes(), new HeapDereference(getRuntimeTypes(), expr, getLocation()), child, getLocation()), this);
 					result = result.lub(tmp);
 //				}
 			}
@@ -0,0 +1,51 @@
+package it.unive.golisa.cfg.expression;
+
+import it.unive.golisa.cfg.Summaries;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.Global;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.AccessInstanceGlobal;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.value.Variable;
+
+/**
+ * Go field access (e.g., x.f). The fields of field-insensitive structs are
+ * all represented by their smashed child (see {@link Summaries}), so the
+ * access to any of them reads that child.
+ */
+public class GoFieldAccess extends AccessInstanceGlobal {
+
+	public GoFieldAccess(CFG cfg, SourceCodeLocation location, Expression receiver, Global target) {
+		super(cfg, location, receiver, target);
+	}
+
+	@Override
+	public <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> semantics(
+			AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural, StatementStore<A, H, V> expressions)
+			throws SemanticException {
+		AnalysisState<A, H, V> rec = getReceiver().semantics(entryState, interprocedural, expressions);
+		expressions.put(getReceiver(), rec);
+
+		Global target = getTarget();
+		Variable field = new Variable(Caches.types().mkSingletonSet(target.getStaticType()), target.getName(), target.getLocation());
+		AnalysisState<A, H, V> result = entryState.bottom();
+		for (SymbolicExpression expr : rec.getComputedExpressions()) {
+			SymbolicExpression child = Summaries.isSummarized(expr.getTypes()) ? Summaries.child() : field;
+			AccessChild access = new AccessChild(getRuntimeTypes(), new HeapDereference(getRuntimeTypes(), expr, getLocation()), child, getLocation());
+			result = result.lub(rec.smallStepSemantics(access, this));
+		}
+
+		return result;
+	}
+}
@@ -1,6 +1,11 @@
 package it.unive.golisa.cfg.expression;
 
+import java.util.Collections;
+import java.util.Set;
+
+import it.unive.golisa.cfg.AllocationSites;
 import it.unive.golisa.cfg.expression.literal.GoInteger;
+import it.unive.golisa.cfg.statement.assignment.GoShortVariableDeclaration.NumericalTyper;
 import it.unive.golisa.cfg.type.GoType;
 import it.unive.golisa.cfg.type.composite.GoArrayType;
 import it.unive.golisa.cfg.type.composite.GoChannelType;
@@ -29,10 +34,18 @@ import it.unive.lisa.symbolic.heap.HeapReference;
 import it.unive.lisa.symbolic.value.Constant;
 import it.unive.lisa.symbolic.value.PushAny;
 import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
 
 public class GoMake extends NativeCall {
 
+	/**
+	 * The name of the allocation of the array underlying a slice, as a
+	 * component of the allocation of the slice.
+	 */
+	public static final String BACKING_ARRAY = "backing";
+
 	private final GoType type;
 
 	public GoMake(CFG cfg, CodeLocation location, GoType type, Expression[] parameters) {
@@ -58,26 +71,30 @@ public class GoMake extends NativeCall {
 		 * Slice allocation
 		 */
 		if (type instanceof GoSliceType) {	
-			GoType contentType = (GoType) ((GoSliceType) type).getContentType();
-			SourceCodeLocation sliceLocation = (SourceCodeLocation) getLocation();
-			//FIXME: this is a temporary workaround. At this location, two allocations are performed, need to differentiate
-			SourceCodeLocation underlyingArrayLocation = new SourceCodeLocation(sliceLocation.getSourceFile(), sliceLocation.getLine(), sliceLocation.getCol() +1);
-	
-			// FIXME: currently, we handle just slice allocation where the length and  the capability are integers
-			if (!(getParameters()[0] instanceof  GoInteger))
+			if (params.length == 0)
 				return entryState.top().smallStepSemantics(new PushAny(Caches.types().mkSingletonSet(type), getLocation()), this);
 
-			int length = (int) ((GoInteger) getParameters()[0]).getValue();
-			int cap = getParameters().length == 1 ? length : (int) ((GoInteger) getParameters()[2]).getValue();
+			GoType contentType = (GoType) ((GoSliceType) type).getContentType();
+			SourceCodeLocation sliceLocation = (SourceCodeLocation) getLocation();
 
-			GoArrayType arrayType = GoArrayType.lookup(new GoArrayType(contentType, length));
-			Expression array = arrayType.defaultValue(getCFG(), underlyingArrayLocation);
+			// the length and the capability are the values computed for the
+			// parameters, and the capability defaults to the length
+			ExpressionSet<SymbolicExpression> length = params[0];
+			ExpressionSet<SymbolicExpression> cap = params.length == 1 ? params[0] : params[1];
+
+			// the underlying array has the capability as length: when it is
+			// not a constant, the array is summarized
+			Expression capExpression = getParameters()[params.length == 1 ? 0 : 1];
+			Integer arrayLength = capExpression instanceof GoInteger ? (int) ((GoInteger) capExpression).getValue() : null;
+			GoArrayType arrayType = GoArrayType.lookup(new GoArrayType(contentType, arrayLength));
+			// the underlying array is a component of the allocation of the slice
+			Expression array = arrayType.defaultValue(getCFG(), sliceLocation, BACKING_ARRAY);
 			AnalysisState<A, H, V> arraySemantics = array.semantics(lastPostState, interprocedural, new StatementStore<>(entryState));
 
 			// Allocates the slice, that is an array of three elements: pointer to the underlying array, length and capability
 			GoSliceType sliceType = GoSliceType.lookup(new GoSliceType(contentType));
 
-			HeapAllocation sliceCreated = new HeapAllocation(Caches.types().mkSingletonSet(sliceType), getLocation());
+			HeapAllocation sliceCreated = new HeapAllocation(Caches.types().mkSingletonSet(sliceType), AllocationSites.of(this, sliceType));
 
 			// Allocates the new heap allocation 
 			AnalysisState<A, H, V> containerState = arraySemantics.smallStepSemantics(sliceCreated, this);
@@ -88,34 +105,13 @@ public class GoMake extends NativeCall {
 			for (SymbolicExpression sliceExp : sliceExps) {
 				HeapReference sliceRef = new HeapReference(Caches.types().mkSingletonSet(sliceType), sliceExp, getLocation());
 				HeapDereference sliceDeref = new HeapDereference(Caches.types().mkSingletonSet(sliceType), sliceRef, getLocation());
-				
-				// Allocates the len property of the slice
-				Variable lenProperty = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), "len", getLocation());
-				AccessChild lenAccess = new AccessChild(Caches.types().mkSingletonSet(GoIntType.INSTANCE), sliceDeref, lenProperty, getLocation());
-				AnalysisState<A, H, V> lenState = containerState.smallStepSemantics(lenAccess, this);
-
-				AnalysisState<A, H, V> lenResult = entryState.bottom();
-				for (SymbolicExpression lenId : lenState.getComputedExpressions())
-					lenResult = lenResult.lub(lenState.assign(lenId, new Constant(GoIntType.INSTANCE, length, getLocation()), this));
-
-				// Allocates the cap property of the slice
-				Variable capProperty = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), "cap", getLocation());
-				AccessChild capAccess = new AccessChild(Caches.types().mkSingletonSet(GoIntType.INSTANCE), sliceDeref, capProperty, getLocation());
-				AnalysisState<A, H, V> capState = lenResult.smallStepSemantics(capAccess, this);
 
-				AnalysisState<A, H, V> capResult = entryState.bottom();
-				for (SymbolicExpression lenId : capState.getComputedExpressions())
-					capResult = capResult.lub(capState.assign(lenId, new Constant(GoIntType.INSTANCE, cap, getLocation()), this));
+				// Allocates the len and cap properties of the slice
+				AnalysisState<A, H, V> lenResult = assignProperty(containerState, sliceDeref, "len", GoIntType.INSTANCE, length);
+				AnalysisState<A, H, V> capResult = assignProperty(lenResult, sliceDeref, "cap", GoIntType.INSTANCE, cap);
 
 				// Allocates the ptr property of the slice
-				Variable ptrProperty = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), "ptr", getLocation());
-				AccessChild ptrAccess = new AccessChild(Caches.types().mkSingletonSet(arrayType), sliceDeref, ptrProperty, getLocation());
-				AnalysisState<A, H, V> ptrState = capResult.smallStepSemantics(ptrAccess, this);
-
-				AnalysisState<A, H, V> ptrResult = entryState.bottom();
-				for (SymbolicExpression ptrId : ptrState.getComputedExpressions())
-					for (SymbolicExpression arrayId: arraySemantics.getComputedExpressions())
-						ptrResult = ptrResult.lub(ptrState.assign(ptrId, arrayId, this));
+				AnalysisState<A, H, V> ptrResult = assignProperty(capResult, sliceDeref, "ptr", arrayType, arraySemantics.getComputedExpressions());
 
 				result = result.lub(ptrResult.smallStepSemantics(sliceRef, this));
 			}
@@ -123,21 +119,72 @@ public class GoMake extends NativeCall {
 			return result;
 		}
 
-
 		/**
 		 * Channel allocation
 		 */
-		if (type instanceof GoChannelType) 
-			return entryState.top().smallStepSemantics(new PushAny(Caches.types().mkSingletonSet(type), getLocation()), this);
-		
+		if (type instanceof GoChannelType) {
+			// an empty channel, whose capability is the optional parameter
+			// (zero for unbuffered channels)
+			Iterable<SymbolicExpression> cap = params.length == 0 ? zero() : params[0];
+			return allocate(lastPostState, zero(), cap);
+		}
+
 		/**
 		 * Map allocation
 		 */
-		if (type instanceof GoMapType) 
-			return entryState.top().smallStepSemantics(new PushAny(Caches.types().mkSingletonSet(type), getLocation()), this);
+		if (type instanceof GoMapType)
+			// an empty map: the optional size hint does not change its length
+			return allocate(lastPostState, zero(), null);
 
 		return entryState.top().smallStepSemantics(new PushAny(Caches.types().mkSingletonSet(type), getLocation()), this);
 
 	}
 
+	/**
+	 * Allocates a value of {@link #type}, assigning the given values to its
+	 * {@code len} and {@code cap} properties, and leaves a reference to it as
+	 * computed expression.
+	 */
+	private <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> allocate(
+			AnalysisState<A, H, V> state, Iterable<SymbolicExpression> length, Iterable<SymbolicExpression> cap)
+			throws SemanticException {
+		ExternalSet<Type> types = Caches.types().mkSingletonSet(type);
+		AnalysisState<A, H, V> containerState = state.smallStepSemantics(new HeapAllocation(types, AllocationSites.of(this, type)), this);
+
+		AnalysisState<A, H, V> result = state.bottom();
+		for (SymbolicExpression containerExp : containerState.getComputedExpressions()) {
+			HeapReference reference = new HeapReference(types, containerExp, getLocation());
+			HeapDereference dereference = new HeapDereference(types, reference, getLocation());
+
+			AnalysisState<A, H, V> tmp = assignProperty(containerState, dereference, "len", GoIntType.INSTANCE, length);
+			if (cap != null)
+				tmp = assignProperty(tmp, dereference, "cap", GoIntType.INSTANCE, cap);
+
+			result = result.lub(tmp.smallStepSemantics(reference, this));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Assigns the given values to the property {@code name} of the memory
+	 * pointed by {@code container}, yielding the lub of the resulting states.
+	 */
+	private <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> assignProperty(
+			AnalysisState<A, H, V> state, HeapDereference container, String name, Type propertyType,
+			Iterable<SymbolicExpression> values) throws SemanticException {
+		Variable property = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), name, getLocation());
+		AccessChild access = new AccessChild(Caches.types().mkSingletonSet(propertyType), container, property, getLocation());
+		AnalysisState<A, H, V> accessState = state.smallStepSemantics(access, this);
+
+		AnalysisState<A, H, V> result = state.bottom();
+		for (SymbolicExpression id : accessState.getComputedExpressions())
+			for (SymbolicExpression v : values)
+				result = result.lub(accessState.assign(id, NumericalTyper.type(v), this));
+		return result;
+	}
+
+	private Set<SymbolicExpression> zero() {
+		return Collections.singleton(new Constant(GoIntType.INSTANCE, 0, getLocation()));
+	}
 }
@@ -1,5 +1,6 @@
 package it.unive.golisa.cfg.expression;
 
+import it.unive.golisa.cfg.AllocationSites;
 import it.unive.golisa.cfg.type.GoType;
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
@@ -30,7 +31,7 @@ public class GoNew extends NativeCall {
 		// Following the Golang reference:
 		// The new built-in function allocates memory. The first argument is a type, not a value, 
 		// and the value returned is a pointer to a newly allocated zero value of that type.
-		HeapAllocation created = new HeapAllocation(Caches.types().mkSingletonSet((Type) getParameters()[0]), getLocation());
+		HeapAllocation created = new HeapAllocation(Caches.types().mkSingletonSet((Type) getParameters()[0]), AllocationSites.of(this, (Type) getParameters()[0]));
 		return entryState.smallStepSemantics(created, this);
 	}
 }
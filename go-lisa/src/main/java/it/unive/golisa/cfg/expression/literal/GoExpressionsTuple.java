@@ -1,5 +1,6 @@
 package it.unive.golisa.cfg.expression.literal;
 
+import it.unive.golisa.cfg.AllocationSites;
 import it.unive.golisa.cfg.statement.assignment.GoShortVariableDeclaration.NumericalTyper;
 import it.unive.golisa.cfg.type.composite.GoTypesTuple;
 import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
@@ -47,7 +48,7 @@ public class GoExpressionsTuple extends NativeCall {
 		
 		GoTypesTuple tupleType = new GoTypesTuple(types);
 		
-		HeapAllocation created = new HeapAllocation(Caches.types().mkSingletonSet(tupleType), getLocation());
+		HeapAllocation created = new HeapAllocation(Caches.types().mkSingletonSet(tupleType), AllocationSites.of(this, tupleType));
 
 		// Allocates the new heap allocation 
 		AnalysisState<A, H, V> containerState = lastPostState.smallStepSemantics(created, this);
@@ -1,6 +1,6 @@
 package it.unive.golisa.cfg.expression.literal;
 
-import it.unive.golisa.cfg.statement.assignment.GoShortVariableDeclaration.NumericalTyper;
+import it.unive.golisa.cfg.AllocationSites;
 import it.unive.golisa.cfg.type.GoType;
 import it.unive.golisa.cfg.type.composite.GoArrayType;
 import it.unive.golisa.cfg.type.composite.GoMapType;
@@ -52,7 +52,7 @@ public class GoKeyedLiteral extends NativeCall {
 		// intermediate analysis states)
 		AnalysisState<A, H, V> lastPostState = computedStates.length == 0 ? entryState : computedStates[computedStates.length - 1];
 		ExternalSet<Type> type = Caches.types().mkSingletonSet(getStaticType());
-		HeapAllocation created = new HeapAllocation(type, getLocation());
+		HeapAllocation created = new HeapAllocation(type, AllocationSites.of(this, getStaticType()));
 
 		// Allocates the new heap allocation 
 		AnalysisState<A, H, V> containerState = lastPostState.smallStepSemantics(created, this);
@@ -112,15 +112,14 @@ public class GoKeyedLiteral extends NativeCall {
 					continue;
 				}
 
-				AnalysisState<A, H, V> tmp = containerState;
-
-				for (int i = 0; i < keys.length; i++) {
-					Variable field = getVariable((VariableRef) keys[i]);
-					AccessChild access =  new AccessChild(field.getTypes(), dereference, field, getLocation());
-					AnalysisState<A, H, V> fieldState = tmp.smallStepSemantics(access, this);
-					for (SymbolicExpression id : fieldState.getComputedExpressions()) 
-						for (SymbolicExpression v : params[i])
-							tmp = fieldState.assign(id, NumericalTyper.type(v), this);
+				AnalysisState<A, H, V> tmp;
+				if (((GoStructType) getStaticType()).isFieldInsensitive())
+					tmp = Initializers.summary(this, containerState, dereference, Untyped.INSTANCE, params);
+				else {
+					Variable[] fields = new Variable[keys.length];
+					for (int i = 0; i < keys.length; i++)
+						fields[i] = getVariable((VariableRef) keys[i]);
+					tmp = Initializers.fields(this, containerState, dereference, fields, params);
 				}
 
 				result = result.lub(tmp.smallStepSemantics(reference, this));
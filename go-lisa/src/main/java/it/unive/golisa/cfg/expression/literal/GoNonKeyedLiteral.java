@@ -1,5 +1,8 @@
 package it.unive.golisa.cfg.expression.literal;
 
+import java.util.Collection;
+
+import it.unive.golisa.cfg.AllocationSites;
 import it.unive.golisa.cfg.statement.assignment.GoShortVariableDeclaration.NumericalTyper;
 import it.unive.golisa.cfg.type.GoType;
 import it.unive.golisa.cfg.type.composite.GoArrayType;
@@ -33,8 +36,31 @@ import it.unive.lisa.util.collections.externalSet.ExternalSet;
 
 public class GoNonKeyedLiteral extends NativeCall {
 
+	/**
+	 * The name of the component of the allocation site of this literal, if
+	 * it is allocated on behalf of another statement at the same location.
+	 */
+	private final String component;
+
 	public GoNonKeyedLiteral(CFG cfg, SourceCodeLocation location, Expression[] value, GoType staticType) {
+		this(cfg, location, value, staticType, null);
+	}
+
+	/**
+	 * Builds a literal that is allocated as a component of the allocation of
+	 * another statement at the same location (see
+	 * {@link AllocationSites#of(it.unive.lisa.program.cfg.statement.Statement, Type, String)}).
+	 * 
+	 * @param cfg        the cfg that this literal belongs to
+	 * @param location   the location of the literal
+	 * @param value      the values of the elements
+	 * @param staticType the type of the literal
+	 * @param component  the name of the component, {@code null} if the literal
+	 *                       has a site of its own
+	 */
+	public GoNonKeyedLiteral(CFG cfg, SourceCodeLocation location, Expression[] value, GoType staticType, String component) {
 		super(cfg, location, "nonKeyedLit("+ staticType + ")", staticType, value);
+		this.component = component;
 	}
 
 	@Override
@@ -47,7 +73,7 @@ public class GoNonKeyedLiteral extends NativeCall {
 		// intermediate analysis states)
 		AnalysisState<A, H, V> lastPostState = computedStates.length == 0 ? entryState : computedStates[computedStates.length - 1];
 		ExternalSet<Type> type = Caches.types().mkSingletonSet(getStaticType());
-		HeapAllocation created = new HeapAllocation(type, getLocation());
+		HeapAllocation created = new HeapAllocation(type, AllocationSites.of(this, getStaticType(), component));
 
 		// Allocates the new heap allocation 
 		AnalysisState<A, H, V> containerState = lastPostState.smallStepSemantics(created, this);
@@ -55,7 +81,8 @@ public class GoNonKeyedLiteral extends NativeCall {
 
 		if (getStaticType() instanceof GoStructType) {
 			// Retrieve the struct type (that is a compilation unit)
-			CompilationUnit structUnit = ((GoStructType) getStaticType()).getUnit();
+			GoStructType structType = (GoStructType) getStaticType();
+			CompilationUnit structUnit = structType.getUnit();
 
 			AnalysisState<A, H, V> result = entryState.bottom();
 
@@ -68,16 +95,16 @@ public class GoNonKeyedLiteral extends NativeCall {
 					continue;
 				}
 
-				int i = 0;
-				AnalysisState<A, H, V> tmp = containerState;
-
-				for (Global field : structUnit.getInstanceGlobals(true)) {
-					AccessChild access = new AccessChild(Caches.types().mkSingletonSet(field.getStaticType()), dereference, getVariable(field), getLocation());
-					AnalysisState<A, H, V> fieldState = tmp.smallStepSemantics(access, this);
-					for (SymbolicExpression id : fieldState.getComputedExpressions()) 
-						for (SymbolicExpression v : params[i])
-							tmp = fieldState.assign(id, NumericalTyper.type(v), this);
-					i++;
+				AnalysisState<A, H, V> tmp;
+				if (structType.isFieldInsensitive())
+					tmp = Initializers.summary(this, containerState, dereference, Untyped.INSTANCE, params);
+				else {
+					Collection<Global> globals = structUnit.getInstanceGlobals(true);
+					Variable[] fields = new Variable[globals.size()];
+					int i = 0;
+					for (Global field : globals)
+						fields[i++] = getVariable(field);
+					tmp = Initializers.fields(this, containerState, dereference, fields, params);
 				}
 
 				result = result.lub(tmp.smallStepSemantics(reference, this));
@@ -91,7 +118,10 @@ public class GoNonKeyedLiteral extends NativeCall {
 
 			GoArrayType arrayType = (GoArrayType) getStaticType();
 			Type contentType = arrayType.getContentType();
-			int arrayLength = arrayType.getLength();
+			Integer arrayLength = arrayType.getLength();
+			SymbolicExpression lengthExp = arrayLength == null
+					? new PushAny(Caches.types().mkSingletonSet(GoIntType.INSTANCE), getLocation())
+					: new Constant(GoIntType.INSTANCE, arrayLength, getLocation());
 
 			for (SymbolicExpression containerExp : containerExps) {
 				HeapReference reference = new HeapReference(type, containerExp, getLocation());
@@ -104,7 +134,7 @@ public class GoNonKeyedLiteral extends NativeCall {
 
 				AnalysisState<A, H, V> lenResult = entryState.bottom();
 				for (SymbolicExpression lenId : lenState.getComputedExpressions())
-					lenResult = lenResult.lub(lenState.assign(lenId, new Constant(GoIntType.INSTANCE, arrayLength, getLocation()), this));
+					lenResult = lenResult.lub(lenState.assign(lenId, lengthExp, this));
 
 				// Assign the cap property to this hid
 				Variable capProperty = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), "cap", getLocation());
@@ -113,13 +143,19 @@ public class GoNonKeyedLiteral extends NativeCall {
 
 				AnalysisState<A, H, V> capResult = entryState.bottom();
 				for (SymbolicExpression lenId : capState.getComputedExpressions())
-					capResult = capResult.lub(capState.assign(lenId, new Constant(GoIntType.INSTANCE, arrayLength, getLocation()), this));
+					capResult = capResult.lub(capState.assign(lenId, lengthExp, this));
 
 				if (getParameters().length == 0) {
 					result = result.lub(capResult);
 					continue;
 				}
 
+				if (arrayType.isSummarized()) {
+					result = result.lub(Initializers.summary(this, capResult, dereference, contentType, params)
+							.smallStepSemantics(reference, this));
+					continue;
+				}
+
 				// Allocate the heap location
 				AnalysisState<A, H, V> tmp = capResult;
 				for (int i = 0; i < arrayLength; i++) {
@@ -141,7 +177,7 @@ public class GoNonKeyedLiteral extends NativeCall {
 		return entryState.top().smallStepSemantics(new PushAny(type, getLocation()), this);
 	}
 
-	private SymbolicExpression getVariable(Global global) {
+	private Variable getVariable(Global global) {
 		return new Variable(Caches.types().mkSingletonSet(global.getStaticType()), global.getName(), global.getLocation());
 	}	
 }
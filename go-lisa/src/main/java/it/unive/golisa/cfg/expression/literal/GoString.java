@@ -1,6 +1,7 @@
 package it.unive.golisa.cfg.expression.literal;
 
 import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.GoType;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Literal;
@@ -23,7 +24,20 @@ public class GoString extends Literal {
 	 * @param value the string value
 	 */
 	public GoString(CFG cfg, SourceCodeLocation location, String value) {
-		super(cfg, location, value, GoStringType.INSTANCE);
+		this(cfg, location, value, GoStringType.INSTANCE);
+	}
+
+	/**
+	 * Builds a string value of another type, for values that are modelled by
+	 * the string they hold (e.g., string buffers).
+	 * 
+	 * @param cfg        the cfg that this Go string belongs to
+	 * @param location   the location of the value
+	 * @param value      the string value
+	 * @param staticType the type of the value
+	 */
+	public GoString(CFG cfg, SourceCodeLocation location, String value, GoType staticType) {
+		super(cfg, location, value, staticType);
 	}
 	
 	@Override
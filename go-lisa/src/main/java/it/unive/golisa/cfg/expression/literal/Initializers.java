@@ -0,0 +1,88 @@
+package it.unive.golisa.cfg.expression.literal;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import it.unive.golisa.cfg.Summaries;
+import it.unive.golisa.cfg.statement.assignment.GoShortVariableDeclaration.NumericalTyper;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+
+/**
+ * The initialization of the elements of the memory allocated by composite
+ * literals.
+ */
+final class Initializers {
+
+	private Initializers() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Assigns {@code values[i]} to the field {@code fields[i]} of
+	 * {@code container}, for each {@code i}. All the fields are resolved
+	 * first, and then assigned one after the other: each assignment starts
+	 * from the lub of the alternatives of the previous field only, so that the
+	 * cost grows with the sum, and not with the product, of the number of
+	 * values of the fields.
+	 */
+	static <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> fields(
+			Statement literal, AnalysisState<A, H, V> state, HeapDereference container, Variable[] fields,
+			ExpressionSet<SymbolicExpression>[] values) throws SemanticException {
+		AnalysisState<A, H, V> resolved = state;
+		@SuppressWarnings("unchecked")
+		ExpressionSet<SymbolicExpression>[] ids = new ExpressionSet[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			AccessChild access = new AccessChild(fields[i].getTypes(), container, fields[i], literal.getLocation());
+			resolved = resolved.smallStepSemantics(access, literal);
+			ids[i] = resolved.getComputedExpressions();
+		}
+
+		AnalysisState<A, H, V> result = resolved;
+		for (int i = 0; i < fields.length; i++) {
+			AnalysisState<A, H, V> assigned = result.bottom();
+			for (SymbolicExpression id : ids[i])
+				for (SymbolicExpression v : values[i])
+					assigned = assigned.lub(result.assign(id, NumericalTyper.type(v), literal));
+			result = assigned;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Assigns the values of all the elements of {@code container} to its
+	 * single, smashed element {@link Summaries#child()}. The resulting state is the lub of
+	 * the ones obtained by assigning each distinct value, so that the cost
+	 * does not depend on the number of elements (default values, for
+	 * instance, are a single parameter).
+	 */
+	static <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> summary(
+			Statement literal, AnalysisState<A, H, V> state, HeapDereference container, Type contentType,
+			ExpressionSet<SymbolicExpression>[] values) throws SemanticException {
+		AccessChild access = new AccessChild(Caches.types().mkSingletonSet(contentType), container, Summaries.child(), literal.getLocation());
+		AnalysisState<A, H, V> accessState = state.smallStepSemantics(access, literal);
+
+		Set<SymbolicExpression> distinct = new HashSet<>();
+		for (ExpressionSet<SymbolicExpression> value : values)
+			for (SymbolicExpression v : value)
+				distinct.add(NumericalTyper.type(v));
+
+		AnalysisState<A, H, V> result = state.bottom();
+		for (SymbolicExpression element : accessState.getComputedExpressions())
+			for (SymbolicExpression v : distinct)
+				result = result.lub(accessState.assign(element, v, literal));
+		return result;
+	}
+}
@@ -0,0 +1,172 @@
+package it.unive.golisa.cfg.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import it.unive.golisa.cfg.runtime.buffer.GoBufferLen;
+import it.unive.golisa.cfg.runtime.buffer.GoBufferString;
+import it.unive.golisa.cfg.runtime.buffer.GoReset;
+import it.unive.golisa.cfg.runtime.buffer.GoWriteString;
+import it.unive.golisa.cfg.runtime.fmt.GoPrintln;
+import it.unive.golisa.cfg.runtime.strconv.GoAtoi;
+import it.unive.golisa.cfg.runtime.strconv.GoItoa;
+import it.unive.golisa.cfg.runtime.strings.GoContains;
+import it.unive.golisa.cfg.runtime.strings.GoHasPrefix;
+import it.unive.golisa.cfg.runtime.strings.GoHasSuffix;
+import it.unive.golisa.cfg.runtime.strings.GoIndex;
+import it.unive.golisa.cfg.runtime.strings.GoIndexRune;
+import it.unive.golisa.cfg.runtime.strings.GoJoin;
+import it.unive.golisa.cfg.runtime.strings.GoLen;
+import it.unive.golisa.cfg.runtime.strings.GoReplace;
+import it.unive.golisa.cfg.runtime.strings.GoSplit;
+import it.unive.golisa.cfg.runtime.strings.GoToLower;
+import it.unive.golisa.cfg.runtime.strings.GoTrimSpace;
+import it.unive.golisa.cfg.runtime.url.UrlPathEscape;
+import it.unive.golisa.cfg.runtime.url.UrlQueryEscape;
+import it.unive.golisa.cfg.type.GoStringBufferType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.NativeCFG;
+
+/**
+ * The models of the packages of the Go runtime. The models of each package
+ * are listed in a table, and are built only when a program imports that
+ * package, at most once per program. Each package becomes a compilation unit
+ * of the program; the models of most packages are also added to the unit of
+ * the analysed package, so that calls to them can be resolved statically.
+ * The string buffers of a package (see
+ * {@link it.unive.golisa.cfg.runtime.buffer.StringBuffers}) get a
+ * {@link GoStringBufferType} each, whose unit holds the models of their
+ * methods as instance members: they are resolved through the type of the
+ * receiver, and never added to the unit of the analysed package.
+ */
+public class RuntimeModels {
+
+	private static final SourceCodeLocation RUNTIME_LOCATION = new SourceCodeLocation("go-runtime", 0, 0);
+
+	private static final Map<String, Models> TABLE = new HashMap<>();
+
+	static {
+		register("strings", true,
+				GoHasPrefix::new, GoHasSuffix::new, GoContains::new, GoReplace::new, GoIndex::new,
+				GoIndexRune::new, GoLen::new, GoSplit::new, GoJoin::new, GoToLower::new, GoTrimSpace::new);
+		buffer("strings", "Builder");
+		register("bytes", false);
+		buffer("bytes", "Buffer");
+		register("strconv", true, GoItoa::new, GoAtoi::new);
+		register("fmt", true, GoPrintln::new);
+		register("net/url", false, UrlQueryEscape::new, UrlPathEscape::new);
+	}
+
+	@SafeVarargs
+	private static void register(String path, boolean visibleInPackage,
+			BiFunction<SourceCodeLocation, CompilationUnit, NativeCFG>... models) {
+		TABLE.put(path, new Models(visibleInPackage, Arrays.asList(models)));
+	}
+
+	private static void buffer(String path, String name) {
+		TABLE.get(path).buffers.add(name);
+	}
+
+	private final Program program;
+
+	private final CompilationUnit packageUnit;
+
+	private final Set<String> loaded = new HashSet<>();
+
+	/**
+	 * Builds the runtime models of a program.
+	 * 
+	 * @param program     the program
+	 * @param packageUnit the unit of the analysed package
+	 */
+	public RuntimeModels(Program program, CompilationUnit packageUnit) {
+		this.program = program;
+		this.packageUnit = packageUnit;
+	}
+
+	/**
+	 * Builds the models of all the known packages once, in a scratch program,
+	 * so that their classes are loaded and initialized before the first
+	 * program importing them is built. Models belong to the units of their
+	 * program, so they cannot be shared between programs: long-running
+	 * processes use this to pay only the cheap per-program construction.
+	 */
+	public static void warmUp() {
+		// the buffer types of the scratch program must not be seen by others
+		GoTypeRegistry previous = GoTypeRegistry.current();
+		GoTypeRegistry.install(new GoTypeRegistry());
+		try {
+			Program scratch = new Program();
+			CompilationUnit unit = new CompilationUnit(RUNTIME_LOCATION, "warm-up", false);
+			RuntimeModels models = new RuntimeModels(scratch, unit);
+			for (String path : TABLE.keySet())
+				models.load(path);
+		} finally {
+			GoTypeRegistry.install(previous);
+		}
+	}
+
+	/**
+	 * Adds to the program the models of an imported package, if they are
+	 * known and have not been added yet. The buffer types of the package are
+	 * registered in the {@link GoTypeRegistry} of the current thread.
+	 * 
+	 * @param path the import path of the package
+	 * 
+	 * @return {@code true} if the models of the package have been added
+	 */
+	public boolean load(String path) {
+		Models models = TABLE.get(path);
+		if (models == null || !loaded.add(path))
+			return false;
+
+		// the unit has the name used to qualify the members of the package
+		String name = path.substring(path.lastIndexOf('/') + 1);
+		CompilationUnit unit = new CompilationUnit(RUNTIME_LOCATION, name, false);
+		for (BiFunction<SourceCodeLocation, CompilationUnit, NativeCFG> model : models.factories)
+			unit.addConstruct(model.apply(RUNTIME_LOCATION, unit));
+		program.addCompilationUnit(unit);
+
+		if (models.visibleInPackage)
+			// we add the models also in package unit as non-instance cfgs
+			for (BiFunction<SourceCodeLocation, CompilationUnit, NativeCFG> model : models.factories)
+				packageUnit.addConstruct(model.apply(RUNTIME_LOCATION, unit));
+
+		for (String buffer : models.buffers) {
+			// qualified names cannot clash with the units of the program
+			String qualified = name + "." + buffer;
+			CompilationUnit bufferUnit = new CompilationUnit(RUNTIME_LOCATION, qualified, false);
+			GoStringBufferType type = GoStringBufferType.register(qualified, bufferUnit);
+			bufferUnit.addInstanceConstruct(new GoWriteString(RUNTIME_LOCATION, bufferUnit, type));
+			bufferUnit.addInstanceConstruct(new GoBufferString(RUNTIME_LOCATION, bufferUnit, type));
+			bufferUnit.addInstanceConstruct(new GoBufferLen(RUNTIME_LOCATION, bufferUnit, type));
+			bufferUnit.addInstanceConstruct(new GoReset(RUNTIME_LOCATION, bufferUnit, type));
+			program.addCompilationUnit(bufferUnit);
+		}
+
+		return true;
+	}
+
+	private static class Models {
+
+		private final boolean visibleInPackage;
+
+		private final List<BiFunction<SourceCodeLocation, CompilationUnit, NativeCFG>> factories;
+
+		private final List<String> buffers = new ArrayList<>();
+
+		private Models(boolean visibleInPackage, List<BiFunction<SourceCodeLocation, CompilationUnit, NativeCFG>> factories) {
+			this.visibleInPackage = visibleInPackage;
+			this.factories = factories;
+		}
+	}
+}
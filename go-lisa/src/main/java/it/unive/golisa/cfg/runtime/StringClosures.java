@@ -0,0 +1,98 @@
+package it.unive.golisa.cfg.runtime;
+
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * The strings built by runtime models that concatenate an unbounded number of
+ * pieces (e.g., {@code strings.Join}). Domains have no operator for them, so
+ * they are computed as the fixpoint of a sequence of
+ * {@link BinaryOperator#STRING_CONCAT} on a variable of the state, using the
+ * widening of the state: Tarsis, for instance, yields the automaton of the
+ * repetitions of the pieces. The variable is a meta-variable of the call
+ * computing the closure, so that it is forgotten by the statement that
+ * consumes the result of the call.
+ */
+public final class StringClosures {
+
+	/**
+	 * The maximum number of iterations computing a closure: if the widening
+	 * of the domain has not stabilized the closure by then, it is any string.
+	 */
+	public static final int MAX_ITERATIONS = 16;
+
+	private StringClosures() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields the variable holding the closure computed at {@code pp}. The
+	 * variable stays in the state until the result of the call is consumed
+	 * (see {@link #star(AnalysisState, Statement, Variable, SymbolicExpression, SymbolicExpression)}).
+	 *
+	 * @param pp   the statement computing the closure
+	 * @param name the name of the closure (e.g., the model computing it)
+	 *
+	 * @return the variable
+	 */
+	public static Variable variable(Statement pp, String name) {
+		ExternalSet<Type> stringType = Caches.types().mkSingletonSet(GoStringType.INSTANCE);
+		return new Variable(stringType, name + "@" + pp.getLocation().getCodeLocation(), pp.getLocation());
+	}
+
+	/**
+	 * Assigns to {@code closure} the strings made of {@code first} followed
+	 * by any number of repetitions of {@code step}, and evaluates it. If the
+	 * closure is not stable after {@link #MAX_ITERATIONS} iterations, it is
+	 * any string. {@code closure} is registered as a meta-variable of
+	 * {@code pp}, if it is an expression, so that it is forgotten once the
+	 * result has been used.
+	 *
+	 * @param <A>     the type of {@link AbstractState}
+	 * @param <H>     the type of the {@link HeapDomain}
+	 * @param <V>     the type of the {@link ValueDomain}
+	 * @param state   the state where the closure is computed
+	 * @param pp      the statement computing the closure
+	 * @param closure the variable holding the closure (see
+	 *                    {@link #variable(Statement, String)})
+	 * @param first   the first piece
+	 * @param step    the repeated piece, that can refer to {@code closure}
+	 *                    only through the concatenation built here
+	 *
+	 * @return the state where {@code closure} is computed
+	 *
+	 * @throws SemanticException if something goes wrong during the
+	 *                               computation
+	 */
+	public static <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> star(
+			AnalysisState<A, H, V> state, Statement pp, Variable closure, SymbolicExpression first,
+			SymbolicExpression step) throws SemanticException {
+		if (pp instanceof Expression)
+			((Expression) pp).getMetaVariables().add(closure);
+
+		BinaryExpression repeat = new BinaryExpression(closure.getTypes(), closure, step, BinaryOperator.STRING_CONCAT, pp.getLocation());
+		AnalysisState<A, H, V> current = state.assign(closure, first, pp);
+		for (int i = 0; i < MAX_ITERATIONS; i++) {
+			AnalysisState<A, H, V> next = current.assign(closure, repeat, pp);
+			if (next.lessOrEqual(current))
+				return current.smallStepSemantics(closure, pp);
+			current = current.widening(current.lub(next));
+		}
+
+		return current.assign(closure, new PushAny(closure.getTypes(), pp.getLocation()), pp).smallStepSemantics(closure, pp);
+	}
+}
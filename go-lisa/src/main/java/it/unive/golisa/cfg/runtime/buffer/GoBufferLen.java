@@ -0,0 +1,65 @@
+package it.unive.golisa.cfg.runtime.buffer;
+
+import it.unive.golisa.cfg.type.GoStringBufferType;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.UnaryNativeCall;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.UnaryOperator;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * The model of the {@code Len} method of string buffers (see
+ * {@link StringBuffers}), yielding the length of their content.
+ */
+public class GoBufferLen extends NativeCFG {
+
+	public GoBufferLen(SourceCodeLocation location, CompilationUnit bufferUnit, GoStringBufferType bufferType) {
+		super(new CFGDescriptor(location, bufferUnit, true, "Len", GoIntType.INSTANCE,
+				new Parameter(location, "this", bufferType)),
+				BufferLen.class);
+	}
+
+	public static class BufferLen extends UnaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public BufferLen(CFG cfg, SourceCodeLocation location, Expression arg) {
+			super(cfg, location, "Len", GoIntType.INSTANCE, arg);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> unarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural,
+				AnalysisState<A, H, V> exprState, SymbolicExpression expr) throws SemanticException {
+			// the content is tracked only for buffers stored in variables
+			ExternalSet<Type> intType = Caches.types().mkSingletonSet(GoIntType.INSTANCE);
+			if (StringBuffers.isTracked(expr))
+				return exprState.smallStepSemantics(new UnaryExpression(intType, StringBuffers.content(expr, getLocation()), UnaryOperator.STRING_LENGTH, getLocation()), original);
+			return exprState.smallStepSemantics(new PushAny(intType, getLocation()), original);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package it.unive.golisa.cfg.runtime.buffer;
+
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.GoStringBufferType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.UnaryNativeCall;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.PushAny;
+
+/**
+ * The model of the {@code String} method of string buffers (see
+ * {@link StringBuffers}), yielding their content.
+ */
+public class GoBufferString extends NativeCFG {
+
+	public GoBufferString(SourceCodeLocation location, CompilationUnit bufferUnit, GoStringBufferType bufferType) {
+		super(new CFGDescriptor(location, bufferUnit, true, "String", GoStringType.INSTANCE,
+				new Parameter(location, "this", bufferType)),
+				BufferString.class);
+	}
+
+	public static class BufferString extends UnaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public BufferString(CFG cfg, SourceCodeLocation location, Expression arg) {
+			super(cfg, location, "String", GoStringType.INSTANCE, arg);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> unarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural,
+				AnalysisState<A, H, V> exprState, SymbolicExpression expr) throws SemanticException {
+			// the content is tracked only for buffers stored in variables
+			if (StringBuffers.isTracked(expr))
+				return exprState.smallStepSemantics(StringBuffers.content(expr, getLocation()), original);
+			return exprState.smallStepSemantics(new PushAny(Caches.types().mkSingletonSet(GoStringType.INSTANCE), getLocation()), original);
+		}
+	}
+}
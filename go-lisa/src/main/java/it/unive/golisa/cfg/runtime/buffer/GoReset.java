@@ -0,0 +1,59 @@
+package it.unive.golisa.cfg.runtime.buffer;
+
+import it.unive.golisa.cfg.type.GoStringBufferType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.UnaryNativeCall;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.type.Untyped;
+
+/**
+ * The model of the {@code Reset} method of string buffers (see
+ * {@link StringBuffers}), emptying them.
+ */
+public class GoReset extends NativeCFG {
+
+	public GoReset(SourceCodeLocation location, CompilationUnit bufferUnit, GoStringBufferType bufferType) {
+		super(new CFGDescriptor(location, bufferUnit, true, "Reset", Untyped.INSTANCE,
+				new Parameter(location, "this", bufferType)),
+				Reset.class);
+	}
+
+	public static class Reset extends UnaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public Reset(CFG cfg, SourceCodeLocation location, Expression arg) {
+			super(cfg, location, "Reset", Untyped.INSTANCE, arg);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> unarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural,
+				AnalysisState<A, H, V> exprState, SymbolicExpression expr) throws SemanticException {
+			if (StringBuffers.isTracked(expr))
+				return exprState.assign((Identifier) expr, new Constant(expr.getDynamicType(), "", getLocation()), original);
+			return exprState;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package it.unive.golisa.cfg.runtime.buffer;
+
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.GoStringBufferType;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.BinaryNativeCall;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.UnaryOperator;
+
+/**
+ * The model of the {@code WriteString} method of string buffers (see
+ * {@link StringBuffers}): the written string is concatenated to the content
+ * of the buffer, and its length is returned.
+ */
+public class GoWriteString extends NativeCFG {
+
+	public GoWriteString(SourceCodeLocation location, CompilationUnit bufferUnit, GoStringBufferType bufferType) {
+		super(new CFGDescriptor(location, bufferUnit, true, "WriteString", GoIntType.INSTANCE,
+				new Parameter(location, "this", bufferType),
+				new Parameter(location, "s", GoStringType.INSTANCE)),
+				WriteString.class);
+	}
+
+	public static class WriteString extends BinaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public WriteString(CFG cfg, SourceCodeLocation location, Expression exp1, Expression exp2) {
+			super(cfg, location, "WriteString", GoIntType.INSTANCE, exp1, exp2);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> binarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural, AnalysisState<A, H, V> leftState,
+				SymbolicExpression leftExp, AnalysisState<A, H, V> rightState, SymbolicExpression rightExp)
+						throws SemanticException {
+
+			if (!rightExp.getDynamicType().isStringType() && !rightExp.getDynamicType().isUntyped())
+				return entryState.bottom();
+
+			AnalysisState<A, H, V> written = rightState;
+			if (StringBuffers.isTracked(leftExp)) {
+				// the buffer keeps its type, so that its methods are still resolved
+				BinaryExpression content = new BinaryExpression(leftExp.getTypes(), leftExp, rightExp, BinaryOperator.STRING_CONCAT, getLocation());
+				written = rightState.assign((Identifier) leftExp, content, original);
+			}
+
+			return written.smallStepSemantics(new UnaryExpression(Caches.types().mkSingletonSet(GoIntType.INSTANCE), rightExp, UnaryOperator.STRING_LENGTH, getLocation()), original);
+		}
+	}
+}
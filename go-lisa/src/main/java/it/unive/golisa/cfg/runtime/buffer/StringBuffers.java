@@ -0,0 +1,77 @@
+package it.unive.golisa.cfg.runtime.buffer;
+
+import it.unive.golisa.cfg.type.GoStringBufferType;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeTokenType;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * The string buffers of the Go runtime, {@code strings.Builder} and
+ * {@code bytes.Buffer}, whose values have a {@link GoStringBufferType}. A
+ * buffer stored in a variable is modelled by the string it holds, so that
+ * Tarsis tracks its content: its zero value is the empty string,
+ * {@link GoWriteString} concatenates to it and {@link GoBufferString} yields
+ * it. Buffers reached through pointers (e.g., {@code new(bytes.Buffer)} or
+ * {@code &strings.Builder{}}) or fields are not tracked, and their content is
+ * unknown.
+ */
+public class StringBuffers {
+
+	private StringBuffers() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields whether {@code type} is a string buffer.
+	 *
+	 * @param type the type
+	 *
+	 * @return {@code true} if and only if {@code type} is
+	 *             {@code strings.Builder} or {@code bytes.Buffer}
+	 */
+	public static boolean isStringBuffer(Type type) {
+		return type instanceof GoStringBufferType;
+	}
+
+	/**
+	 * Yields whether the content of {@code receiver} is tracked, that is,
+	 * whether it is a variable whose types are all string buffers. Pointers
+	 * to buffers, and variables that might hold something else, are not.
+	 *
+	 * @param receiver the receiver of a method of a buffer
+	 *
+	 * @return {@code true} if and only if the value of {@code receiver} is
+	 *             the content of a buffer
+	 */
+	public static boolean isTracked(SymbolicExpression receiver) {
+		if (!(receiver instanceof Identifier) || receiver.getTypes().isEmpty())
+			return false;
+		for (Type type : receiver.getTypes())
+			if (!isStringBuffer(type))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Yields the content of the tracked buffer {@code receiver} (see
+	 * {@link #isTracked(SymbolicExpression)}), as a string.
+	 *
+	 * @param receiver the buffer
+	 * @param location the location where the content is read
+	 *
+	 * @return the expression converting the buffer to its content
+	 */
+	public static SymbolicExpression content(SymbolicExpression receiver, CodeLocation location) {
+		ExternalSet<Type> stringType = Caches.types().mkSingletonSet(GoStringType.INSTANCE);
+		Constant typeConv = new Constant(new TypeTokenType(stringType), GoStringType.INSTANCE, location);
+		return new BinaryExpression(stringType, receiver, typeConv, BinaryOperator.TYPE_CONV, location);
+	}
+}
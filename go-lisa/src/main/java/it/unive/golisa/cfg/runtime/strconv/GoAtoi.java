@@ -0,0 +1,116 @@
+package it.unive.golisa.cfg.runtime.strconv;
+
+import it.unive.golisa.cfg.AllocationSites;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.composite.GoErrorType;
+import it.unive.golisa.cfg.type.composite.GoTypesTuple;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.UnaryNativeCall;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapAllocation;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.heap.HeapReference;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * The model of {@code strconv.Atoi}, yielding the pair of the parsed integer
+ * and of the error. Constant strings are parsed, so that the integer is
+ * tracked exactly; any other string yields an unknown integer. The error is
+ * always unknown.
+ */
+public class GoAtoi extends NativeCFG {
+
+	public GoAtoi(SourceCodeLocation location, CompilationUnit strconvUnit) {
+		super(new CFGDescriptor(location, strconvUnit, false, "Atoi", resultType(location),
+				new Parameter(location, "s", GoStringType.INSTANCE)),
+				Atoi.class);
+	}
+
+	private static GoTypesTuple resultType(SourceCodeLocation location) {
+		return GoTypesTuple.lookup(new GoTypesTuple(new Parameter[] {
+				new Parameter(location, "_", GoIntType.INSTANCE),
+				new Parameter(location, "_", GoErrorType.INSTANCE)
+		}));
+	}
+
+	public static class Atoi extends UnaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public Atoi(CFG cfg, SourceCodeLocation location, Expression arg) {
+			super(cfg, location, "Atoi", resultType(location), arg);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> unarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural,
+				AnalysisState<A, H, V> exprState, SymbolicExpression expr) throws SemanticException {
+			if (!expr.getDynamicType().isStringType() && !expr.getDynamicType().isUntyped())
+				return entryState.bottom();
+
+			SymbolicExpression[] values = new SymbolicExpression[] {
+					new PushAny(Caches.types().mkSingletonSet(GoIntType.INSTANCE), getLocation()),
+					new PushAny(Caches.types().mkSingletonSet(GoErrorType.INSTANCE), getLocation())
+			};
+			if (expr instanceof Constant && ((Constant) expr).getValue() instanceof String)
+				try {
+					int value = Integer.parseInt((String) ((Constant) expr).getValue());
+					values[0] = new Constant(GoIntType.INSTANCE, value, getLocation());
+				} catch (NumberFormatException e) {
+					// the integer stays unknown
+				}
+
+			// the result is a tuple, as for go functions returning two values
+			GoTypesTuple tupleType = (GoTypesTuple) getStaticType();
+			ExternalSet<Type> type = Caches.types().mkSingletonSet(tupleType);
+			HeapAllocation created = new HeapAllocation(type, AllocationSites.of(this, tupleType));
+			AnalysisState<A, H, V> containerState = exprState.smallStepSemantics(created, original);
+
+			AnalysisState<A, H, V> result = entryState.bottom();
+			for (SymbolicExpression containerExp : containerState.getComputedExpressions()) {
+				HeapReference reference = new HeapReference(type, containerExp, getLocation());
+				HeapDereference dereference = new HeapDereference(type, reference, getLocation());
+
+				AnalysisState<A, H, V> tmp = containerState;
+				for (int i = 0; i < values.length; i++) {
+					AccessChild access = new AccessChild(Caches.types().mkSingletonSet(tupleType.getTypeAt(i)), dereference, new Constant(GoIntType.INSTANCE, i, getLocation()), getLocation());
+					AnalysisState<A, H, V> accessState = tmp.smallStepSemantics(access, original);
+
+					AnalysisState<A, H, V> assigned = entryState.bottom();
+					for (SymbolicExpression index : accessState.getComputedExpressions())
+						assigned = assigned.lub(accessState.assign(index, values[i], original));
+					tmp = assigned;
+				}
+
+				result = result.lub(tmp.smallStepSemantics(reference, original));
+			}
+
+			return result;
+		}
+	}
+}
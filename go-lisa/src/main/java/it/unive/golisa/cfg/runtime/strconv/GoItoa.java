@@ -0,0 +1,83 @@
+package it.unive.golisa.cfg.runtime.strconv;
+
+import java.util.Collections;
+
+import it.unive.golisa.cfg.runtime.StringClosures;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.UnaryNativeCall;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Variable;
+
+/**
+ * The model of {@code strconv.Itoa}. Constant integers are converted, so that
+ * Tarsis tracks the result exactly; any other integer yields a decimal
+ * numeral, computed with {@link StringClosures}.
+ */
+public class GoItoa extends NativeCFG {
+
+	public GoItoa(SourceCodeLocation location, CompilationUnit strconvUnit) {
+		super(new CFGDescriptor(location, strconvUnit, false, "Itoa", GoStringType.INSTANCE,
+				new Parameter(location, "i", GoIntType.INSTANCE)),
+				Itoa.class);
+	}
+
+	public static class Itoa extends UnaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public Itoa(CFG cfg, SourceCodeLocation location, Expression arg) {
+			super(cfg, location, "Itoa", GoStringType.INSTANCE, arg);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> unarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural,
+				AnalysisState<A, H, V> exprState, SymbolicExpression expr) throws SemanticException {
+			if (!expr.getDynamicType().isNumericType() && !expr.getDynamicType().isUntyped())
+				return entryState.bottom();
+
+			if (expr instanceof Constant && ((Constant) expr).getValue() instanceof Integer) {
+				String value = String.valueOf(((Constant) expr).getValue());
+				return exprState.smallStepSemantics(new Constant(GoStringType.INSTANCE, value, getLocation()), original);
+			}
+
+			// an optional minus followed by one or more digits
+			Variable digit = StringClosures.variable(original, "Itoa-digit");
+			AnalysisState<A, H, V> digits = exprState.bottom();
+			for (char c = '0'; c <= '9'; c++)
+				digits = digits.lub(exprState.assign(digit, new Constant(GoStringType.INSTANCE, String.valueOf(c), getLocation()), original));
+
+			Variable number = StringClosures.variable(original, "Itoa");
+			AnalysisState<A, H, V> positive = StringClosures.star(digits, original, number, digit, digit)
+					.forgetIdentifiers(Collections.singleton(digit));
+			BinaryExpression negative = new BinaryExpression(Caches.types().mkSingletonSet(GoStringType.INSTANCE),
+					new Constant(GoStringType.INSTANCE, "-", getLocation()), number, BinaryOperator.STRING_CONCAT, getLocation());
+			return positive.lub(positive.smallStepSemantics(negative, original));
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package it.unive.golisa.cfg.runtime.strings;
+
+import it.unive.golisa.cfg.Summaries;
+import it.unive.golisa.cfg.runtime.StringClosures;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.composite.GoSliceType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.BinaryNativeCall;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * The model of {@code strings.Join}. The elements of the slice are read
+ * through its smashed child (see {@link Summaries}): the result is
+ * the empty string, or an element followed by any number of separators and
+ * elements, computed with {@link StringClosures}.
+ */
+public class GoJoin extends NativeCFG {
+
+	public GoJoin(SourceCodeLocation location, CompilationUnit stringUnit) {
+		super(new CFGDescriptor(location, stringUnit, false, "Join", GoStringType.INSTANCE,
+				new Parameter(location, "elems", GoSliceType.lookup(new GoSliceType(GoStringType.INSTANCE))),
+				new Parameter(location, "sep", GoStringType.INSTANCE)),
+				Join.class);
+	}
+
+	public static class Join extends BinaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public Join(CFG cfg, SourceCodeLocation location, Expression exp1, Expression exp2) {
+			super(cfg, location, "Join", GoStringType.INSTANCE, exp1, exp2);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> binarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural, AnalysisState<A, H, V> leftState,
+				SymbolicExpression leftExp, AnalysisState<A, H, V> rightState, SymbolicExpression rightExp)
+						throws SemanticException {
+
+			if (leftExp.getDynamicType().isStringType())
+				// the first parameter must be a slice
+				return entryState.bottom();
+
+			if (!rightExp.getDynamicType().isStringType() && !rightExp.getDynamicType().isUntyped())
+				return entryState.bottom();
+
+			ExternalSet<Type> stringType = Caches.types().mkSingletonSet(GoStringType.INSTANCE);
+			HeapDereference slice = new HeapDereference(leftExp.getTypes(), leftExp, getLocation());
+			AccessChild element = new AccessChild(stringType, slice, Summaries.child(), getLocation());
+			AnalysisState<A, H, V> elementState = rightState.smallStepSemantics(element, original);
+			if (elementState.getComputedExpressions().isEmpty())
+				// the slice is not known
+				return rightState.smallStepSemantics(new PushAny(stringType, getLocation()), original);
+
+			Variable closure = StringClosures.variable(original, "Join");
+			AnalysisState<A, H, V> result = rightState.smallStepSemantics(new Constant(GoStringType.INSTANCE, "", getLocation()), original);
+			for (SymbolicExpression e : elementState.getComputedExpressions()) {
+				BinaryExpression step = new BinaryExpression(stringType, rightExp, e, BinaryOperator.STRING_CONCAT, getLocation());
+				result = result.lub(StringClosures.star(elementState, original, closure, e, step));
+			}
+
+			return result;
+		}
+	}
+}
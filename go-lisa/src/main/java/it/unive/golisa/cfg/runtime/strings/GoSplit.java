@@ -0,0 +1,111 @@
+package it.unive.golisa.cfg.runtime.strings;
+
+import it.unive.golisa.cfg.AllocationSites;
+import it.unive.golisa.cfg.Summaries;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.composite.GoSliceType;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.BinaryNativeCall;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapAllocation;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.heap.HeapReference;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.TernaryOperator;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.Untyped;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * The model of {@code strings.Split}. The result is a new slice of unknown
+ * length, whose elements are represented by its smashed child (see
+ * {@link Summaries}): each piece is a substring of the split string, so
+ * Tarsis describes the element as the factors of that string.
+ */
+public class GoSplit extends NativeCFG {
+
+	public GoSplit(SourceCodeLocation location, CompilationUnit stringUnit) {
+		super(new CFGDescriptor(location, stringUnit, false, "Split", GoSliceType.lookup(new GoSliceType(GoStringType.INSTANCE)),
+				new Parameter(location, "this", GoStringType.INSTANCE),
+				new Parameter(location, "sep", GoStringType.INSTANCE)),
+				Split.class);
+	}
+
+	public static class Split extends BinaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public Split(CFG cfg, SourceCodeLocation location, Expression exp1, Expression exp2) {
+			super(cfg, location, "Split", GoSliceType.lookup(new GoSliceType(GoStringType.INSTANCE)), exp1, exp2);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> binarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural, AnalysisState<A, H, V> leftState,
+				SymbolicExpression leftExp, AnalysisState<A, H, V> rightState, SymbolicExpression rightExp)
+						throws SemanticException {
+
+			if (!leftExp.getDynamicType().isStringType() && !leftExp.getDynamicType().isUntyped())
+				return entryState.bottom();
+
+			if (!rightExp.getDynamicType().isStringType() && !rightExp.getDynamicType().isUntyped())
+				return entryState.bottom();
+
+			ExternalSet<Type> sliceType = Caches.types().mkSingletonSet(getStaticType());
+			ExternalSet<Type> intType = Caches.types().mkSingletonSet(GoIntType.INSTANCE);
+			HeapAllocation created = new HeapAllocation(sliceType, AllocationSites.of(this, getStaticType()));
+			AnalysisState<A, H, V> containerState = rightState.smallStepSemantics(created, original);
+
+			TernaryExpression piece = new TernaryExpression(Caches.types().mkSingletonSet(GoStringType.INSTANCE), leftExp,
+					new PushAny(intType, getLocation()), new PushAny(intType, getLocation()), TernaryOperator.STRING_SUBSTRING, getLocation());
+
+			AnalysisState<A, H, V> result = entryState.bottom();
+			for (SymbolicExpression containerExp : containerState.getComputedExpressions()) {
+				HeapReference reference = new HeapReference(sliceType, containerExp, getLocation());
+				HeapDereference dereference = new HeapDereference(sliceType, reference, getLocation());
+
+				Variable lenProperty = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), "len", getLocation());
+				AnalysisState<A, H, V> lenState = assignChild(containerState, dereference, lenProperty, new PushAny(intType, getLocation()));
+				AnalysisState<A, H, V> pieceState = assignChild(lenState, dereference, Summaries.child(), piece);
+				result = result.lub(pieceState.smallStepSemantics(reference, original));
+			}
+
+			return result;
+		}
+
+		private <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> assignChild(
+				AnalysisState<A, H, V> state, HeapDereference container, SymbolicExpression child, SymbolicExpression value)
+						throws SemanticException {
+			AccessChild access = new AccessChild(value.getTypes(), container, child, getLocation());
+			AnalysisState<A, H, V> accessState = state.smallStepSemantics(access, original);
+			AnalysisState<A, H, V> result = state.bottom();
+			for (SymbolicExpression id : accessState.getComputedExpressions())
+				result = result.lub(accessState.assign(id, value, original));
+			return result;
+		}
+	}
+}
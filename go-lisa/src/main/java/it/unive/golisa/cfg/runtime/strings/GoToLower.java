@@ -0,0 +1,83 @@
+package it.unive.golisa.cfg.runtime.strings;
+
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.UnaryNativeCall;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * The model of {@code strings.ToLower}. Constant strings are converted code
+ * point by code point, as {@code unicode.ToLower} does, so that Tarsis tracks
+ * the result exactly; any other string yields an unknown string, since no
+ * operator of the string domains maps every upper case letter (non-ASCII ones
+ * included) to its lower case one.
+ */
+public class GoToLower extends NativeCFG {
+
+	public GoToLower(SourceCodeLocation location, CompilationUnit stringUnit) {
+		super(new CFGDescriptor(location, stringUnit, false, "ToLower", GoStringType.INSTANCE,
+				new Parameter(location, "this", GoStringType.INSTANCE)),
+				ToLower.class);
+	}
+
+	public static class ToLower extends UnaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public ToLower(CFG cfg, SourceCodeLocation location, Expression arg) {
+			super(cfg, location, "ToLower", GoStringType.INSTANCE, arg);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> unarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural,
+				AnalysisState<A, H, V> exprState, SymbolicExpression expr) throws SemanticException {
+			if (!expr.getDynamicType().isStringType() && !expr.getDynamicType().isUntyped())
+				return entryState.bottom();
+
+			if (expr instanceof Constant && ((Constant) expr).getValue() instanceof String) {
+				String value = toLower((String) ((Constant) expr).getValue());
+				return exprState.smallStepSemantics(new Constant(GoStringType.INSTANCE, value, getLocation()), original);
+			}
+
+			ExternalSet<Type> stringType = Caches.types().mkSingletonSet(GoStringType.INSTANCE);
+			return exprState.smallStepSemantics(new PushAny(stringType, getLocation()), original);
+		}
+
+		/**
+		 * Lowers each code point on its own, as Go does: unlike
+		 * {@link String#toLowerCase()}, the length of the string is never
+		 * changed by locale or context sensitive mappings (e.g., U+0130 is
+		 * mapped to {@code i}).
+		 */
+		private static String toLower(String value) {
+			StringBuilder result = new StringBuilder(value.length());
+			value.codePoints().forEach(c -> result.appendCodePoint(Character.toLowerCase(c)));
+			return result.toString();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package it.unive.golisa.cfg.runtime.strings;
+
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.NativeCFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.PluggableStatement;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.UnaryNativeCall;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.TernaryOperator;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+
+/**
+ * The model of {@code strings.TrimSpace}. Constant strings are trimmed, so
+ * that Tarsis tracks the result exactly; any other string yields one of its
+ * substrings, through {@link TernaryOperator#STRING_SUBSTRING} with unknown
+ * bounds (that Tarsis evaluates to the factors of the string).
+ */
+public class GoTrimSpace extends NativeCFG {
+
+	public GoTrimSpace(SourceCodeLocation location, CompilationUnit stringUnit) {
+		super(new CFGDescriptor(location, stringUnit, false, "TrimSpace", GoStringType.INSTANCE,
+				new Parameter(location, "this", GoStringType.INSTANCE)),
+				TrimSpace.class);
+	}
+
+	public static class TrimSpace extends UnaryNativeCall implements PluggableStatement {
+
+		private Statement original;
+
+		@Override
+		public void setOriginatingStatement(Statement st) {
+			original = st;
+		}
+
+		public TrimSpace(CFG cfg, SourceCodeLocation location, Expression arg) {
+			super(cfg, location, "TrimSpace", GoStringType.INSTANCE, arg);
+		}
+
+		@Override
+		protected <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<A, H, V> unarySemantics(
+				AnalysisState<A, H, V> entryState, InterproceduralAnalysis<A, H, V> interprocedural,
+				AnalysisState<A, H, V> exprState, SymbolicExpression expr) throws SemanticException {
+			if (!expr.getDynamicType().isStringType() && !expr.getDynamicType().isUntyped())
+				return entryState.bottom();
+
+			if (expr instanceof Constant && ((Constant) expr).getValue() instanceof String) {
+				String value = trim((String) ((Constant) expr).getValue());
+				return exprState.smallStepSemantics(new Constant(GoStringType.INSTANCE, value, getLocation()), original);
+			}
+
+			ExternalSet<Type> intType = Caches.types().mkSingletonSet(GoIntType.INSTANCE);
+			TernaryExpression trimmed = new TernaryExpression(Caches.types().mkSingletonSet(GoStringType.INSTANCE), expr,
+					new PushAny(intType, getLocation()), new PushAny(intType, getLocation()), TernaryOperator.STRING_SUBSTRING, getLocation());
+			return exprState.smallStepSemantics(trimmed, original);
+		}
+
+		/**
+		 * Removes leading and trailing white space as defined by Go's
+		 * {@code unicode.IsSpace}.
+		 */
+		private static String trim(String value) {
+			int begin = 0, end = value.length();
+			while (begin < end && isSpace(value.charAt(begin)))
+				begin++;
+			while (end > begin && isSpace(value.charAt(end - 1)))
+				end--;
+			return value.substring(begin, end);
+		}
+
+		private static boolean isSpace(char c) {
+			if (c <= '\u00FF')
+				return c == ' ' || (c >= '\t' && c <= '\r') || c == '\u0085' || c == '\u00A0';
+			return Character.isSpaceChar(c);
+		}
+	}
+}
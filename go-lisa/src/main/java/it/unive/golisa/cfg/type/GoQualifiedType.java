@@ -2,8 +2,7 @@ package it.unive.golisa.cfg.type;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoNil;
 import it.unive.lisa.program.SourceCodeLocation;
@@ -14,12 +13,16 @@ import it.unive.lisa.type.Untyped;
 
 public class GoQualifiedType implements GoType {
 	
-	public static final Set<GoQualifiedType> qualTypes = new HashSet<>();
+	/**
+	 * Yields the qualified types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<GoQualifiedType, GoQualifiedType> qualTypes() {
+		return GoTypeRegistry.current().table(GoQualifiedType.class);
+	}
 
 	public static GoQualifiedType lookup(GoQualifiedType type)  {
-		if (!qualTypes.contains(type))
-			qualTypes.add(type);
-		return qualTypes.stream().filter(x -> x.equals(type)).findFirst().get();
+		return qualTypes().computeIfAbsent(type, x -> x);
 	}
 	
 	private String left;
@@ -0,0 +1,136 @@
+package it.unive.golisa.cfg.type;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import it.unive.golisa.cfg.expression.literal.GoString;
+import it.unive.golisa.cfg.runtime.buffer.StringBuffers;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.UnitType;
+import it.unive.lisa.type.Untyped;
+
+/**
+ * The type of the string buffers of the Go runtime (see
+ * {@link StringBuffers}), e.g., {@code strings.Builder}. Each buffer type
+ * has a compilation unit holding the models of its methods as instance
+ * members, so that calls on buffers are resolved through the type of the
+ * receiver. Buffer types exist only in programs importing their package.
+ */
+public class GoStringBufferType implements GoType, UnitType {
+
+	/**
+	 * Yields the buffer types registered in the {@link GoTypeRegistry} of the
+	 * current thread.
+	 */
+	private static Map<String, GoStringBufferType> bufferTypes() {
+		return GoTypeRegistry.current().table(GoStringBufferType.class);
+	}
+
+	/**
+	 * Registers the buffer type named {@code name}, replacing any previous
+	 * one with the same name.
+	 *
+	 * @param name the qualified name of the type (e.g.,
+	 *                 {@code strings.Builder})
+	 * @param unit the unit holding the methods of the type
+	 *
+	 * @return the registered type
+	 */
+	public static GoStringBufferType register(String name, CompilationUnit unit) {
+		GoStringBufferType type = new GoStringBufferType(name, unit);
+		bufferTypes().put(name, type);
+		return type;
+	}
+
+	/**
+	 * Yields the buffer type named {@code name}.
+	 *
+	 * @param name the qualified name of the type
+	 *
+	 * @return the type, or {@code null} if the program does not import its
+	 *             package
+	 */
+	public static GoStringBufferType get(String name) {
+		return bufferTypes().get(name);
+	}
+
+	public static Collection<Type> all() {
+		return new HashSet<>(bufferTypes().values());
+	}
+
+	private final String name;
+	private final CompilationUnit unit;
+
+	private GoStringBufferType(String name, CompilationUnit unit) {
+		this.name = name;
+		this.unit = unit;
+	}
+
+	@Override
+	public CompilationUnit getUnit() {
+		return unit;
+	}
+
+	@Override
+	public boolean canBeAssignedTo(Type other) {
+		return equals(other) || other.isUntyped();
+	}
+
+	@Override
+	public Type commonSupertype(Type other) {
+		return equals(other) ? other : Untyped.INSTANCE;
+	}
+
+	@Override
+	public Expression defaultValue(CFG cfg, SourceCodeLocation location) {
+		// buffers are modelled by their content
+		return new GoString(cfg, location, "", this);
+	}
+
+	@Override
+	public Collection<Type> allInstances() {
+		return Collections.singleton(this);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + ((unit == null) ? 0 : unit.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		GoStringBufferType other = (GoStringBufferType) obj;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		} else if (!name.equals(other.name))
+			return false;
+		if (unit == null) {
+			if (other.unit != null)
+				return false;
+		} else if (!unit.equals(other.unit))
+			return false;
+		return true;
+	}
+}
@@ -0,0 +1,61 @@
+package it.unive.golisa.cfg.type;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of the composite Go types (structs, interfaces, arrays, ...)
+ * of a program. Types are looked up by name or by structure through the
+ * static {@code lookup} methods of their classes, that use the registry
+ * installed on the current thread: the front-end installs a fresh registry
+ * for each program it builds, so that types of different programs (e.g.,
+ * structs with the same name and different fields) never mix, and the
+ * analysis of the program run by the same thread sees its types. Threads
+ * with no registry installed share a default one.
+ */
+public final class GoTypeRegistry {
+
+	private static final GoTypeRegistry DEFAULT = new GoTypeRegistry();
+
+	private static final ThreadLocal<GoTypeRegistry> CURRENT = new ThreadLocal<>();
+
+	private final Map<Class<?>, Map<?, ?>> tables = new ConcurrentHashMap<>();
+
+	/**
+	 * Installs {@code registry} as the one used by the current thread.
+	 *
+	 * @param registry the registry, or {@code null} to go back to the default
+	 *                     one
+	 */
+	public static void install(GoTypeRegistry registry) {
+		if (registry == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(registry);
+	}
+
+	/**
+	 * Yields the registry used by the current thread.
+	 *
+	 * @return the registry
+	 */
+	public static GoTypeRegistry current() {
+		GoTypeRegistry registry = CURRENT.get();
+		return registry == null ? DEFAULT : registry;
+	}
+
+	/**
+	 * Yields the table of the types of class {@code kind} of this registry,
+	 * creating it if needed.
+	 *
+	 * @param <K>  the type of the keys of the table
+	 * @param <T>  the type of the registered types
+	 * @param kind the class of the registered types
+	 *
+	 * @return the table, that is thread-safe
+	 */
+	@SuppressWarnings("unchecked")
+	public <K, T> Map<K, T> table(Class<T> kind) {
+		return (Map<K, T>) tables.computeIfAbsent(kind, k -> new ConcurrentHashMap<>());
+	}
+}
@@ -2,10 +2,10 @@ package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -14,20 +14,24 @@ import it.unive.lisa.type.Untyped;
 
 public class GoAliasType implements GoType {
 
-	public static final Map<String, GoAliasType> aliases = new HashMap<>();
+	/**
+	 * Yields the alias types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<String, GoAliasType> aliases() {
+		return GoTypeRegistry.current().table(GoAliasType.class);
+	}
 
 	public static GoAliasType lookup(String name, GoAliasType type)  {
-		if (!aliases.containsKey(name))
-			aliases.put(name, type);
-		return aliases.get(name);
+		return aliases().computeIfAbsent(name, x -> type);
 	}
 
 	public static boolean hasAliasType(String alias) {
-		return aliases.containsKey(alias);
+		return aliases().containsKey(alias);
 	}
 
 	public static GoAliasType get(String alias) {
-		return aliases.get(alias);
+		return aliases().get(alias);
 	}
 
 	private final String alias;
@@ -2,10 +2,12 @@ package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
 
 import it.unive.golisa.cfg.expression.literal.GoNonKeyedLiteral;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -18,15 +20,51 @@ public class GoArrayType implements GoType, PointerType {
 	private GoType contentType;
 	private Integer length;
 
-	private static final Set<GoArrayType> arrayTypes = new HashSet<>();
+	/**
+	 * Yields the array types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<GoArrayType, GoArrayType> arrayTypes() {
+		return GoTypeRegistry.current().table(GoArrayType.class);
+	}
 
-	public static GoArrayType lookup(GoArrayType type)  {
-		if (!arrayTypes.contains(type))
-			arrayTypes.add(type);
+	/**
+	 * The length above which arrays are summarized: all their elements are
+	 * represented by a single, smashed element, while their length and
+	 * capacity are still tracked. By default, no array is summarized.
+	 */
+	private static volatile int summarizationThreshold = Integer.MAX_VALUE;
+
+	/**
+	 * Sets the length above which arrays are summarized.
+	 * 
+	 * @param threshold the length, {@code 0} to summarize all arrays
+	 */
+	public static void setSummarizationThreshold(int threshold) {
+		summarizationThreshold = threshold;
+	}
 
-		return arrayTypes.stream().filter(x -> x.equals(type)).findFirst().get();
+	/**
+	 * Yields the length above which arrays are summarized.
+	 * 
+	 * @return the length
+	 */
+	public static int getSummarizationThreshold() {
+		return summarizationThreshold;
+	}
+
+	public static GoArrayType lookup(GoArrayType type)  {
+		return arrayTypes().computeIfAbsent(type, x -> x);
 	}
 
+	/**
+	 * Builds an array type.
+	 * 
+	 * @param contentType the type of the elements
+	 * @param length      the length of the array, {@code null} if it is not
+	 *                        statically known (e.g., for the backing array of
+	 *                        a slice made with a non-constant size)
+	 */
 	public GoArrayType(GoType contentType, Integer length) {
 		this.contentType = contentType;
 		this.length = length;
@@ -40,24 +78,35 @@ public class GoArrayType implements GoType, PointerType {
 		return length;
 	}
 
+	/**
+	 * Yields whether the values of this type are summarized, that is, whether
+	 * its length is unknown or above the summarization threshold.
+	 * 
+	 * @return {@code true} if and only if the elements of this array are
+	 *             represented by a single element
+	 */
+	public boolean isSummarized() {
+		return length == null || length > summarizationThreshold;
+	}
+
 	@Override
 	public boolean canBeAssignedTo(Type other) {
 		if (other instanceof GoArrayType)
-			return contentType.canBeAssignedTo(((GoArrayType) other).contentType) && length.equals(((GoArrayType) other).length);
+			return contentType.canBeAssignedTo(((GoArrayType) other).contentType) && Objects.equals(length, ((GoArrayType) other).length);
 		return false;
 	}
 
 	@Override
 	public Type commonSupertype(Type other) {
 		if (other instanceof GoArrayType)
-			if (contentType.canBeAssignedTo(((GoArrayType) other).contentType) && length.equals(((GoArrayType) other).length))
+			if (contentType.canBeAssignedTo(((GoArrayType) other).contentType) && Objects.equals(length, ((GoArrayType) other).length))
 				return other;
 		return Untyped.INSTANCE;
 	}
 
 	@Override
 	public String toString() {
-		return "[" + length + "]" + contentType.toString();
+		return "[" + (length == null ? "?" : length) + "]" + contentType.toString();
 	}
 
 	@Override
@@ -93,11 +142,31 @@ public class GoArrayType implements GoType, PointerType {
 
 	@Override
 	public Expression defaultValue(CFG cfg, SourceCodeLocation location) {
+		return defaultValue(cfg, location, null);
+	}
+
+	/**
+	 * Yields the default value of this type, allocated as a component of the
+	 * allocation of another statement at {@code location} (e.g., the backing
+	 * array of a slice).
+	 * 
+	 * @param cfg       the cfg where the value is used
+	 * @param location  the location of the value
+	 * @param component the name of the component, {@code null} if the value
+	 *                      has an allocation site of its own
+	 * 
+	 * @return the default value
+	 */
+	public Expression defaultValue(CFG cfg, SourceCodeLocation location, String component) {
+		if (isSummarized())
+			// the single element stands for all of them
+			return new GoNonKeyedLiteral(cfg, location, new Expression[] { contentType.defaultValue(cfg, location) }, this, component);
+
 		Expression[] result = new Expression[length];
 		for (int i = 0; i < length; i++)
 			result[i] = contentType.defaultValue(cfg, location);
 
-		return new GoNonKeyedLiteral(cfg, location, result, this);
+		return new GoNonKeyedLiteral(cfg, location, result, this, component);
 	}
 	
 	@Override
@@ -112,7 +181,7 @@ public class GoArrayType implements GoType, PointerType {
 
 	public static Collection<Type> all() {
 		Collection<Type> instances = new HashSet<>();
-		for (GoArrayType in : arrayTypes)
+		for (GoArrayType in : arrayTypes().keySet())
 			instances.add(in);
 		return instances;	
 	}
@@ -121,12 +190,12 @@ public class GoArrayType implements GoType, PointerType {
 	@Override
 	public Collection<Type> allInstances() {
 		Collection<Type> instances = new HashSet<>();
-		for (GoArrayType in : arrayTypes)
+		for (GoArrayType in : arrayTypes().keySet())
 			instances.add(in);
 		return instances;
 	}
 	
 	public static void clearAll() {
-		arrayTypes.clear();
+		arrayTypes().clear();
 	}
 }
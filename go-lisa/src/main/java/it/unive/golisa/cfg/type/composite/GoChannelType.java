@@ -2,11 +2,11 @@ package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoNil;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -20,12 +20,16 @@ public class GoChannelType implements GoType {
 	private boolean isReceive;
 	
 
-	private static final Set<GoChannelType> channelTypes = new HashSet<>();
+	/**
+	 * Yields the channel types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<GoChannelType, GoChannelType> channelTypes() {
+		return GoTypeRegistry.current().table(GoChannelType.class);
+	}
 
 	public static GoChannelType lookup(GoChannelType type)  {
-		if (!channelTypes.contains(type))
-			channelTypes.add(type);
-		return channelTypes.stream().filter(x -> x.equals(type)).findFirst().get();
+		return channelTypes().computeIfAbsent(type, x -> x);
 	}
 
 	public GoChannelType(GoType contentType) {
@@ -2,11 +2,11 @@ package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoNil;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.Parameter;
@@ -19,12 +19,16 @@ public class GoFunctionType implements GoType {
 	private Parameter[] params;
 	private Type returnType;
 			
-	private static final Set<GoFunctionType> functionTypes = new HashSet<>();
+	/**
+	 * Yields the function types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<GoFunctionType, GoFunctionType> functionTypes() {
+		return GoTypeRegistry.current().table(GoFunctionType.class);
+	}
 
 	public static GoFunctionType lookup(GoFunctionType type)  {
-		if (!functionTypes.contains(type))
-			functionTypes.add(type);
-		return functionTypes.stream().filter(x -> x.equals(type)).findFirst().get();
+		return functionTypes().computeIfAbsent(type, x -> x);
 	}
 	
 	public GoFunctionType(Parameter[] params, Type returnType) {
@@ -2,11 +2,11 @@ package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoNil;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
@@ -18,12 +18,18 @@ import it.unive.lisa.type.Untyped;
 
 public class GoInterfaceType implements GoType, UnitType, PointerType {
 
-	private static final Map<String, GoInterfaceType> interfaces = new HashMap<>();
+	/**
+	 * Yields the interface types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<String, GoInterfaceType> interfaces() {
+		return GoTypeRegistry.current().table(GoInterfaceType.class);
+	}
 
 	private static final String EMPTY_INTERFACE_NAME = "EMPTY_INTERFACE";
 
 	public static GoInterfaceType lookup(String name, CompilationUnit unit)  {
-		return interfaces.computeIfAbsent(name, x -> new GoInterfaceType(name, unit));
+		return interfaces().computeIfAbsent(name, x -> new GoInterfaceType(name, unit));
 	}
 
 	public static GoInterfaceType getEmptyInterface() {
@@ -39,11 +45,11 @@ public class GoInterfaceType implements GoType, UnitType, PointerType {
 	}
 
 	public static boolean hasStructType(String structType) {
-		return interfaces.containsKey(structType);
+		return interfaces().containsKey(structType);
 	}
 
 	public static GoInterfaceType get(String interfaceName) {
-		return interfaces.get(interfaceName);
+		return interfaces().get(interfaceName);
 	}
 
 	public boolean isEmptyInterface() {
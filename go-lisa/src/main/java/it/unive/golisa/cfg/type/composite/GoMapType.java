@@ -2,11 +2,11 @@ package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoNil;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -19,12 +19,16 @@ public class GoMapType implements GoType, PointerType {
 	private GoType keyType;
 	private GoType elementType;
 
-	private static final Set<GoMapType> mapTypes = new HashSet<>();
+	/**
+	 * Yields the map types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<GoMapType, GoMapType> mapTypes() {
+		return GoTypeRegistry.current().table(GoMapType.class);
+	}
 
 	public static GoMapType lookup(GoMapType type)  {
-		if (!mapTypes.contains(type))
-			mapTypes.add(type);
-		return mapTypes.stream().filter(x -> x.equals(type)).findFirst().get();
+		return mapTypes().computeIfAbsent(type, x -> x);
 	}
 
 	public GoMapType(GoType keyType, GoType elementType) {
@@ -2,11 +2,11 @@ package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoNil;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -18,12 +18,16 @@ public class GoPointerType implements PointerType, GoType {
 
 	private Type baseType;
 
-	private static final Set<GoPointerType> pointerTypes = new HashSet<>();
+	/**
+	 * Yields the pointer types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<GoPointerType, GoPointerType> pointerTypes() {
+		return GoTypeRegistry.current().table(GoPointerType.class);
+	}
 
 	public static GoPointerType lookup(GoPointerType type)  {
-		if (!pointerTypes.contains(type))
-			pointerTypes.add(type);
-		return pointerTypes.stream().filter(x -> x.equals(type)).findFirst().get();
+		return pointerTypes().computeIfAbsent(type, x -> x);
 	}
 
 	public GoPointerType(Type baseType) {
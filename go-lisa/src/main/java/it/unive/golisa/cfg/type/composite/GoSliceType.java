@@ -2,11 +2,11 @@ package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoNil;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -18,12 +18,16 @@ public class GoSliceType implements GoType, PointerType {
 	
 	private Type contentType;
 
-	private static final Set<GoSliceType> sliceTypes = new HashSet<>();
+	/**
+	 * Yields the slice types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<GoSliceType, GoSliceType> sliceTypes() {
+		return GoTypeRegistry.current().table(GoSliceType.class);
+	}
 
 	public static GoSliceType lookup(GoSliceType type)  {
-		if (!sliceTypes.contains(type))
-			sliceTypes.add(type);
-		return sliceTypes.stream().filter(x -> x.equals(type)).findFirst().get();
+		return sliceTypes().computeIfAbsent(type, x -> x);
 	}
 	
 	public GoSliceType(Type contentType) {
@@ -1,12 +1,12 @@
 package it.unive.golisa.cfg.type.composite;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoNil;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
@@ -19,31 +19,82 @@ import it.unive.lisa.type.Untyped;
 
 public class GoStructType implements GoType, UnitType, PointerType {
 
-	private static final Map<String, GoStructType> structTypes = new HashMap<>();
+	/**
+	 * Yields the struct types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<String, GoStructType> structTypes() {
+		return GoTypeRegistry.current().table(GoStructType.class);
+	}
+
+	/**
+	 * The number of fields above which structs are field-insensitive: all
+	 * their fields are represented by a single, smashed field. By default,
+	 * all structs are field-sensitive.
+	 */
+	private static volatile int fieldSensitivityThreshold = Integer.MAX_VALUE;
+
+	/**
+	 * Sets the number of fields above which structs are field-insensitive.
+	 * 
+	 * @param threshold the number of fields
+	 */
+	public static void setFieldSensitivityThreshold(int threshold) {
+		fieldSensitivityThreshold = threshold;
+	}
+
+	/**
+	 * Yields the number of fields above which structs are field-insensitive.
+	 * 
+	 * @return the number of fields
+	 */
+	public static int getFieldSensitivityThreshold() {
+		return fieldSensitivityThreshold;
+	}
 
 	public static GoStructType lookup(String name, CompilationUnit unit)  {
-		return structTypes.computeIfAbsent(name, x -> new GoStructType(name, unit));
+		return structTypes().computeIfAbsent(name, x -> new GoStructType(name, unit));
 	}
 
 	public static void updateReference(String name, CompilationUnit unit)  {
-		if (structTypes.containsKey(name))
-			structTypes.put(name, new GoStructType(name, unit));
+		structTypes().computeIfPresent(name, (x, old) -> new GoStructType(name, unit));
 	}
 
 	private final String name;
 	private final CompilationUnit unit;
 
+	/**
+	 * The number of fields of {@link #unit}, computed when first needed
+	 */
+	private volatile int fieldCount = -1;
+
 	public GoStructType(String name, CompilationUnit unit) {
 		this.name = name;
 		this.unit = unit;
 	}
 
+	/**
+	 * Yields whether the values of this type are field-insensitive, that is,
+	 * whether the number of its fields is above the field sensitivity
+	 * threshold. The number of fields is counted the first time this method
+	 * is invoked, that must happen after the front-end has added all the
+	 * fields to the unit of this type.
+	 * 
+	 * @return {@code true} if and only if the fields of this struct are
+	 *             represented by a single field
+	 */
+	public boolean isFieldInsensitive() {
+		if (fieldCount < 0)
+			fieldCount = unit.getInstanceGlobals(true).size();
+		return fieldCount > fieldSensitivityThreshold;
+	}
+
 	public static boolean hasStructType(String structType) {
-		return structTypes.containsKey(structType);
+		return structTypes().containsKey(structType);
 	}
 
 	public static GoStructType get(String structType) {
-		return structTypes.get(structType);
+		return structTypes().get(structType);
 	}
 
 	@Override
@@ -148,7 +199,7 @@ public class GoStructType implements GoType, UnitType, PointerType {
 	
 	public static Collection<Type> all() {
 		Collection<Type> instances = new HashSet<>();
-		for (GoStructType in : structTypes.values())
+		for (GoStructType in : structTypes().values())
 			instances.add(in);
 		return instances;	
 	}
@@ -157,12 +208,12 @@ public class GoStructType implements GoType, UnitType, PointerType {
 	@Override
 	public Collection<Type> allInstances() {
 		Collection<Type> instances = new HashSet<>();
-		for (GoStructType in : structTypes.values())
+		for (GoStructType in : structTypes().values())
 			instances.add(in);
 		return instances;
 	}
 	
 	public static void clearAll() {
-		structTypes.clear();
+		structTypes().clear();
 	}
 }
@@ -3,11 +3,11 @@ package it.unive.golisa.cfg.type.composite;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 import it.unive.golisa.cfg.expression.literal.GoExpressionsTuple;
 import it.unive.golisa.cfg.type.GoType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.Parameter;
@@ -17,16 +17,20 @@ import it.unive.lisa.type.Untyped;
 
 public class GoTypesTuple extends ArrayList<Parameter> implements GoType {
 
-	public static final Set<GoTypesTuple> tupleTypes = new HashSet<>();
+	/**
+	 * Yields the tuple types registered in the {@link GoTypeRegistry} of
+	 * the current thread.
+	 */
+	private static Map<GoTypesTuple, GoTypesTuple> tupleTypes() {
+		return GoTypeRegistry.current().table(GoTypesTuple.class);
+	}
 
 	public static GoTypesTuple lookup(GoTypesTuple type)  {
-		if (!tupleTypes.contains(type))
-			tupleTypes.add(type);
-		return tupleTypes.stream().filter(x -> x.equals(type)).findFirst().get();
+		return tupleTypes().computeIfAbsent(type, x -> x);
 	}
 
 	public static boolean hasTupleType(GoTypesTuple raw) {
-		return tupleTypes.contains(raw);
+		return tupleTypes().containsKey(raw);
 	}
 
 	public GoTypesTuple(Parameter[] pars) {
@@ -0,0 +1,308 @@
+package it.unive.golisa.cli;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import it.unive.lisa.LiSA;
+import it.unive.lisa.program.Program;
+
+/**
+ * Batch mode of GoLiSA: analyses many Go files in the same JVM, on a bounded
+ * thread pool. Usage:
+ *
+ * <pre>
+ * GoLiSA -batch &lt;input&gt; &lt;outdir&gt; [-tarsis|-rsubs] [-threads n] [-cache dir]
+ * </pre>
+ *
+ * where {@code input} is either a directory (all the {@code .go} files below
+ * it are analysed), a glob (e.g. {@code src/**.go}), a single {@code .go}
+ * file or a text file listing one Go file per line. The results of each file
+ * are dumped in their own sub-directory of {@code outdir}, and
+ * {@code outdir/summary.csv} reports the outcome of each file. A failure in
+ * one file (parsing errors, unsupported constructs, analysis errors) is
+ * recorded in the summary and never aborts the batch.
+ */
+public class BatchAnalysis {
+
+	private static final Logger log = LogManager.getLogger(BatchAnalysis.class);
+
+	/**
+	 * The name of the summary file written in the output directory.
+	 */
+	public static final String SUMMARY = "summary.csv";
+
+	private static final String USAGE = "Usage: GoLiSA -batch <dir|glob|file-list> <outdir> [-tarsis|-rsubs] [-threads n] [-cache dir]";
+
+	private final List<Path> files;
+
+	private final Path outputDir;
+
+	private final String domain;
+
+	private final int threads;
+
+	/**
+	 * Builds the batch.
+	 *
+	 * @param files     the Go files to analyse
+	 * @param outputDir the directory where results are dumped
+	 * @param domain    the domain flag, as accepted by {@link GoLiSA}
+	 * @param threads   the number of files analysed in parallel
+	 */
+	public BatchAnalysis(List<Path> files, Path outputDir, String domain, int threads) {
+		this.files = files;
+		this.outputDir = outputDir;
+		this.domain = domain;
+		this.threads = Math.max(1, threads);
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println(USAGE);
+			return;
+		}
+
+		String domain = "-tarsis";
+		int threads = Runtime.getRuntime().availableProcessors();
+		try {
+			for (int i = 2; i < args.length; i++)
+				if (args[i].equals("-threads") && i + 1 < args.length)
+					threads = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-cache") && i + 1 < args.length)
+					try {
+						GoFrontEnd.setTokenCache(new TokenCache(Paths.get(args[++i])));
+					} catch (IOException e) {
+						System.err.println("Unable to use the cache directory " + args[i] + ": " + e.getMessage());
+					}
+				else if (args[i].equals("-tarsis") || args[i].equals("-rsubs"))
+					domain = args[i];
+				else {
+					System.err.println("Unknown option " + args[i] + ", or missing value. Exiting.");
+					System.err.println(USAGE);
+					return;
+				}
+		} catch (NumberFormatException e) {
+			System.err.println("Invalid number: " + e.getMessage() + ". Exiting.");
+			System.err.println(USAGE);
+			return;
+		}
+
+		List<Path> files;
+		try {
+			files = collect(args[0]);
+		} catch (IOException e) {
+			System.err.println("Cannot read the input " + args[0] + ": " + e.getMessage());
+			return;
+		}
+
+		if (files.isEmpty()) {
+			System.err.println("No Go file found in " + args[0] + ". Exiting.");
+			return;
+		}
+
+		try {
+			List<Outcome> outcomes = new BatchAnalysis(files, Paths.get(args[1]), domain, threads).run();
+			long failed = outcomes.stream().filter(o -> !o.isSuccess()).count();
+			System.out.println("Analysed " + outcomes.size() + " files, " + failed + " failed. Summary written to "
+					+ Paths.get(args[1], SUMMARY));
+		} catch (IOException e) {
+			System.err.println("Cannot write the summary: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.err.println("Batch interrupted.");
+		}
+	}
+
+	/**
+	 * Yields the Go files denoted by {@code input}: the {@code .go} files
+	 * below a directory, the files matching a glob, a single {@code .go} file
+	 * or the files listed (one per line) in a text file. Empty lines and lines
+	 * starting with {@code #} of the list are ignored.
+	 *
+	 * @param input the input
+	 *
+	 * @return the Go files, sorted by path
+	 *
+	 * @throws IOException if the input cannot be read
+	 */
+	public static List<Path> collect(String input) throws IOException {
+		int glob = indexOfGlob(input);
+		if (glob >= 0) {
+			// walk from the deepest directory that precedes the first wildcard
+			int separator = input.lastIndexOf('/', glob);
+			Path root = Paths.get(separator < 0 ? "" : input.substring(0, separator + 1));
+			PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+			try (Stream<Path> walk = Files.walk(root)) {
+				return walk.filter(Files::isRegularFile).filter(matcher::matches).sorted()
+						.collect(Collectors.toList());
+			}
+		}
+
+		Path path = Paths.get(input);
+		if (Files.isDirectory(path))
+			try (Stream<Path> walk = Files.walk(path)) {
+				return walk.filter(Files::isRegularFile).filter(p -> p.toString().endsWith(".go")).sorted()
+						.collect(Collectors.toList());
+			}
+
+		if (input.endsWith(".go"))
+			return List.of(path);
+
+		return Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+				.map(String::trim)
+				.filter(line -> !line.isEmpty() && !line.startsWith("#"))
+				.map(Paths::get)
+				.collect(Collectors.toList());
+	}
+
+	private static int indexOfGlob(String input) {
+		for (int i = 0; i < input.length(); i++)
+			switch (input.charAt(i)) {
+			case '*':
+			case '?':
+			case '[':
+			case '{':
+				return i;
+			default:
+				break;
+			}
+		return -1;
+	}
+
+	/**
+	 * Analyses all the files of this batch and writes the summary.
+	 *
+	 * @return the outcome of each file, in the same order of the files
+	 *
+	 * @throws IOException          if the summary cannot be written
+	 * @throws InterruptedException if the batch is interrupted while waiting
+	 *                                  for the analyses
+	 */
+	public List<Outcome> run() throws IOException, InterruptedException {
+		Files.createDirectories(outputDir);
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Outcome>> futures = new ArrayList<>(files.size());
+		try {
+			for (int i = 0; i < files.size(); i++) {
+				Path file = files.get(i);
+				Path workdir = outputDir.resolve(i + "-" + file.getFileName().toString().replace(".go", ""));
+				futures.add(pool.submit(() -> analyse(file, workdir)));
+			}
+
+			List<Outcome> outcomes = new ArrayList<>(files.size());
+			for (int i = 0; i < files.size(); i++)
+				try {
+					outcomes.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					// analyse never throws, this is just for safety
+					outcomes.add(new Outcome(files.get(i), null, 0, e.getCause()));
+				}
+
+			writeSummary(outcomes);
+			return outcomes;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private Outcome analyse(Path file, Path workdir) {
+		long start = System.nanoTime();
+		try {
+			log.info("Analysing {}", file);
+			Files.createDirectories(workdir);
+
+			// the types of the program are registered on this thread, where
+			// it is also analysed
+			Program program = GoFrontEnd.processFile(file.toString());
+			new LiSA(GoLiSA.configuration(workdir.toString(), domain)).run(program);
+			return new Outcome(file, workdir, System.nanoTime() - start, null);
+		} catch (Exception | StackOverflowError e) {
+			log.warn("Analysis of {} failed: {}", file, e);
+			return new Outcome(file, workdir, System.nanoTime() - start, e);
+		}
+	}
+
+	private void writeSummary(List<Outcome> outcomes) throws IOException {
+		try (PrintWriter writer = new PrintWriter(
+				Files.newBufferedWriter(outputDir.resolve(SUMMARY), StandardCharsets.UTF_8))) {
+			writer.println("file,output,status,millis,error");
+			for (Outcome outcome : outcomes)
+				writer.println(outcome.toCsv());
+		}
+	}
+
+	/**
+	 * The outcome of the analysis of a single file of a batch.
+	 */
+	public static class Outcome {
+
+		private final Path file;
+
+		private final Path workdir;
+
+		private final long nanos;
+
+		private final Throwable error;
+
+		private Outcome(Path file, Path workdir, long nanos, Throwable error) {
+			this.file = file;
+			this.workdir = workdir;
+			this.nanos = nanos;
+			this.error = error;
+		}
+
+		/**
+		 * Yields the analysed file.
+		 *
+		 * @return the analysed file
+		 */
+		public Path getFile() {
+			return file;
+		}
+
+		/**
+		 * Yields whether the file has been analysed without errors.
+		 *
+		 * @return {@code true} if and only if the analysis succeeded
+		 */
+		public boolean isSuccess() {
+			return error == null;
+		}
+
+		/**
+		 * Yields the error that made the analysis fail, if any.
+		 *
+		 * @return the error, or {@code null} if the analysis succeeded
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
+		private String toCsv() {
+			String status = error == null ? "ok"
+					: error instanceof ParseCancellationException ? "parse-error" : "error";
+			String message = error == null ? "" : String.valueOf(error).replace('"', '\'').replace('\n', ' ');
+			return "\"" + file + "\",\"" + (workdir == null ? "" : workdir) + "\"," + status + ","
+					+ nanos / 1_000_000 + ",\"" + message + "\"";
+		}
+	}
+}
@@ -1,9 +1,5 @@
 package it.unive.golisa.cli;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -100,8 +96,10 @@ import it.unive.golisa.antlr.GoParser.UnaryExprContext;
 import it.unive.golisa.antlr.GoParser.VarDeclContext;
 import it.unive.golisa.antlr.GoParser.VarSpecContext;
 import it.unive.golisa.antlr.GoParserBaseVisitor;
+import it.unive.golisa.cfg.ScopeChain;
 import it.unive.golisa.cfg.VariableScopingCFG;
 import it.unive.golisa.cfg.expression.GoCollectionAccess;
+import it.unive.golisa.cfg.expression.GoFieldAccess;
 import it.unive.golisa.cfg.expression.GoMake;
 import it.unive.golisa.cfg.expression.GoNew;
 import it.unive.golisa.cfg.expression.GoTypeConversion;
@@ -148,6 +146,7 @@ import it.unive.golisa.cfg.statement.assignment.GoMultiAssignment;
 import it.unive.golisa.cfg.statement.assignment.GoMultiShortVariableDeclaration;
 import it.unive.golisa.cfg.statement.assignment.GoShortVariableDeclaration;
 import it.unive.golisa.cfg.statement.assignment.GoVariableDeclaration;
+import it.unive.golisa.cfg.type.GoStringBufferType;
 import it.unive.golisa.cfg.type.GoType;
 import it.unive.golisa.cfg.type.composite.GoArrayType;
 import it.unive.golisa.cfg.type.composite.GoPointerType;
@@ -192,7 +191,10 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 
 	protected final Collection<ControlFlowStructure> cfs;
 
-	private final Map<String, VariableRef> visibleIds;
+	/**
+	 * The chain of IDs visible at the statement being visited
+	 */
+	private ScopeChain visibleIds = ScopeChain.EMPTY;
 
 	protected VariableScopingCFG cfg;
 
@@ -216,6 +218,12 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 	 */
 	protected CompilationUnit currentUnit;
 
+	/**
+	 * Updates of shared units found while building the cfg (e.g., the fields
+	 * of anonymous struct types), applied by {@link #register()}.
+	 */
+	private final List<Runnable> unitUpdates = new ArrayList<>();
+
 
 	public GoCodeMemberVisitor(String file, Program program) {
 		this.file = file;
@@ -223,7 +231,6 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 		matrix = new AdjacencyMatrix<>();
 		entrypoints = new HashSet<>();
 		cfs = new LinkedList<>();
-		visibleIds = new HashMap<>();
 	}
 
 
@@ -238,14 +245,12 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 		// side effects on entrypoints and matrix will affect the cfg
 		cfg = new VariableScopingCFG(descriptor, entrypoints, matrix);
 
-		visibleIds = new HashMap<>();
-
 		initializeVisibleIds();	
 	}
 
 	protected void initializeVisibleIds() {
 		for (VariableTableEntry par : descriptor.getVariables())
-			visibleIds.put(par.getName(), par.createReference(cfg));
+			visibleIds = visibleIds.bind(par.getName(), par.createReference(cfg));
 	}
 
 	private CFGDescriptor mkDescriptor(CompilationUnit packageUnit, MethodDeclContext ctx) {
@@ -261,6 +266,20 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 	 * @return the {@link CFG} built from the block
 	 */
 	public CFG visitCodeMember(MethodDeclContext ctx) {
+		CFG result = buildCodeMember(ctx);
+		register();
+		return result;
+	}
+
+	/**
+	 * Builds the {@link CFG} of a method, without adding it to the unit of its
+	 * receiver, so that cfgs of different methods can be built concurrently.
+	 * 
+	 * @param ctx the method declaration
+	 * 
+	 * @return the {@link CFG} built from the method
+	 */
+	CFG buildCodeMember(MethodDeclContext ctx) {
 		Parameter receiver = visitReceiver(ctx.receiver());
 		String unitName = receiver.getStaticType() instanceof GoPointerType ? 
 				((GoPointerType) receiver.getStaticType()).getBaseType().toString() : 
@@ -286,16 +305,42 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 		// TODO @Olly: need to change the visibility of the variables reaching implicit return statement
 		if (cfg.getAllExitpoints().isEmpty()) {
 			Ret ret  =  new Ret(cfg, SyntheticLocation.INSTANCE);
-			cfg.addNode(ret, cfg.getVisibleIds(body.getRight()));
+			cfg.addNode(ret, cfg.getScope(body.getRight()));
 			cfg.addEdge(new SequentialEdge(body.getRight(), ret));
 		}
 		
 		cfg.getEntrypoints().add(body.getLeft());
 		cfg.simplify();
-		currentUnit.addInstanceCFG(cfg);
 		return cfg;
 	}
 
+	/**
+	 * Adds the built cfg to its unit. This is not thread-safe, and it is
+	 * invoked sequentially after the cfgs have been built.
+	 */
+	void register() {
+		applyUnitUpdates();
+		currentUnit.addInstanceCFG(cfg);
+	}
+
+	/**
+	 * Applies the updates of shared units deferred while building the cfg.
+	 */
+	protected void applyUnitUpdates() {
+		unitUpdates.forEach(Runnable::run);
+		unitUpdates.clear();
+	}
+
+	/**
+	 * Yields a visitor of the types appearing in the cfg, that defers the
+	 * updates of {@link #currentUnit} to {@link #register()}.
+	 * 
+	 * @return the visitor
+	 */
+	protected GoTypeVisitor typeVisitor() {
+		return new GoTypeVisitor(file, currentUnit, program, unitUpdates::add);
+	}
+
 
 	static protected int getLine(ParserRuleContext ctx) {
 		return ctx.getStart().getLine();
@@ -375,7 +420,7 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 
 	@Override
 	public Pair<Statement, Statement> visitBlock(BlockContext ctx) {
-		Map<String, VariableRef> backup = new HashMap<>(visibleIds);
+		ScopeChain backup = visibleIds;
 
 		if (ctx.statementList() == null) {
 			SourceCodeLocation location = locationOf(ctx);
@@ -395,19 +440,15 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 		return res;
 	}
 	
-	protected void updateVisileIds(Map<String, VariableRef> backup, Statement last) {
-
-		Collection<String> toRemove = new HashSet<>();
-		for (Entry<String, VariableRef> id : visibleIds.entrySet())
-			if (!backup.containsKey(id.getKey())) {
+	protected void updateVisileIds(ScopeChain backup, Statement last) {
+		for (Entry<String, VariableRef> id : visibleIds.boundSince(backup).entrySet())
+			if (!backup.isVisible(id.getKey())) {
 				VariableRef ref = id.getValue();
 				descriptor.addVariable(new VariableTableEntry(ref.getLocation(),
 						0, ref.getRootStatement(), last, id.getKey(), Untyped.INSTANCE));
-				toRemove.add(id.getKey());
 			}
 
-		if (!toRemove.isEmpty())
-			toRemove.forEach(visibleIds::remove);
+		visibleIds = backup;
 	}
 
 	@Override
@@ -484,11 +525,11 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 			GoVariableDeclaration asg = new GoVariableDeclaration(cfg, new SourceCodeLocation(file, line, col), type, target, exp);
 			cfg.addNode(asg, visibleIds);
 
-			if (visibleIds.containsKey(target.getName()))
+			if (visibleIds.isVisible(target.getName()))
 				throw new GoSyntaxException(
 						"Duplicate variable '" + target.getName() + "' declared at " + target.getLocation());
 
-			visibleIds.put(target.getName(), target);
+			visibleIds = visibleIds.bind(target.getName(), target);
 
 			if (lastStmt != null)
 				addEdge(new SequentialEdge(lastStmt, asg));
@@ -633,11 +674,11 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 			GoConstantDeclaration asg = new GoConstantDeclaration(cfg, locationOf(ctx), target, exp);
 			cfg.addNode(asg, visibleIds);
 
-			if (visibleIds.containsKey(target.getName()))
+			if (visibleIds.isVisible(target.getName()))
 				throw new GoSyntaxException(
 						"Duplicate variable '" + target.getName() + "' declared at " + target.getLocation());
 
-			visibleIds.put(target.getName(), target);
+			visibleIds = visibleIds.bind(target.getName(), target);
 
 			if (lastStmt != null)
 				addEdge(new SequentialEdge(lastStmt, asg));
@@ -841,7 +882,7 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 				//					throw new GoSyntaxException(
 				//							"Duplicate variable '" + left[i].getName() + "' declared at " + left[i].getLocation());
 				//				else
-				visibleIds.put(left[i].getName(), left[i]);
+				visibleIds = visibleIds.bind(left[i].getName(), left[i]);
 
 
 			Expression right = visitExpression(exps.expression(0));
@@ -865,7 +906,7 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 				//					throw new GoSyntaxException(
 				//							"Duplicate variable '" + target.getName() + "' declared at " + target.getLocation());
 
-				visibleIds.put(target.getName(), target);
+				visibleIds = visibleIds.bind(target.getName(), target);
 
 				GoShortVariableDeclaration asg = new GoShortVariableDeclaration(cfg, file, line, col, target, exp);
 				cfg.addNode(asg, visibleIds);
@@ -1118,7 +1159,7 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 	@Override
 	public Pair<Statement, Statement> visitForStmt(ForStmtContext ctx) {
 		SourceCodeLocation location = locationOf(ctx);
-		Map<String, VariableRef> backup = new HashMap<>(visibleIds);
+		ScopeChain backup = visibleIds;
 		NoOp exitNode = new NoOp(cfg, location);
 		cfg.addNode(exitNode, visibleIds);
 
@@ -1250,15 +1291,8 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 	}
 
 
-	private void restoreVisibleIdsAfterForLoop(Map<String, VariableRef> backup) {
-		Collection<String> toRemove = new HashSet<>();
-		for (Entry<String, VariableRef> id : visibleIds.entrySet())
-			if (!backup.containsKey(id.getKey())) 
-				toRemove.add(id.getKey());
-
-		if (!toRemove.isEmpty())
-			toRemove.forEach(visibleIds::remove);
-
+	private void restoreVisibleIdsAfterForLoop(ScopeChain backup) {
+		visibleIds = backup;
 	}
 
 	@Override
@@ -1342,7 +1376,7 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 			// Field access x.f
 			else if (ctx.IDENTIFIER() != null) {
 				Global index = new Global(locationOf(ctx.IDENTIFIER()), ctx.IDENTIFIER().getText(), Untyped.INSTANCE);
-				return new AccessInstanceGlobal(cfg, locationOf(ctx), primary, index);
+				return new GoFieldAccess(cfg, locationOf(ctx), primary, index);
 			}
 
 			// Simple slice expression a[l:h]
@@ -1487,8 +1521,13 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 			// Boolean values (true, false) are matched as identifiers
 			if (ctx.IDENTIFIER().getText().equals("true") || ctx.IDENTIFIER().getText().equals("false"))
 				return new GoBoolean(cfg, location, Boolean.parseBoolean(ctx.IDENTIFIER().getText()));
-			else
-				return new VariableRef(cfg, location, ctx.IDENTIFIER().getText());
+
+			// buffers keep their type, so that calls to their methods are
+			// resolved through it
+			VariableRef declared = visibleIds.lookup(ctx.IDENTIFIER().getText());
+			if (declared != null && declared.getStaticType() instanceof GoStringBufferType)
+				return new VariableRef(cfg, location, ctx.IDENTIFIER().getText(), declared.getStaticType());
+			return new VariableRef(cfg, location, ctx.IDENTIFIER().getText());
 		}
 
 		Object child = visitChildren(ctx);
@@ -1501,7 +1540,10 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 	@Override
 	@SuppressWarnings("unchecked")
 	public Statement visitCompositeLit(CompositeLitContext ctx) {
-		GoType type = new GoTypeVisitor(file, currentUnit, program).visitLiteralType(ctx.literalType());
+		GoType type = typeVisitor().visitLiteralType(ctx.literalType());
+		if (type instanceof GoStringBufferType)
+			// buffers are modelled by their content, and have no fields
+			return type.defaultValue(cfg, locationOf(ctx));
 		Object raw = visitLiteralValue(ctx.literalValue(), type);
 		if (raw instanceof LinkedHashMap<?, ?>)  {
 
@@ -1658,32 +1700,15 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 	}
 
 	private GoType parseType(String type) {
-		InputStream stream = new ByteArrayInputStream(type.getBytes());
-		GoLexer lexer = null;
-
-		try {
-			lexer = new GoLexer(CharStreams.fromStream(stream, StandardCharsets.UTF_8));
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
+		GoLexer lexer = new GoLexer(CharStreams.fromString(type));
 		GoParser parser = new GoParser(new CommonTokenStream(lexer));
 		ParseTree tree = parser.type_();
-
-		GoType t = visitType_((Type_Context) tree);
-		try {
-			stream.close();
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-
-		return t;
+		return visitType_((Type_Context) tree);
 	}
 
 	@Override
 	public GoType visitType_(Type_Context ctx) {
-		return new GoTypeVisitor(file, currentUnit, program).visitType_(ctx);
+		return typeVisitor().visitType_(ctx);
 	}
 
 	@Override
@@ -1783,7 +1808,7 @@ public class GoCodeMemberVisitor extends GoParserBaseVisitor<Object> {
 	}
 
 	public Map<String, VariableRef> getVisibleIds() {
-		return visibleIds;
+		return visibleIds.asMap();
 	}
 
 	@Override
@@ -1,17 +1,29 @@
 package it.unive.golisa.cli;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.antlr.v4.runtime.BailErrorStrategy;
-import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CodePointBuffer;
+import org.antlr.v4.runtime.CodePointCharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
 import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.Token;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -30,19 +42,12 @@ import it.unive.golisa.antlr.GoParser.String_Context;
 import it.unive.golisa.antlr.GoParser.TypeDeclContext;
 import it.unive.golisa.antlr.GoParser.TypeSpecContext;
 import it.unive.golisa.antlr.GoParserBaseVisitor;
+import it.unive.golisa.cfg.runtime.RuntimeModels;
 import it.unive.golisa.cfg.runtime.conversion.GoToString;
-import it.unive.golisa.cfg.runtime.fmt.GoPrintln;
-import it.unive.golisa.cfg.runtime.strings.GoContains;
-import it.unive.golisa.cfg.runtime.strings.GoHasPrefix;
-import it.unive.golisa.cfg.runtime.strings.GoHasSuffix;
-import it.unive.golisa.cfg.runtime.strings.GoIndex;
-import it.unive.golisa.cfg.runtime.strings.GoIndexRune;
-import it.unive.golisa.cfg.runtime.strings.GoLen;
-import it.unive.golisa.cfg.runtime.strings.GoReplace;
-import it.unive.golisa.cfg.runtime.url.UrlPathEscape;
-import it.unive.golisa.cfg.runtime.url.UrlQueryEscape;
 import it.unive.golisa.cfg.type.GoBoolType;
+import it.unive.golisa.cfg.type.GoStringBufferType;
 import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cfg.type.GoTypeRegistry;
 import it.unive.golisa.cfg.type.composite.GoArrayType;
 import it.unive.golisa.cfg.type.composite.GoInterfaceType;
 import it.unive.golisa.cfg.type.composite.GoStructType;
@@ -59,7 +64,9 @@ import it.unive.golisa.cfg.type.numeric.unsigned.GoUInt64Type;
 import it.unive.golisa.cfg.type.numeric.unsigned.GoUInt8Type;
 import it.unive.golisa.cfg.type.untyped.GoUntypedFloat;
 import it.unive.golisa.cfg.type.untyped.GoUntypedInt;
-import it.unive.lisa.logging.IterationLogger;
+import it.unive.golisa.logging.SampledProgress;
+import it.unive.golisa.metrics.Metrics;
+import it.unive.golisa.metrics.Metrics.Measure;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.SourceCodeLocation;
@@ -89,6 +96,36 @@ public class GoFrontEnd extends GoParserBaseVisitor<Object> {
 	 */
 	public static final ResolutionStrategy CALL_STRATEGY = ResolutionStrategy.DYNAMIC_TYPES;
 
+	/**
+	 * Minimum number of declarations of the same kind for their cfgs to be
+	 * built in parallel.
+	 */
+	public static final int PARALLEL_THRESHOLD = 16;
+
+	/**
+	 * The phase of the {@link Metrics} measuring the construction of cfgs.
+	 */
+	private static final String CFG_CONSTRUCTION = "cfg-construction";
+
+	private static volatile int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The pool building cfgs in parallel, shared by all the front-ends and
+	 * replaced only when the parallelism changes.
+	 */
+	private static ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+	/**
+	 * The size, in bytes, above which source files are memory-mapped instead
+	 * of read: mapping has a fixed cost that pays off only on large files.
+	 */
+	public static final int MAP_THRESHOLD = 1 << 20;
+
+	/**
+	 * The on-disk cache of token streams, if any.
+	 */
+	private static volatile TokenCache tokenCache;
+
 	/**
 	 * Builds an instance of @GoToCFG for a given Go program
 	 * given at the location filePath.
@@ -108,10 +145,138 @@ public class GoFrontEnd extends GoParserBaseVisitor<Object> {
 		return filePath;
 	}
 
+	/**
+	 * Builds the LiSA program corresponding to the Go program at
+	 * {@code filePath}. Its types are registered in a fresh
+	 * {@link GoTypeRegistry}, installed on the current thread: the program
+	 * must be analysed by the same thread, before it builds another one.
+	 * 
+	 * @param filePath file path to a Go program
+	 * 
+	 * @return the LiSA program
+	 * 
+	 * @throws IOException if the file cannot be read
+	 */
 	public static Program processFile(String filePath) throws IOException {
 		return new GoFrontEnd(filePath).toLiSAProgram();
 	}
 
+	/**
+	 * Parses the Go program at {@code filePath}, without building its
+	 * {@link CFG}s. The resulting tree can be turned into a program (even more
+	 * than once) through {@link #processParseTree(String, SourceFileContext)}.
+	 * 
+	 * @param filePath file path to a Go program
+	 * 
+	 * @return the parse tree of the program
+	 * 
+	 * @throws IOException if the file cannot be read
+	 */
+	public static SourceFileContext parse(String filePath) throws IOException {
+		log.info("Reading file... {}", filePath);
+
+		Metrics metrics = Metrics.current();
+		CommonTokenStream tokens;
+		try (Measure m = metrics.phase("lexing")) {
+			tokens = lex(filePath);
+		}
+
+		try (Measure m = metrics.phase("parsing")) {
+			GoParser parser = new GoParser(tokens);
+			parser.setErrorHandler(new BailErrorStrategy());
+			return parser.sourceFile();
+		}
+	}
+
+	private static CommonTokenStream lex(String filePath) throws IOException {
+		TokenCache cache = tokenCache;
+		try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+			ByteBuffer content = read(channel);
+
+			String key = null;
+			if (cache != null) {
+				key = TokenCache.key(content.duplicate());
+				List<Token> cached = cache.get(key);
+				if (cached != null) {
+					log.debug("Tokens of {} loaded from cache", filePath);
+					CommonTokenStream tokens = new CommonTokenStream(new ListTokenSource(cached, filePath));
+					tokens.fill();
+					return tokens;
+				}
+			}
+
+			int bytes = content.remaining();
+			long start = System.nanoTime();
+			CommonTokenStream tokens = new CommonTokenStream(new GoLexer(decode(content, filePath)));
+			tokens.fill();
+			Metrics metrics = Metrics.current();
+			metrics.count(Metrics.LEXER_NANOS, System.nanoTime() - start);
+			metrics.count(Metrics.LEXED_BYTES, bytes);
+
+			if (cache != null)
+				cache.put(key, tokens.getTokens());
+			return tokens;
+		}
+	}
+
+	/**
+	 * Yields the content of a file. Files larger than {@link #MAP_THRESHOLD}
+	 * are mapped in memory: the mapping stays valid after the channel is
+	 * closed, and it is released when the returned buffer is garbage
+	 * collected. Smaller files are read in a heap buffer.
+	 */
+	private static ByteBuffer read(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size > Integer.MAX_VALUE)
+			throw new IOException("File too large to be analyzed: " + size + " bytes");
+		if (size > MAP_THRESHOLD)
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+		ByteBuffer content = ByteBuffer.allocate((int) size);
+		while (content.hasRemaining())
+			if (channel.read(content) < 0)
+				break;
+		content.flip();
+		return content;
+	}
+
+	/**
+	 * Decodes a UTF-8 content for the lexer. The bytes are decoded once into
+	 * a char buffer, that is then copied into the code point buffer of the
+	 * lexer: two copies, instead of the stream, reader and builder layers of
+	 * {@code CharStreams.fromStream}.
+	 */
+	private static CodePointCharStream decode(ByteBuffer content, String sourceName) throws IOException {
+		CharBuffer chars = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE)
+				.decode(content);
+		return CodePointCharStream.fromBuffer(CodePointBuffer.withChars(chars), sourceName);
+	}
+
+	/**
+	 * Sets the on-disk cache of token streams used by the front-end.
+	 * 
+	 * @param cache the cache, or {@code null} to lex every file from scratch
+	 */
+	public static void setTokenCache(TokenCache cache) {
+		tokenCache = cache;
+	}
+
+	/**
+	 * Builds the LiSA program corresponding to an already parsed Go program.
+	 * As for {@link #processFile(String)}, the program must be analysed by the
+	 * thread that builds it.
+	 * 
+	 * @param filePath file path to the Go program
+	 * @param tree     the parse tree of the Go program
+	 * 
+	 * @return the LiSA program
+	 */
+	public static Program processParseTree(String filePath, SourceFileContext tree) {
+		return new GoFrontEnd(filePath).toLiSAProgram(tree);
+	}
+
 	/**
 	 * Returns the collection of @CFG in a Go program at filePath.
 	 * 
@@ -120,25 +285,22 @@ public class GoFrontEnd extends GoParserBaseVisitor<Object> {
 	 */
 	private Program toLiSAProgram() throws IOException {
 		log.info("Go front-end setup...");
-		log.info("Reading file... " + filePath);
-
-//		GoArrayType.clearAll();
-//		GoStructType.clearAll();
-		
-		InputStream stream = new FileInputStream(getFilePath());
-		GoLexer lexer = new GoLexer(CharStreams.fromStream(stream, StandardCharsets.UTF_8));
-		GoParser parser = new GoParser(new CommonTokenStream(lexer));
-		parser.setErrorHandler(new BailErrorStrategy());
-
-		ParseTree tree = parser.sourceFile();
-
-		Program result = visitSourceFile((SourceFileContext) tree);
-		stream.close();
-		
-		registerGoTypes(program);
-		// Register all the types
-		
-		return result;
+		return toLiSAProgram(parse(filePath));
+	}
+
+	private Program toLiSAProgram(SourceFileContext tree) {
+		// each program has its own types, that the analysis run by this
+		// thread will see
+		GoTypeRegistry.install(new GoTypeRegistry());
+
+		try (Measure m = Metrics.current().phase(CFG_CONSTRUCTION)) {
+			Program result = visitSourceFile(tree);
+
+			registerGoTypes(program);
+			// Register all the types
+
+			return result;
+		}
 	}
 
 	private void registerGoTypes(Program program) {
@@ -160,37 +322,132 @@ public class GoFrontEnd extends GoParserBaseVisitor<Object> {
 		program.registerType(GoStringType.INSTANCE);
 		GoArrayType.all().forEach(program::registerType);
 		GoStructType.all().forEach(program::registerType);
+		GoStringBufferType.all().forEach(program::registerType);
 	}
 
 	CompilationUnit packageUnit;
+
+	/**
+	 * The models of the runtime packages imported by the program.
+	 */
+	private RuntimeModels runtime;
+
 	@Override
 	public Program visitSourceFile(SourceFileContext ctx) {
 		String packageName = visitPackageClause(ctx.packageClause());
 
 		packageUnit = new CompilationUnit(new SourceCodeLocation(filePath, 0, 0), packageName, false);
 		program.addCompilationUnit(packageUnit);
+		runtime = new RuntimeModels(program, packageUnit);
 
 		GoInterfaceType.lookup("EMPTY_INTERFACE", packageUnit);
 
 		for (ImportDeclContext imp : ctx.importDecl())
 			visitImportDecl(imp);
 
-		for (DeclarationContext decl : IterationLogger.iterate(log, ctx.declaration(), "Parsing global declarations...", "Global declarations")) 
+		for (DeclarationContext decl : SampledProgress.iterate(log, ctx.declaration(), "Parsing global declarations...", "Global declarations")) 
 			visitDeclarationContext(decl);
 
-		for (MethodDeclContext decl : IterationLogger.iterate(log, ctx.methodDecl(), "Parsing method declarations...", "Method declarations"))
-			visitMethodDecl(decl); 
+		// cfgs are built concurrently, and then added to their units in
+		// declaration order
+		build(ctx.methodDecl(), "Parsing method declarations...", "Method declarations", decl -> {
+			GoCodeMemberVisitor visitor = new GoCodeMemberVisitor(packageUnit, decl, filePath, program);
+			visitor.buildCodeMember(decl);
+			return visitor;
+		}).forEach(GoCodeMemberVisitor::register);
 
 		updateUnitReferences();
 
 		// method declaration must be linked to compilation unit of a declaration context, for the function declaration is not needed
 		// Visit of each FunctionDeclContext populating the corresponding cfg
-		for (FunctionDeclContext funcDecl : IterationLogger.iterate(log, ctx.functionDecl(), "Visiting function declarations...", "Function declarations"))	
-			visitFunctionDecl(funcDecl);
+		build(ctx.functionDecl(), "Visiting function declarations...", "Function declarations", decl -> {
+			GoFunctionVisitor visitor = new GoFunctionVisitor(decl, packageUnit, filePath, program);
+			visitor.buildFunctionDecl(decl);
+			return visitor;
+		}).forEach(GoFunctionVisitor::register);
 
 		return program;
 	}
 
+	/**
+	 * Visits each of {@code decls} with {@code builder}. When there are enough
+	 * declarations, they are visited in parallel on a fork-join pool with
+	 * {@link #getParallelism()} workers. The results are returned in the order
+	 * of {@code decls}, so that the program does not depend on the scheduling.
+	 */
+	private static <D, R> List<R> build(List<D> decls, String message, String objects, Function<D, R> builder) {
+		int workers = parallelism;
+		if (workers <= 1 || decls.size() < PARALLEL_THRESHOLD) {
+			List<R> result = new ArrayList<>(decls.size());
+			for (D decl : SampledProgress.iterate(log, decls, message, objects))
+				result.add(builder.apply(decl));
+			return result;
+		}
+
+		log.info(message);
+		long start = System.currentTimeMillis();
+		// the workers look types up in the registry of the program being built,
+		// and record into the metrics of the thread waiting for them
+		GoTypeRegistry registry = GoTypeRegistry.current();
+		Metrics metrics = Metrics.current();
+		Function<D, R> task = decl -> {
+			GoTypeRegistry.install(registry);
+			Metrics.install(metrics);
+			try (Measure m = metrics.work(CFG_CONSTRUCTION)) {
+				return builder.apply(decl);
+			} finally {
+				Metrics.install(null);
+				GoTypeRegistry.install(null);
+			}
+		};
+		try {
+			List<R> result = pool().submit(() -> decls.parallelStream().map(task).collect(Collectors.toList())).get();
+			log.info("{}: {} done in {}ms on {} workers", objects, decls.size(), System.currentTimeMillis() - start, workers);
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while building cfgs", e);
+		} catch (ExecutionException e) {
+			// rethrown as is, so that callers see the same failures of the
+			// sequential construction
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static synchronized ForkJoinPool pool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the number of workers used to build cfgs in parallel.
+	 * 
+	 * @param workers the number of workers, {@code 1} to build cfgs
+	 *                    sequentially
+	 */
+	public static void setParallelism(int workers) {
+		synchronized (GoFrontEnd.class) {
+			parallelism = Math.max(1, workers);
+			if (pool.getParallelism() != parallelism) {
+				// tasks already submitted to the old pool are still completed
+				pool.shutdown();
+				pool = new ForkJoinPool(parallelism);
+			}
+		}
+	}
+
+	/**
+	 * Yields the number of workers used to build cfgs in parallel.
+	 * 
+	 * @return the number of workers
+	 */
+	public static int getParallelism() {
+		return parallelism;
+	}
+
 	private void updateUnitReferences() {
 		for (CompilationUnit unit : program.getUnits())
 			GoStructType.updateReference(unit.getName(), unit);
@@ -250,64 +507,15 @@ public class GoFrontEnd extends GoParserBaseVisitor<Object> {
 		String lib = visitString_(ctx.string_());
 
 		loadCore();
-		
-		
-		switch (lib) {
-		case "strings": loadStrings();
-		case "fmt": loadFmt();
-		case "url": loadUrl();
-		}
+		runtime.load(lib);
 		return null;
 	}
 
-	private void loadUrl() {
-		SourceCodeLocation unknownLocation = new SourceCodeLocation("go-runtime", 0, 0);
-		CompilationUnit url = new CompilationUnit(unknownLocation, "url", false);
-		url.addConstruct(new UrlQueryEscape(unknownLocation, url));
-		url.addConstruct(new UrlPathEscape(unknownLocation, url));
-
-		program.addCompilationUnit(url);		
-	}
-
 	private void loadCore() {
 		SourceCodeLocation unknownLocation = new SourceCodeLocation("go-runtime", 0, 0);
 		packageUnit.addConstruct(new GoToString(unknownLocation, packageUnit));
 	}
 
-	private void loadStrings() {
-		SourceCodeLocation unknownLocation = new SourceCodeLocation("go-runtime", 0, 0);
-		CompilationUnit str = new CompilationUnit(unknownLocation, "strings", false);
-		str.addConstruct(new GoHasPrefix(unknownLocation, str));
-		str.addConstruct(new GoHasSuffix(unknownLocation, str));
-		str.addConstruct(new GoContains(unknownLocation, str));
-		str.addConstruct(new GoReplace(unknownLocation, str));
-		str.addConstruct(new GoIndex(unknownLocation, str));	
-		str.addConstruct(new GoIndexRune(unknownLocation, str));	
-		str.addConstruct(new GoLen(unknownLocation, str));	
-
-		program.addCompilationUnit(str);
-
-		// We add the string methods also in package unit as non-instant cfgs
-		packageUnit.addConstruct(new GoHasPrefix(unknownLocation, str));
-		packageUnit.addConstruct(new GoHasSuffix(unknownLocation, str));
-		packageUnit.addConstruct(new GoContains(unknownLocation, str));
-		packageUnit.addConstruct(new GoReplace(unknownLocation, str));
-		packageUnit.addConstruct(new GoIndex(unknownLocation, str));
-		packageUnit.addConstruct(new GoIndexRune(unknownLocation, str));
-		packageUnit.addConstruct(new GoLen(unknownLocation, str));
-	}
-
-	private void loadFmt() {
-		SourceCodeLocation unknownLocation = new SourceCodeLocation("go-runtime", 0, 0);
-		CompilationUnit fmt = new CompilationUnit(unknownLocation, "fmt", false);
-		fmt.addConstruct(new GoPrintln(unknownLocation, fmt));
-
-		program.addCompilationUnit(fmt);
-
-		// We add the string methods also in package unit as non-instant cfgs
-		packageUnit.addConstruct(new GoPrintln(unknownLocation, fmt));
-	}
-
 	@Override
 	public Pair<Statement, Statement> visitFunctionDecl(FunctionDeclContext ctx) {	
 		return new GoFunctionVisitor(ctx, packageUnit, filePath, program).visitFunctionDecl(ctx);
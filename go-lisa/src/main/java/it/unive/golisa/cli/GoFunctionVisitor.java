@@ -41,19 +41,28 @@ class GoFunctionVisitor extends GoCodeMemberVisitor {
 		// side effects on entrypoints and matrix will affect the cfg
 		cfg = new VariableScopingCFG(descriptor, entrypoints, matrix);
 		initializeVisibleIds();
-
-		packageUnit.addCFG(cfg);
 	}
 
 	@Override
 	public Pair<Statement, Statement> visitFunctionDecl(FunctionDeclContext ctx) {
+		Pair<Statement, Statement> result = buildFunctionDecl(ctx);
+		register();
+		return result;
+	}
+
+	/**
+	 * Builds the cfg of the function, without adding it to the package unit
+	 * nor to the program, so that cfgs of different functions can be built
+	 * concurrently.
+	 * 
+	 * @param ctx the function declaration
+	 * 
+	 * @return the entry and the exit nodes of the function body
+	 */
+	Pair<Statement, Statement> buildFunctionDecl(FunctionDeclContext ctx) {
 		Statement entryNode = null;
 		Pair<Statement, Statement> body = visitBlock(ctx.block());	
 
-		// The function named "main" is the entry point of the program
-		if (cfg.getDescriptor().getName().equals("main"))
-			program.addEntryPoint(cfg);
-
 		Type returnType = cfg.getDescriptor().getReturnType();
 
 		if (!(returnType instanceof  GoTypesTuple))
@@ -89,7 +98,7 @@ class GoFunctionVisitor extends GoCodeMemberVisitor {
 		// TODO @Olly: need to change the visibility of the variables reaching implicit return statement
 		if (cfg.getAllExitpoints().isEmpty()) {
 			Ret ret  =  new Ret(cfg, new SourceCodeLocation(file, 0, 0));
-			cfg.addNode(ret, cfg.getVisibleIds(body.getRight()));
+			cfg.addNode(ret, cfg.getScope(body.getRight()));
 			addEdge(new SequentialEdge(body.getRight(), ret));
 		}
 
@@ -98,6 +107,20 @@ class GoFunctionVisitor extends GoCodeMemberVisitor {
 		return Pair.of(entryNode, body.getRight());
 	}
 
+	/**
+	 * Adds the built cfg to the package unit, and to the entry points of the
+	 * program if it is the main function.
+	 */
+	@Override
+	void register() {
+		applyUnitUpdates();
+		currentUnit.addCFG(cfg);
+
+		// The function named "main" is the entry point of the program
+		if (cfg.getDescriptor().getName().equals("main"))
+			program.addEntryPoint(cfg);
+	}
+
 	private CFGDescriptor buildCFGDescriptor(FunctionDeclContext funcDecl) {
 		String funcName = funcDecl.IDENTIFIER().getText();
 		SignatureContext signature = funcDecl.signature();
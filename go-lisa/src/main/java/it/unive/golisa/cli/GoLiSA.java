@@ -4,23 +4,72 @@ import static it.unive.lisa.LiSAFactory.getDefaultFor;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 import org.antlr.v4.runtime.misc.ParseCancellationException;
 
+import it.unive.golisa.analysis.AnalysisBudget;
+import it.unive.golisa.analysis.BudgetedDomain;
+import it.unive.golisa.analysis.FixpointStrategy;
+import it.unive.golisa.analysis.ModularWorstCaseWithNativeCalls;
+import it.unive.golisa.analysis.ProfiledDomain;
 import it.unive.golisa.analysis.composition.RelTarsis;
 import it.unive.golisa.analysis.tarsis.Tarsis;
+import it.unive.golisa.cfg.AllocationSitePolicy;
+import it.unive.golisa.cfg.AllocationSites;
+import it.unive.golisa.cfg.VariablePacking;
+import it.unive.golisa.cfg.type.composite.GoArrayType;
+import it.unive.golisa.cfg.type.composite.GoStructType;
+import it.unive.golisa.metrics.Metrics;
+import it.unive.golisa.metrics.Metrics.Measure;
+import it.unive.golisa.metrics.StatementProfiler;
+import it.unive.golisa.outputs.DumpFilter;
+import it.unive.golisa.outputs.StateDump;
+import it.unive.golisa.outputs.StreamingJsonReport;
 import it.unive.lisa.AnalysisSetupException;
 import it.unive.lisa.LiSA;
 import it.unive.lisa.LiSAConfiguration;
 import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
 import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
 
 public class GoLiSA {
 
+	private static final String USAGE = "Usage: GoLiSA <file> <outdir> [-tarsis|-rsubs] [-stream [-gzip]]"
+			+ " [-dump-function regex]... [-dump-warnings] [-dump-entry-exit] [-dump-binary] [-cache dir]"
+			+ " [-frontend-threads n] [-summarize-arrays n] [-field-insensitive-structs n] [-pack-variables]"
+			+ " [-allocation-sites policy] [-fixpoint strategy] [-profile] [-budget-cfg-ms n]"
+			+ " [-budget-cfg-steps n] [-budget-state-size n] [-budget-total-ms n] [-metrics json|prometheus]\n"
+			+ "       GoLiSA -batch <dir|glob|file-list> <outdir> [-tarsis|-rsubs] [-threads n] [-cache dir]\n"
+			+ "       GoLiSA -server [port] [cache-size] [-root dir] [-token secret]\n"
+			+ "       GoLiSA -render <dump-dir> <outdir>";
+
 	public static void main(String[] args) throws AnalysisSetupException {
-		if (args == null || args[0] == null) {
+		if (args != null && args.length > 0 && "-batch".equals(args[0])) {
+			BatchAnalysis.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
+		if (args != null && args.length > 0 && "-server".equals(args[0])) {
+			GoLiSAServer.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
+		if (args != null && args.length > 0 && "-render".equals(args[0])) {
+			render(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
+		if (args == null || args.length == 0 || args[0] == null) {
 			System.err.println("Input file is missing. Exiting.");
+			System.err.println(USAGE);
 			return;
 		}
 
@@ -28,11 +77,125 @@ public class GoLiSA {
 
 		if (args.length < 2) {
 			System.err.println("Output directory is missing. Exiting.");
+			System.err.println(USAGE);
 			return;
 		}
 
 		String outputDir = args[1];
 
+		String domain = "-tarsis";
+		boolean stream = false, gzip = false;
+		boolean selective = false, binary = false;
+		DumpFilter filter = new DumpFilter();
+		String metrics = null;
+		boolean profile = false;
+		String cache = null;
+		FixpointStrategy strategy = FixpointStrategy.STATEMENTS;
+		long[] budget = new long[4];
+		try {
+			for (int i = 2; i < args.length; i++)
+				if (args[i].equals("-stream"))
+					stream = true;
+				else if (args[i].equals("-gzip"))
+					gzip = true;
+				else if (args[i].equals("-dump-function") && i + 1 < args.length) {
+					selective = true;
+					filter = filter.withFunction(args[++i]);
+				} else if (args[i].equals("-dump-warnings")) {
+					selective = true;
+					filter = filter.withWarningsOnly();
+				} else if (args[i].equals("-dump-entry-exit")) {
+					selective = true;
+					filter = filter.withEntryExitOnly();
+				} else if (args[i].equals("-dump-binary")) {
+					selective = true;
+					binary = true;
+				} else if (args[i].equals("-cache") && i + 1 < args.length)
+					cache = args[++i];
+				else if (args[i].equals("-frontend-threads") && i + 1 < args.length)
+					GoFrontEnd.setParallelism(Integer.parseInt(args[++i]));
+				else if (args[i].equals("-summarize-arrays") && i + 1 < args.length)
+					GoArrayType.setSummarizationThreshold(Integer.parseInt(args[++i]));
+				else if (args[i].equals("-field-insensitive-structs") && i + 1 < args.length)
+					GoStructType.setFieldSensitivityThreshold(Integer.parseInt(args[++i]));
+				else if (args[i].equals("-pack-variables"))
+					VariablePacking.setEnabled(true);
+				else if (args[i].equals("-allocation-sites") && i + 1 < args.length)
+					try {
+						AllocationSites.setPolicy(AllocationSitePolicy.of(args[++i]));
+					} catch (IllegalArgumentException e) {
+						System.err.println("Unknown allocation site policy " + args[i] + ". Exiting.");
+						return;
+					}
+				else if (args[i].equals("-fixpoint") && i + 1 < args.length)
+					try {
+						strategy = FixpointStrategy.of(args[++i]);
+					} catch (IllegalArgumentException e) {
+						System.err.println("Unknown fixpoint strategy " + args[i] + ". Exiting.");
+						return;
+					}
+				else if (args[i].equals("-profile"))
+					profile = true;
+				else if (args[i].startsWith("-budget-") && i + 1 < args.length) {
+					long value = Long.parseLong(args[++i]);
+					switch (args[i - 1]) {
+					case "-budget-cfg-ms":
+						budget[0] = value;
+						break;
+					case "-budget-cfg-steps":
+						budget[1] = value;
+						break;
+					case "-budget-state-size":
+						budget[2] = value;
+						break;
+					case "-budget-total-ms":
+						budget[3] = value;
+						break;
+					default:
+						System.err.println("Unknown budget " + args[i - 1] + ". Exiting.");
+						return;
+					}
+				}
+				else if (args[i].equals("-metrics") && i + 1 < args.length)
+					metrics = args[++i];
+				else if (args[i].equals("-tarsis") || args[i].equals("-rsubs"))
+					domain = args[i];
+				else {
+					System.err.println("Unknown option " + args[i] + ", or missing value. Exiting.");
+					System.err.println(USAGE);
+					return;
+				}
+		} catch (NumberFormatException e) {
+			System.err.println("Invalid number: " + e.getMessage() + ". Exiting.");
+			System.err.println(USAGE);
+			return;
+		}
+
+		if (stream && selective) {
+			System.err.println("Selective dumps are not available when streaming the results. Exiting.");
+			return;
+		}
+
+		if (metrics != null && !metrics.equals("json") && !metrics.equals("prometheus")) {
+			System.err.println("Metrics can be exported either as json or as prometheus. Exiting.");
+			return;
+		}
+
+		Metrics.reset();
+		AnalysisBudget analysisBudget = null;
+		if (budget[0] > 0 || budget[1] > 0 || budget[2] > 0 || budget[3] > 0)
+			analysisBudget = new AnalysisBudget(budget[0], budget[1], budget[2], budget[3]);
+		AnalysisBudget.install(analysisBudget);
+		if (profile)
+			StatementProfiler.getInstance().clear();
+
+		if (cache != null)
+			try {
+				GoFrontEnd.setTokenCache(new TokenCache(Paths.get(cache)));
+			} catch (IOException e) {
+				System.err.println("Unable to use the cache directory " + cache + ": " + e.getMessage());
+			}
+
 		Program program = null;
 
 		File theDir = new File(outputDir);
@@ -61,19 +224,153 @@ public class GoLiSA {
 			return;
 		}
 
-		LiSAConfiguration conf = new LiSAConfiguration();
-		
-		LiSA lisa = new LiSA(conf);
-		conf.setWorkdir(outputDir).setInferTypes(true)
-			.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), args.length < 3 || args[2].equals("-tarsis") ? new Tarsis() : new RelTarsis()))
-			.setDumpAnalysis(true);
-
+		LiSAConfiguration conf = configuration(outputDir, domain, profile, analysisBudget != null);
+		StreamingJsonReport report = null;
 		try {
-			lisa.run(program);
+			if (stream) {
+				// results are streamed to disk cfg by cfg instead of being dumped at the end:
+				// they are not retained, so no semantic check can be run on them
+				report = new StreamingJsonReport(Paths.get(outputDir), gzip);
+				conf.setDumpAnalysis(false).setInterproceduralAnalysis(new ModularWorstCaseWithNativeCalls<>(report, strategy));
+			}
+
+			ModularWorstCaseWithNativeCalls<?, ?, ?> interproc = null;
+			if (selective) {
+				// states are dumped after the analysis, only for the selected cfgs and nodes
+				interproc = new ModularWorstCaseWithNativeCalls<>(strategy);
+				conf.setDumpAnalysis(false).setJsonOutput(true).setInterproceduralAnalysis(interproc);
+			} else if ((metrics != null || analysisBudget != null || strategy != FixpointStrategy.STATEMENTS) && !stream)
+				// per-cfg metrics, budgets and fixpoint strategies are handled by the go interprocedural analysis
+				conf.setInterproceduralAnalysis(new ModularWorstCaseWithNativeCalls<>(strategy));
+
+			LiSA lisa = new LiSA(conf);
+			try (Measure m = Metrics.current().phase("analysis")) {
+				lisa.run(program);
+			}
+
+			if (selective)
+				try (Measure m = Metrics.current().phase("dump")) {
+					dumpStates(program, interproc, filter, Paths.get(outputDir), binary);
+				}
 		} catch (Exception e) {
 			// an error occurred during the analysis
 			e.printStackTrace();
 			return;
-		} 
+		} finally {
+			if (report != null)
+				try (Measure m = Metrics.current().phase("report")) {
+					report.close();
+				} catch (IOException e) {
+					System.err.println("Unable to write the report: " + e.getMessage());
+				}
+
+			if (metrics != null)
+				writeMetrics(Paths.get(outputDir), metrics);
+
+			if (analysisBudget != null)
+				try {
+					analysisBudget.writeReport(Paths.get(outputDir, "budget.json"));
+				} catch (IOException e) {
+					System.err.println("Unable to write the budget report: " + e.getMessage());
+				}
+
+			if (profile)
+				try {
+					StatementProfiler.getInstance().write(Paths.get(outputDir, "profile.collapsed"));
+				} catch (IOException e) {
+					System.err.println("Unable to write the profile: " + e.getMessage());
+				}
+		}
+	}
+
+	private static void writeMetrics(Path outputDir, String format) {
+		try {
+			if (format.equals("json"))
+				Metrics.current().writeJson(outputDir.resolve("metrics.json"));
+			else
+				Metrics.current().writePrometheus(outputDir.resolve("metrics.prom"));
+		} catch (IOException e) {
+			System.err.println("Unable to write the metrics: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Builds the LiSA configuration used to analyse a Go program.
+	 * 
+	 * @param outputDir the directory where the results are dumped
+	 * @param domain    the domain flag ({@code -tarsis} selects Tarsis, anything
+	 *                      else RelTarsis)
+	 * 
+	 * @return the configuration
+	 * 
+	 * @throws AnalysisSetupException if the abstract state cannot be built
+	 */
+	static LiSAConfiguration configuration(String outputDir, String domain) throws AnalysisSetupException {
+		return configuration(outputDir, domain, false, false);
+	}
+
+	/**
+	 * Builds the LiSA configuration used to analyse a Go program.
+	 * 
+	 * @param outputDir the directory where the results are dumped
+	 * @param domain    the domain flag ({@code -tarsis} selects Tarsis, anything
+	 *                      else RelTarsis)
+	 * @param profile   whether the domain is wrapped in a {@link ProfiledDomain}
+	 * @param budgeted  whether the domain is wrapped in a {@link BudgetedDomain}
+	 * 
+	 * @return the configuration
+	 * 
+	 * @throws AnalysisSetupException if the abstract state cannot be built
+	 */
+	static LiSAConfiguration configuration(String outputDir, String domain, boolean profile, boolean budgeted) throws AnalysisSetupException {
+		Object value;
+		if (!profile && !budgeted)
+			value = domain.equals("-tarsis") ? new Tarsis() : new RelTarsis();
+		else if (domain.equals("-tarsis"))
+			value = wrap(new ValueEnvironment<>(new Tarsis()), profile, budgeted);
+		else
+			value = wrap(new RelTarsis(), profile, budgeted);
+
+		LiSAConfiguration conf = new LiSAConfiguration();
+		conf.setWorkdir(outputDir).setInferTypes(true)
+			.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), value))
+			.setDumpAnalysis(true);
+		return conf;
+	}
+
+	private static <V extends ValueDomain<V>> ValueDomain<?> wrap(V domain, boolean profile, boolean budgeted) {
+		// the budget is checked outside of the profiled time
+		if (profile && budgeted)
+			return new BudgetedDomain<>(new ProfiledDomain<>(domain));
+		if (profile)
+			return new ProfiledDomain<>(domain);
+		return new BudgetedDomain<>(domain);
+	}
+
+	private static void dumpStates(Program program, ModularWorstCaseWithNativeCalls<?, ?, ?> interproc,
+			DumpFilter filter, Path outputDir, boolean binary) throws IOException {
+		filter.setWarnings(DumpFilter.readWarnings(outputDir.resolve("report.json")));
+
+		Path dumps = outputDir.resolve("dumps");
+		for (CFG cfg : program.getAllCFGs())
+			for (CFGWithAnalysisResults<?, ?, ?> result : interproc.getAnalysisResultsOf(cfg))
+				StateDump.write(result, filter, dumps);
+
+		if (!binary && Files.exists(dumps))
+			StateDump.render(dumps, outputDir);
+	}
+
+	private static void render(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: GoLiSA -render <dump-dir> <outdir>");
+			return;
+		}
+
+		try {
+			int rendered = StateDump.render(Paths.get(args[0]), Paths.get(args[1]));
+			System.out.println("Rendered " + rendered + " state dumps to " + args[1]);
+		} catch (IOException e) {
+			System.err.println("Unable to render the state dumps: " + e.getMessage());
+		}
 	}
 }
@@ -0,0 +1,397 @@
+package it.unive.golisa.cli;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import it.unive.golisa.antlr.GoParser.SourceFileContext;
+import it.unive.golisa.cfg.runtime.RuntimeModels;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.program.Program;
+
+/**
+ * Server mode of GoLiSA: a long-running process, listening on a localhost TCP
+ * port, that analyses Go files on request. Keeping the JVM warm avoids paying
+ * the start-up of the JVM and of LiSA at each analysis, and parse trees of
+ * unchanged files are cached between requests. The models of the runtime
+ * packages are built once at start-up, so that their classes are already
+ * loaded when the first program imports them. Usage:
+ *
+ * <pre>
+ * GoLiSA -server [port] [cache-size] [-root dir] [-token secret]
+ * </pre>
+ *
+ * The protocol is line-based: each request is a JSON object on a single line,
+ * and each response is a JSON object on a single line. Supported requests:
+ * <ul>
+ * <li>{@code {"command":"analyze","file":"<path>","output":"<dir>","domain":"-tarsis","dump":false}}
+ * analyses a file ({@code domain} is optional, and it is interpreted as the
+ * domain flag of {@link GoLiSA}); the results are dumped in {@code output}
+ * only if the optional {@code dump} flag is {@code true}, since dumping every
+ * state of a program usually costs more than analysing it</li>
+ * <li>{@code {"command":"ping"}} checks that the server is alive</li>
+ * <li>{@code {"command":"invalidate"}} empties the parse cache</li>
+ * <li>{@code {"command":"shutdown"}} stops the server</li>
+ * </ul>
+ * Responses always carry a {@code status} field, either {@code ok} or
+ * {@code error} (the latter with a {@code message}); malformed requests get
+ * an error response, and the connection stays open.<br>
+ * <br>
+ * Trust model: the server listens on the loopback interface only, and it
+ * reads and writes files with the permissions of its own process. Paths of
+ * requests are resolved against a root directory (the working directory of
+ * the server, unless {@code -root} is given), and requests reading or writing
+ * outside of it, also through symbolic links, are rejected. Since any local
+ * user can connect, a server running on a shared machine should also be
+ * given a {@code -token}: requests must then carry it in their {@code token}
+ * field.
+ */
+public class GoLiSAServer {
+
+	private static final Logger log = LogManager.getLogger(GoLiSAServer.class);
+
+	/**
+	 * The default port of the server.
+	 */
+	public static final int DEFAULT_PORT = 7878;
+
+	/**
+	 * The default number of parse trees kept in the cache.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 64;
+
+	private final Gson gson = new Gson();
+
+	private final int port;
+
+	private final Map<String, CachedTree> cache;
+
+	private final Path root;
+
+	private final String token;
+
+	private volatile boolean running;
+
+	private volatile ServerSocket socket;
+
+	/**
+	 * Builds the server, confined to its working directory and with no
+	 * token.
+	 *
+	 * @param port      the localhost port to listen on
+	 * @param cacheSize the maximum number of parse trees kept in the cache
+	 *
+	 * @throws IOException if the working directory cannot be resolved
+	 */
+	public GoLiSAServer(int port, int cacheSize) throws IOException {
+		this(port, cacheSize, Paths.get(""), null);
+	}
+
+	/**
+	 * Builds the server.
+	 *
+	 * @param port      the localhost port to listen on
+	 * @param cacheSize the maximum number of parse trees kept in the cache
+	 * @param root      the directory that requests can read and write
+	 * @param token     the token that requests must carry, or {@code null} if
+	 *                      requests do not need one
+	 *
+	 * @throws IOException if the root directory cannot be resolved
+	 */
+	public GoLiSAServer(int port, int cacheSize, Path root, String token) throws IOException {
+		this.port = port;
+		this.root = root.toRealPath();
+		this.token = token;
+		this.cache = new LinkedHashMap<String, CachedTree>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedTree> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	public static void main(String[] args) {
+		int port = DEFAULT_PORT;
+		int cacheSize = DEFAULT_CACHE_SIZE;
+		Path root = Paths.get("");
+		String token = null;
+		try {
+			for (int i = 0, positional = 0; i < args.length; i++)
+				if (args[i].equals("-root") && i + 1 < args.length)
+					root = Paths.get(args[++i]);
+				else if (args[i].equals("-token") && i + 1 < args.length)
+					token = args[++i];
+				else if (positional == 0 && !args[i].startsWith("-")) {
+					port = Integer.parseInt(args[i]);
+					positional++;
+				} else if (positional == 1 && !args[i].startsWith("-")) {
+					cacheSize = Integer.parseInt(args[i]);
+					positional++;
+				} else
+					throw new IllegalArgumentException("Unknown argument " + args[i]);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: GoLiSA -server [port] [cache-size] [-root dir] [-token secret]");
+			return;
+		}
+
+		try {
+			new GoLiSAServer(port, cacheSize, root, token).serve();
+		} catch (IOException e) {
+			System.err.println("Cannot start the server on port " + port + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Accepts connections until a {@code shutdown} request is received. Each
+	 * connection is served by its own thread, while analyses are executed one
+	 * at a time.
+	 *
+	 * @throws IOException if the server socket cannot be opened
+	 */
+	public void serve() throws IOException {
+		RuntimeModels.warmUp();
+
+		ExecutorService clients = Executors.newCachedThreadPool();
+		try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			socket = server;
+			running = true;
+			log.info("GoLiSA server listening on {}", server.getLocalSocketAddress());
+			while (running)
+				try {
+					Socket client = server.accept();
+					clients.submit(() -> serve(client));
+				} catch (IOException e) {
+					if (running)
+						log.warn("Cannot accept a connection: {}", e.getMessage());
+				}
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+	/**
+	 * Yields the port the server is listening on, that is the one chosen by
+	 * the system if the server has been built with port {@code 0}.
+	 *
+	 * @return the port, or {@code -1} if the server is not listening yet
+	 */
+	public int getLocalPort() {
+		ServerSocket server = socket;
+		return server == null ? -1 : server.getLocalPort();
+	}
+
+	private void serve(Socket client) {
+		try (Socket c = client;
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(c.getInputStream(), StandardCharsets.UTF_8));
+				BufferedWriter out = new BufferedWriter(
+						new OutputStreamWriter(c.getOutputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while (running && (line = in.readLine()) != null) {
+				if (line.trim().isEmpty())
+					continue;
+				JsonObject response;
+				try {
+					response = handle(line);
+				} catch (RuntimeException e) {
+					log.warn("Cannot handle request {}", line, e);
+					response = error("Internal error: " + e);
+				}
+				out.write(gson.toJson(response));
+				out.newLine();
+				out.flush();
+			}
+		} catch (IOException e) {
+			log.warn("Connection closed: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Handles a single request.
+	 *
+	 * @param request the request, as a JSON object
+	 *
+	 * @return the response
+	 */
+	JsonObject handle(String request) {
+		JsonObject req;
+		try {
+			req = gson.fromJson(request, JsonObject.class);
+		} catch (JsonParseException | ClassCastException e) {
+			return error("Malformed request: " + e.getMessage());
+		}
+
+		if (req == null)
+			return error("Malformed request: a JSON object is expected");
+
+		if (token != null && !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+				String.valueOf(string(req, "token")).getBytes(StandardCharsets.UTF_8)))
+			return error("Missing or wrong token");
+
+		String command = string(req, "command");
+		if (command == null)
+			return error("Missing command, or command is not a string");
+
+		switch (command) {
+		case "ping":
+			return ok();
+		case "invalidate":
+			synchronized (cache) {
+				cache.clear();
+			}
+			return ok();
+		case "shutdown":
+			running = false;
+			if (socket != null)
+				try {
+					socket.close();
+				} catch (IOException e) {
+					// nothing to do, the server is stopping anyway
+				}
+			return ok();
+		case "analyze":
+			String file = string(req, "file");
+			String output = string(req, "output");
+			String domain = req.has("domain") ? string(req, "domain") : "-tarsis";
+			JsonElement dump = req.get("dump");
+			if (file == null || output == null || domain == null)
+				return error("The analyze command requires a file and an output, and an optional domain, as strings");
+			if (dump != null && (!dump.isJsonPrimitive() || !dump.getAsJsonPrimitive().isBoolean()))
+				return error("The dump flag of the analyze command must be a boolean");
+			return analyze(file, output, domain, dump != null && dump.getAsBoolean());
+		default:
+			return error("Unknown command " + command);
+		}
+	}
+
+	/**
+	 * Yields the string value of a field of a request.
+	 *
+	 * @return the value, or {@code null} if the field is missing or it is not
+	 *             a string
+	 */
+	private static String string(JsonObject req, String field) {
+		JsonElement value = req.get(field);
+		if (value == null || !value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString())
+			return null;
+		return value.getAsString();
+	}
+
+	/**
+	 * Resolves {@code path} against the root of the server, following
+	 * symbolic links of its existing prefix.
+	 *
+	 * @return the resolved path, or {@code null} if it is outside of the root
+	 */
+	private Path confine(String path) throws IOException {
+		Path resolved = root.resolve(path).normalize();
+		Path existing = resolved;
+		while (existing != null && !Files.exists(existing))
+			existing = existing.getParent();
+		if (existing != null)
+			resolved = existing.toRealPath().resolve(existing.relativize(resolved));
+		return resolved.startsWith(root) ? resolved : null;
+	}
+
+	private synchronized JsonObject analyze(String filePath, String outputDir, String domain, boolean dump) {
+		long start = System.nanoTime();
+		try {
+			Path source = confine(filePath);
+			Path output = confine(outputDir);
+			if (source == null || output == null)
+				return error("Paths must be below " + root);
+
+			File file = source.toFile();
+			if (!file.isFile())
+				return error("File " + filePath + " does not exist");
+
+			boolean hit = true;
+			String key = file.getCanonicalPath();
+			CachedTree cached;
+			synchronized (cache) {
+				cached = cache.get(key);
+			}
+
+			if (cached == null || cached.lastModified != file.lastModified() || cached.length != file.length()) {
+				hit = false;
+				cached = new CachedTree(file.lastModified(), file.length(), GoFrontEnd.parse(file.getPath()));
+				synchronized (cache) {
+					cache.put(key, cached);
+				}
+			}
+
+			Program program = GoFrontEnd.processParseTree(file.getPath(), cached.tree);
+
+			Files.createDirectories(output);
+			new LiSA(GoLiSA.configuration(output.toString(), domain).setDumpAnalysis(dump)).run(program);
+
+			JsonObject response = ok();
+			response.addProperty("file", filePath);
+			response.addProperty("output", outputDir);
+			response.addProperty("cached", hit);
+			response.addProperty("millis", (System.nanoTime() - start) / 1_000_000);
+			return response;
+		} catch (ParseCancellationException e) {
+			return error("Parsing error in " + filePath);
+		} catch (Exception | StackOverflowError e) {
+			log.warn("Analysis of {} failed", filePath, e);
+			return error(e.toString());
+		}
+	}
+
+	private static JsonObject ok() {
+		JsonObject response = new JsonObject();
+		response.addProperty("status", "ok");
+		return response;
+	}
+
+	private static JsonObject error(String message) {
+		JsonObject response = new JsonObject();
+		response.addProperty("status", "error");
+		response.addProperty("message", message);
+		return response;
+	}
+
+	private static class CachedTree {
+
+		private final long lastModified;
+
+		private final long length;
+
+		private final SourceFileContext tree;
+
+		private CachedTree(long lastModified, long length, SourceFileContext tree) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.tree = tree;
+		}
+	}
+}
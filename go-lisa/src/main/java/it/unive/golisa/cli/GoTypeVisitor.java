@@ -2,6 +2,7 @@ package it.unive.golisa.cli;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -31,6 +32,7 @@ import it.unive.golisa.antlr.GoParser.Type_Context;
 import it.unive.golisa.antlr.GoParserBaseVisitor;
 import it.unive.golisa.cfg.type.GoBoolType;
 import it.unive.golisa.cfg.type.GoQualifiedType;
+import it.unive.golisa.cfg.type.GoStringBufferType;
 import it.unive.golisa.cfg.type.GoStringType;
 import it.unive.golisa.cfg.type.GoType;
 import it.unive.golisa.cfg.type.composite.GoAliasType;
@@ -73,10 +75,32 @@ public class GoTypeVisitor extends GoParserBaseVisitor<Object> {
 
 	protected final Program program;
 
+	/**
+	 * The sink of the updates of {@link #unit} (fields of struct types and
+	 * method specifications of interface types).
+	 */
+	private final Consumer<Runnable> unitUpdates;
+
 	public GoTypeVisitor(String file, CompilationUnit unit, Program program) {
+		this(file, unit, program, Runnable::run);
+	}
+
+	/**
+	 * Builds a type visitor that does not update {@code unit} directly, but
+	 * hands each update to {@code unitUpdates}. Visitors running on the
+	 * workers of the front-end use this to defer the updates of shared units,
+	 * that are not thread-safe, to the sequential registration phase.
+	 * 
+	 * @param file        the file being visited
+	 * @param unit        the unit the visited types belong to
+	 * @param program     the program being built
+	 * @param unitUpdates the sink of the updates of {@code unit}
+	 */
+	public GoTypeVisitor(String file, CompilationUnit unit, Program program, Consumer<Runnable> unitUpdates) {
 		this.file = file;
 		this.unit = unit;
 		this.program = program;
+		this.unitUpdates = unitUpdates;
 	}
 
 	/**
@@ -137,8 +161,7 @@ public class GoTypeVisitor extends GoParserBaseVisitor<Object> {
 			} 
 		} 
 
-		Pair<String, String> pair = visitQualifiedIdent(ctx.qualifiedIdent());
-		return GoQualifiedType.lookup(new GoQualifiedType(pair.getLeft(), pair.getRight()));
+		return qualifiedType(visitQualifiedIdent(ctx.qualifiedIdent()));
 	}
 
 	@Override
@@ -166,10 +189,16 @@ public class GoTypeVisitor extends GoParserBaseVisitor<Object> {
 	public GoType visitTypeName(TypeNameContext ctx) {
 		if (ctx.IDENTIFIER() != null)
 			return getGoType(ctx);
-		else {
-			Pair<String, String> pair = visitQualifiedIdent(ctx.qualifiedIdent());
-			return GoQualifiedType.lookup(new GoQualifiedType(pair.getLeft(), pair.getRight()));
-		}
+		else
+			return qualifiedType(visitQualifiedIdent(ctx.qualifiedIdent()));
+	}
+
+	private GoType qualifiedType(Pair<String, String> pair) {
+		// the buffers of the imported runtime packages have methods
+		GoStringBufferType buffer = GoStringBufferType.get(pair.getLeft() + "." + pair.getRight());
+		if (buffer != null)
+			return buffer;
+		return GoQualifiedType.lookup(new GoQualifiedType(pair.getLeft(), pair.getRight()));
 	}
 
 	@Override
@@ -285,8 +314,10 @@ public class GoTypeVisitor extends GoParserBaseVisitor<Object> {
 	@Override
 	public GoStructType visitStructType(StructTypeContext ctx) {		
 		for (FieldDeclContext field : ctx.fieldDecl()) 
-			for (Pair<String, Type> fd : visitFieldDecl(field))
-				unit.addInstanceGlobal(new Global(new SourceCodeLocation(file, getLine(field), getCol(field)), fd.getLeft(), fd.getRight()));
+			for (Pair<String, Type> fd : visitFieldDecl(field)) {
+				Global global = new Global(new SourceCodeLocation(file, getLine(field), getCol(field)), fd.getLeft(), fd.getRight());
+				unitUpdates.accept(() -> unit.addInstanceGlobal(global));
+			}
 
 		return GoStructType.lookup(unit.getName(), unit);
 	}
@@ -298,8 +329,10 @@ public class GoTypeVisitor extends GoParserBaseVisitor<Object> {
 		if (ctx.methodSpec().size() == 0)	
 			return GoInterfaceType.getEmptyInterface();
 		
-		for (MethodSpecContext methodSpec : ctx.methodSpec()) 
-			unit.addInstanceCFG(new CFG(visitMethodSpec(methodSpec)));
+		for (MethodSpecContext methodSpec : ctx.methodSpec()) {
+			CFG spec = new CFG(visitMethodSpec(methodSpec));
+			unitUpdates.accept(() -> unit.addInstanceCFG(spec));
+		}
 		return GoInterfaceType.lookup(unit.getName(), unit);
 	}
 
@@ -0,0 +1,198 @@
+package it.unive.golisa.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import it.unive.golisa.antlr.GoLexer;
+
+/**
+ * An on-disk cache of the token streams produced by the {@link GoFrontEnd}
+ * lexer, keyed by the hash of the content of the lexed file and by the
+ * fingerprint of the lexer grammar. Tokens (of all channels, since the parser
+ * inspects hidden ones to detect statement ends) are stored in a compact,
+ * gzipped binary format, so that unchanged files are neither decoded nor
+ * lexed again. The gain is measured by {@code TokenCacheBenchmark} (run
+ * with {@code gradle jmh}).
+ */
+public class TokenCache {
+
+	private static final Logger log = LogManager.getLogger(TokenCache.class);
+
+	private static final int MAGIC = 0x47544332; // GTC2
+
+	/**
+	 * The fingerprint of the lexer, part of each key so that entries produced
+	 * by a different grammar are never reused: it is the hash of the
+	 * serialized automaton and of the vocabulary of {@link GoLexer}, that
+	 * change whenever the grammar does, regardless of the version of the jar.
+	 */
+	public static final String LEXER = lexerFingerprint();
+
+	private final Path directory;
+
+	/**
+	 * Builds the cache.
+	 *
+	 * @param directory the directory where the entries are stored
+	 *
+	 * @throws IOException if the directory cannot be created
+	 */
+	public TokenCache(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory);
+	}
+
+	private static String lexerFingerprint() {
+		MessageDigest digest = sha256();
+		digest.update(GoLexer._serializedATN.getBytes(StandardCharsets.UTF_8));
+		for (int type = 0; type <= GoLexer.VOCABULARY.getMaxTokenType(); type++) {
+			String name = GoLexer.VOCABULARY.getSymbolicName(type);
+			digest.update((name == null ? "" : name).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		return hex(digest.digest());
+	}
+
+	/**
+	 * Yields the key of a file content, reading the remaining bytes of
+	 * {@code content} (e.g., a memory-mapped file).
+	 *
+	 * @param content the content of the file
+	 *
+	 * @return the key
+	 */
+	public static String key(ByteBuffer content) {
+		MessageDigest digest = sha256();
+		digest.update(LEXER.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(content);
+		return hex(digest.digest());
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every jvm must support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String hex(byte[] hash) {
+		StringBuilder sb = new StringBuilder(hash.length * 2);
+		for (byte b : hash)
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+
+	/**
+	 * Yields the tokens cached with {@code key}.
+	 *
+	 * @param key the key
+	 *
+	 * @return the tokens, or {@code null} if there is no valid entry for
+	 *             {@code key}
+	 */
+	public List<Token> get(String key) {
+		Path file = directory.resolve(key + ".tok");
+		if (!Files.exists(file))
+			return null;
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+			if (in.readInt() != MAGIC)
+				return null;
+
+			int size = in.readInt();
+			List<Token> tokens = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				CommonToken token = new CommonToken(in.readInt());
+				token.setChannel(in.readInt());
+				token.setLine(in.readInt());
+				token.setCharPositionInLine(in.readInt());
+				token.setStartIndex(in.readInt());
+				token.setStopIndex(in.readInt());
+				token.setTokenIndex(i);
+				token.setText(in.readBoolean() ? readText(in) : null);
+				tokens.add(token);
+			}
+			return tokens;
+		} catch (IOException e) {
+			log.warn("Ignoring the corrupted cache entry {}: {}", file, e.getMessage());
+			return null;
+		}
+	}
+
+	// writeUTF is limited to 64KB, that long raw strings can exceed
+	private static void writeText(DataOutputStream out, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readText(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Stores {@code tokens} with {@code key}. Failures are logged and
+	 * otherwise ignored, since the cache is just an optimization.
+	 *
+	 * @param key    the key
+	 * @param tokens the tokens
+	 */
+	public void put(String key, List<Token> tokens) {
+		Path file = directory.resolve(key + ".tok");
+		Path tmp = null;
+		try {
+			// written aside and then moved, so that concurrent runs never read
+			// a partial entry
+			tmp = Files.createTempFile(directory, key, ".tmp");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+				out.writeInt(MAGIC);
+				out.writeInt(tokens.size());
+				for (Token token : tokens) {
+					out.writeInt(token.getType());
+					out.writeInt(token.getChannel());
+					out.writeInt(token.getLine());
+					out.writeInt(token.getCharPositionInLine());
+					out.writeInt(token.getStartIndex());
+					out.writeInt(token.getStopIndex());
+					out.writeBoolean(token.getText() != null);
+					if (token.getText() != null)
+						writeText(out, token.getText());
+				}
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("Unable to write the cache entry {}: {}", file, e.getMessage());
+			if (tmp != null)
+				try {
+					Files.deleteIfExists(tmp);
+				} catch (IOException e1) {
+					// nothing else to do
+				}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package it.unive.golisa.logging;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A replacement of LiSA's {@code IterationLogger} that samples its progress
+ * reports. When the logger is not enabled for {@link Level#INFO}, the
+ * iterated collection is returned as-is, and no object is allocated. Otherwise,
+ * progress is reported at most once every {@link #INTERVAL_MILLIS}
+ * milliseconds, so that logging cannot slow down the iteration whatever the
+ * number of elements.
+ */
+public class SampledProgress {
+
+	/**
+	 * The minimum interval between two progress reports, in milliseconds.
+	 */
+	public static final long INTERVAL_MILLIS = 2000;
+
+	private SampledProgress() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields an {@link Iterable} over {@code items} that logs the progress of
+	 * the iteration.
+	 *
+	 * @param <E>     the type of the items
+	 * @param log     the logger to use
+	 * @param items   the items to iterate over
+	 * @param message the message logged when the iteration starts
+	 * @param objects the name of the iterated objects, used in the progress
+	 *                    reports
+	 *
+	 * @return the iterable
+	 */
+	public static <E> Iterable<E> iterate(Logger log, Collection<E> items, String message, String objects) {
+		if (!log.isInfoEnabled())
+			return items;
+
+		return () -> new ProgressIterator<>(log, items.iterator(), items.size(), message, objects);
+	}
+
+	private static class ProgressIterator<E> implements Iterator<E> {
+
+		private final Logger log;
+
+		private final Iterator<E> iterator;
+
+		private final int total;
+
+		private final String objects;
+
+		private final long start;
+
+		private long lastReport;
+
+		private int done;
+
+		private boolean finished;
+
+		private ProgressIterator(Logger log, Iterator<E> iterator, int total, String message, String objects) {
+			this.log = log;
+			this.iterator = iterator;
+			this.total = total;
+			this.objects = objects;
+			this.start = System.currentTimeMillis();
+			this.lastReport = start;
+			log.info(message);
+		}
+
+		@Override
+		public boolean hasNext() {
+			boolean next = iterator.hasNext();
+			if (!next && !finished) {
+				finished = true;
+				log.info("{}: {}/{} done in {}ms", objects, done, total, System.currentTimeMillis() - start);
+			}
+			return next;
+		}
+
+		@Override
+		public E next() {
+			E result = iterator.next();
+			done++;
+			long now = System.currentTimeMillis();
+			if (now - lastReport >= INTERVAL_MILLIS) {
+				lastReport = now;
+				log.info("{}: {}/{} ({}%)", objects, done, total, total == 0 ? 100 : done * 100 / total);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,372 @@
+package it.unive.golisa.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Wall time, cpu time and allocated bytes spent in each phase of a GoLiSA run
+ * (lexing, parsing, cfg construction, analysis, fixpoint, dumps) and in the
+ * fixpoint over each cfg. Metrics are collected per thread: each thread
+ * records into its own {@link #current()} instance, so that concurrent runs
+ * (e.g., in batch mode) do not mix their samples. Workers running part of a
+ * phase on behalf of another thread (e.g., the fork-join workers building
+ * cfgs) {@link #install(Metrics)} the metrics of that thread, and charge the
+ * cpu time and the bytes they allocate to the phase through
+ * {@link #work(String)}. Collected metrics can be exported as json or in the
+ * Prometheus text format.
+ */
+public class Metrics {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private static final ThreadLocal<Metrics> CURRENT = ThreadLocal.withInitial(Metrics::new);
+
+	private final Map<String, Sample> phases = new LinkedHashMap<>();
+
+	private final Map<String, Sample> cfgs = new LinkedHashMap<>();
+
+	private final Map<String, Long> counters = new LinkedHashMap<>();
+
+	/**
+	 * The counter of the bytes of source code that have been lexed.
+	 */
+	public static final String LEXED_BYTES = "lexed_bytes";
+
+	/**
+	 * The counter of the nanoseconds spent by the lexer, excluding the time
+	 * spent reading the files and loading cached tokens.
+	 */
+	public static final String LEXER_NANOS = "lexer_nanos";
+
+	/**
+	 * Yields the metrics collected by the current thread.
+	 *
+	 * @return the metrics
+	 */
+	public static Metrics current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Installs {@code metrics} as the ones the current thread records into.
+	 *
+	 * @param metrics the metrics, or {@code null} to go back to the ones of
+	 *                    the current thread
+	 */
+	public static void install(Metrics metrics) {
+		if (metrics == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(metrics);
+	}
+
+	/**
+	 * Discards the metrics collected by the current thread, starting a new
+	 * collection.
+	 *
+	 * @return the new, empty metrics
+	 */
+	public static Metrics reset() {
+		CURRENT.remove();
+		return current();
+	}
+
+	/**
+	 * Starts measuring a phase. The measurement ends when the returned
+	 * {@link Measure} is closed, and it is added to the ones of the same
+	 * phase.
+	 *
+	 * @param phase the name of the phase
+	 *
+	 * @return the measurement
+	 */
+	public Measure phase(String phase) {
+		return new Measure(phases, phase, false);
+	}
+
+	/**
+	 * Starts measuring the work done by the current thread on behalf of a
+	 * phase measured by another thread, that waits for it. When the returned
+	 * {@link Measure} is closed, the cpu time and the bytes allocated by the
+	 * current thread are added to the ones of the phase, while its wall time
+	 * and number of measurements are left untouched, since they are measured
+	 * by the waiting thread.
+	 *
+	 * @param phase the name of the phase
+	 *
+	 * @return the measurement
+	 */
+	public Measure work(String phase) {
+		return new Measure(phases, phase, true);
+	}
+
+	/**
+	 * Starts measuring the fixpoint over a cfg. The measurement ends when the
+	 * returned {@link Measure} is closed.
+	 *
+	 * @param cfg the signature of the cfg
+	 *
+	 * @return the measurement
+	 */
+	public Measure cfg(String cfg) {
+		return new Measure(cfgs, cfg, false);
+	}
+
+	/**
+	 * Adds {@code amount} to a counter.
+	 *
+	 * @param counter the name of the counter
+	 * @param amount  the amount to add
+	 */
+	public synchronized void count(String counter, long amount) {
+		counters.merge(counter, amount, Long::sum);
+	}
+
+	/**
+	 * Yields the value of a counter.
+	 *
+	 * @param counter the name of the counter
+	 *
+	 * @return the value, {@code 0} if nothing has been counted
+	 */
+	public synchronized long getCounter(String counter) {
+		return counters.getOrDefault(counter, 0L);
+	}
+
+	/**
+	 * Yields the throughput of the lexer, in bytes per second.
+	 *
+	 * @return the throughput, {@code 0} if nothing has been lexed
+	 */
+	public synchronized double getLexingThroughput() {
+		long nanos = getCounter(LEXER_NANOS);
+		return nanos == 0 ? 0 : getCounter(LEXED_BYTES) * 1e9 / nanos;
+	}
+
+	/**
+	 * Yields the samples collected for each phase.
+	 *
+	 * @return the samples, indexed by phase
+	 */
+	public synchronized Map<String, Sample> getPhases() {
+		return new LinkedHashMap<>(phases);
+	}
+
+	/**
+	 * Yields the samples collected for each cfg.
+	 *
+	 * @return the samples, indexed by cfg signature
+	 */
+	public synchronized Map<String, Sample> getCfgs() {
+		return new LinkedHashMap<>(cfgs);
+	}
+
+	/**
+	 * Writes these metrics in json format.
+	 *
+	 * @param file the file to write
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized void writeJson(Path file) throws IOException {
+		try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			writer.setIndent("  ");
+			writer.beginObject();
+			writer.name("phases");
+			writeJson(writer, phases);
+			writer.name("cfgs");
+			writeJson(writer, cfgs);
+			writer.name("counters").beginObject();
+			for (Map.Entry<String, Long> entry : counters.entrySet())
+				writer.name(entry.getKey()).value(entry.getValue());
+			writer.endObject();
+			writer.name("lexedBytesPerSecond").value(getLexingThroughput());
+			writer.endObject();
+		}
+	}
+
+	private static void writeJson(JsonWriter writer, Map<String, Sample> samples) throws IOException {
+		writer.beginObject();
+		for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+			Sample sample = entry.getValue();
+			writer.name(entry.getKey()).beginObject();
+			writer.name("count").value(sample.count);
+			writer.name("wallNanos").value(sample.wall);
+			writer.name("cpuNanos").value(sample.cpu);
+			writer.name("allocatedBytes").value(sample.allocated);
+			writer.endObject();
+		}
+		writer.endObject();
+	}
+
+	/**
+	 * Writes these metrics in the Prometheus text exposition format.
+	 *
+	 * @param file the file to write
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized void writePrometheus(Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writePrometheus(writer, "golisa_phase", "phase", phases);
+			writePrometheus(writer, "golisa_cfg", "cfg", cfgs);
+			for (Map.Entry<String, Long> entry : counters.entrySet()) {
+				writer.write("# TYPE golisa_" + entry.getKey() + "_total counter\n");
+				writer.write("golisa_" + entry.getKey() + "_total " + entry.getValue() + "\n");
+			}
+			writer.write("# TYPE golisa_lexed_bytes_per_second gauge\n");
+			writer.write("golisa_lexed_bytes_per_second " + getLexingThroughput() + "\n");
+		}
+	}
+
+	private static void writePrometheus(Writer writer, String prefix, String label, Map<String, Sample> samples)
+			throws IOException {
+		if (samples.isEmpty())
+			return;
+
+		// samples only grow during a run, so they are exposed as counters,
+		// named with the _total suffix of the Prometheus conventions
+		String[] names = { "_measurements_total", "_wall_seconds_total", "_cpu_seconds_total",
+				"_allocated_bytes_total" };
+		for (int i = 0; i < names.length; i++) {
+			writer.write("# TYPE " + prefix + names[i] + " counter\n");
+			for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+				Sample sample = entry.getValue();
+				String value;
+				switch (i) {
+				case 0:
+					value = String.valueOf(sample.count);
+					break;
+				case 1:
+					value = String.valueOf(sample.wall / 1e9);
+					break;
+				case 2:
+					value = String.valueOf(sample.cpu / 1e9);
+					break;
+				default:
+					value = String.valueOf(sample.allocated);
+					break;
+				}
+				writer.write(prefix + names[i] + "{" + label + "=\"" + escape(entry.getKey()) + "\"} " + value + "\n");
+			}
+		}
+	}
+
+	private static String escape(String label) {
+		return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static long cpuTime() {
+		return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+	}
+
+	private static long allocatedBytes() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	/**
+	 * The accumulated measurements of a phase or of a cfg.
+	 */
+	public static class Sample {
+
+		private long count;
+
+		private long wall;
+
+		private long cpu;
+
+		private long allocated;
+
+		/**
+		 * Yields the number of measurements.
+		 *
+		 * @return the number of measurements
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Yields the total wall time, in nanoseconds.
+		 *
+		 * @return the wall time
+		 */
+		public long getWallNanos() {
+			return wall;
+		}
+
+		/**
+		 * Yields the total cpu time of the measuring thread and of the workers
+		 * it waited for, in nanoseconds.
+		 *
+		 * @return the cpu time
+		 */
+		public long getCpuNanos() {
+			return cpu;
+		}
+
+		/**
+		 * Yields the total number of bytes allocated by the measuring thread
+		 * and by the workers it waited for.
+		 *
+		 * @return the allocated bytes
+		 */
+		public long getAllocatedBytes() {
+			return allocated;
+		}
+	}
+
+	/**
+	 * An ongoing measurement, that is recorded when closed.
+	 */
+	public class Measure implements AutoCloseable {
+
+		private final Map<String, Sample> target;
+
+		private final String key;
+
+		private final long wall;
+
+		private final long cpu;
+
+		private final long allocated;
+
+		private final boolean worker;
+
+		private Measure(Map<String, Sample> target, String key, boolean worker) {
+			this.target = target;
+			this.key = key;
+			this.worker = worker;
+			this.wall = System.nanoTime();
+			this.cpu = cpuTime();
+			this.allocated = allocatedBytes();
+		}
+
+		@Override
+		public void close() {
+			long wall = System.nanoTime() - this.wall;
+			long cpu = cpuTime() - this.cpu;
+			long allocated = allocatedBytes() - this.allocated;
+			synchronized (Metrics.this) {
+				Sample sample = target.computeIfAbsent(key, k -> new Sample());
+				if (!worker) {
+					sample.count++;
+					sample.wall += wall;
+				}
+				sample.cpu += cpu;
+				sample.allocated += allocated;
+			}
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package it.unive.golisa.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+
+/**
+ * A profiler recording, for each program point, how many times the semantics
+ * of the abstract domain has been invoked on it, the cumulative time spent
+ * there, and the size of the resulting abstract states. The profile can be
+ * written as a collapsed-stack file (one {@code function;line value} entry
+ * per program point, where the value is the cumulative time in microseconds)
+ * that can be fed to flame graph tools, together with a csv containing all
+ * the recorded figures.<br>
+ * <br>
+ * Recording is meant to be cheap: entries are keyed by the identity of the
+ * program point, and their descriptions (function, line and text) are built
+ * only when the profile is written, while the size of the states is computed
+ * only for one invocation every {@link #SIZE_SAMPLING} on each program point.
+ *
+ * @see it.unive.golisa.analysis.ProfiledDomain
+ */
+public class StatementProfiler {
+
+	private static final StatementProfiler INSTANCE = new StatementProfiler();
+
+	/**
+	 * The number of invocations on the same program point between two
+	 * samples of the size of the resulting state.
+	 */
+	public static final int SIZE_SAMPLING = 16;
+
+	private final Map<Point, Entry> entries = new ConcurrentHashMap<>();
+
+	private StatementProfiler() {
+	}
+
+	/**
+	 * Yields the profiler shared by the analyses.
+	 *
+	 * @return the profiler
+	 */
+	public static StatementProfiler getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Records an invocation of the semantics on {@code pp}.
+	 *
+	 * @param pp    the program point
+	 * @param nanos the time spent, in nanoseconds
+	 * @param size  the size of the resulting state, invoked only if this
+	 *                  invocation is sampled, or {@code null} if the
+	 *                  invocation yields no state
+	 */
+	public void record(ProgramPoint pp, long nanos, LongSupplier size) {
+		Entry entry = entries.computeIfAbsent(new Point(pp), k -> new Entry());
+		long previous = entry.count.getAndIncrement();
+		entry.nanos.add(nanos);
+		if (size != null && previous % SIZE_SAMPLING == 0) {
+			long sampled = size.getAsLong();
+			entry.samples.increment();
+			entry.size.add(sampled);
+			entry.maxSize.accumulateAndGet(sampled, Math::max);
+		}
+	}
+
+	/**
+	 * Discards the recorded profile.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Writes the profile in the collapsed-stack format used by flame graph
+	 * tools, and a csv with all the recorded figures next to it (same name,
+	 * {@code .csv} extension).
+	 *
+	 * @param file the collapsed-stack file to write
+	 *
+	 * @throws IOException if the files cannot be written
+	 */
+	public void write(Path file) throws IOException {
+		// program points with the same description are reported together
+		Map<Key, Totals> totals = new HashMap<>();
+		for (Map.Entry<Point, Entry> e : entries.entrySet())
+			totals.computeIfAbsent(new Key(e.getKey().pp), k -> new Totals()).add(e.getValue());
+
+		List<Map.Entry<Key, Totals>> sorted = new ArrayList<>(totals.entrySet());
+		sorted.sort((l, r) -> Long.compare(r.getValue().nanos, l.getValue().nanos));
+
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (Map.Entry<Key, Totals> e : sorted)
+				writer.write(frame(e.getKey().function) + ";" + frame(e.getKey().statement) + " "
+						+ Math.max(1, e.getValue().nanos / 1000) + "\n");
+		}
+
+		String name = file.getFileName().toString();
+		Path csv = file.resolveSibling(
+				(name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name) + ".csv");
+		try (Writer writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+			writer.write("function,line,statement,count,total_micros,avg_state_size,max_state_size\n");
+			for (Map.Entry<Key, Totals> e : sorted) {
+				Totals entry = e.getValue();
+				writer.write("\"" + e.getKey().function.replace('"', '\'') + "\"," + e.getKey().line + ",\""
+						+ e.getKey().statement.replace('"', '\'') + "\"," + entry.count + "," + entry.nanos / 1000 + ","
+						+ (entry.samples == 0 ? 0 : entry.size / entry.samples) + "," + entry.maxSize + "\n");
+			}
+		}
+	}
+
+	private static String frame(String name) {
+		// ';' separates frames and ' ' separates the value
+		return name.replace(';', ',').replace(' ', '_').replace('\n', '_');
+	}
+
+	/**
+	 * A program point, compared by identity.
+	 */
+	private static class Point {
+
+		private final ProgramPoint pp;
+
+		private Point(ProgramPoint pp) {
+			this.pp = pp;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(pp);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Point && ((Point) obj).pp == pp;
+		}
+	}
+
+	/**
+	 * The description of a program point in the written profile.
+	 */
+	private static class Key {
+
+		private final String function;
+
+		private final int line;
+
+		private final String statement;
+
+		private Key(ProgramPoint pp) {
+			this.function = pp.getCFG() == null ? "<unknown>" : pp.getCFG().getDescriptor().getFullSignature();
+			CodeLocation location = pp.getLocation();
+			this.line = location instanceof SourceCodeLocation ? ((SourceCodeLocation) location).getLine() : -1;
+			this.statement = "line " + line + ": " + pp;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * function.hashCode() + line) + statement.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return line == other.line && function.equals(other.function) && statement.equals(other.statement);
+		}
+	}
+
+	private static class Entry {
+
+		private final AtomicLong count = new AtomicLong();
+
+		private final LongAdder nanos = new LongAdder();
+
+		private final LongAdder samples = new LongAdder();
+
+		private final LongAdder size = new LongAdder();
+
+		private final AtomicLong maxSize = new AtomicLong();
+	}
+
+	private static class Totals {
+
+		private long count, nanos, samples, size, maxSize;
+
+		private void add(Entry entry) {
+			count += entry.count.get();
+			nanos += entry.nanos.sum();
+			samples += entry.samples.sum();
+			size += entry.size.sum();
+			maxSize = Math.max(maxSize, entry.maxSize.get());
+		}
+	}
+}
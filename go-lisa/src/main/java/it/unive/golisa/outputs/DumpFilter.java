@@ -0,0 +1,211 @@
+package it.unive.golisa.outputs;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.statement.Statement;
+
+/**
+ * A filter selecting which cfgs, and which of their nodes, are dumped after
+ * the analysis. A cfg is dumped if its signature matches one of the function
+ * patterns (or if no pattern has been given) and, when only cfgs with
+ * warnings are requested, if some warning refers to it, that is, if the
+ * location of the cfg or of one of its nodes is one of the locations of the
+ * warnings. When only entry and exit states are requested, the other nodes
+ * are left out of the dump.
+ */
+public class DumpFilter {
+
+	/**
+	 * The bracketed tokens of the messages of the warnings, where LiSA writes
+	 * their locations.
+	 */
+	private static final Pattern TOKEN = Pattern.compile("\\[([^\\[\\]]+)\\]");
+
+	private final List<Pattern> functions;
+
+	private final boolean warningsOnly;
+
+	private final boolean entryExitOnly;
+
+	private Set<String> warned;
+
+	/**
+	 * Builds a filter that accepts every cfg and every node.
+	 */
+	public DumpFilter() {
+		this(Collections.emptyList(), false, false);
+	}
+
+	/**
+	 * Builds the filter.
+	 *
+	 * @param functions     the regular expressions matched against the full
+	 *                          signature of cfgs
+	 * @param warningsOnly  whether only cfgs with warnings are dumped
+	 * @param entryExitOnly whether only entry and exit nodes are dumped
+	 */
+	public DumpFilter(List<String> functions, boolean warningsOnly, boolean entryExitOnly) {
+		this.functions = new ArrayList<>(functions.size());
+		for (String function : functions)
+			this.functions.add(Pattern.compile(function));
+		this.warningsOnly = warningsOnly;
+		this.entryExitOnly = entryExitOnly;
+		this.warned = Collections.emptySet();
+	}
+
+	/**
+	 * Yields a copy of this filter matching also the signatures described by
+	 * {@code pattern}.
+	 *
+	 * @param pattern the regular expression
+	 *
+	 * @return the new filter
+	 */
+	public DumpFilter withFunction(String pattern) {
+		List<String> patterns = patterns();
+		patterns.add(pattern);
+		return new DumpFilter(patterns, warningsOnly, entryExitOnly);
+	}
+
+	/**
+	 * Yields a copy of this filter accepting only cfgs with warnings.
+	 *
+	 * @return the new filter
+	 */
+	public DumpFilter withWarningsOnly() {
+		return new DumpFilter(patterns(), true, entryExitOnly);
+	}
+
+	/**
+	 * Yields a copy of this filter accepting only entry and exit nodes.
+	 *
+	 * @return the new filter
+	 */
+	public DumpFilter withEntryExitOnly() {
+		return new DumpFilter(patterns(), warningsOnly, true);
+	}
+
+	private List<String> patterns() {
+		List<String> patterns = new ArrayList<>(functions.size());
+		for (Pattern p : functions)
+			patterns.add(p.pattern());
+		return patterns;
+	}
+
+	/**
+	 * Yields whether this filter only keeps entry and exit nodes.
+	 *
+	 * @return {@code true} if and only if only entry and exit nodes are kept
+	 */
+	public boolean isEntryExitOnly() {
+		return entryExitOnly;
+	}
+
+	/**
+	 * Sets the warnings raised by the analysis, used to select cfgs when
+	 * only the ones with warnings are requested. The locations of the
+	 * warnings are extracted once, so that selecting a cfg costs a lookup per
+	 * node.
+	 *
+	 * @param warnings the textual representation of the warnings
+	 */
+	public void setWarnings(Collection<String> warnings) {
+		Set<String> locations = new HashSet<>();
+		for (String warning : warnings) {
+			Matcher matcher = TOKEN.matcher(warning);
+			while (matcher.find())
+				locations.add(matcher.group(1));
+		}
+		this.warned = locations;
+	}
+
+	/**
+	 * Yields whether {@code cfg} has to be dumped.
+	 *
+	 * @param cfg the cfg
+	 *
+	 * @return {@code true} if and only if the cfg has to be dumped
+	 */
+	public boolean accepts(CFG cfg) {
+		String signature = cfg.getDescriptor().getFullSignature();
+		if (!functions.isEmpty() && functions.stream().noneMatch(p -> p.matcher(signature).find()))
+			return false;
+
+		return !warningsOnly || hasWarnings(cfg);
+	}
+
+	/**
+	 * Yields whether {@code node} of {@code cfg} has to be dumped.
+	 *
+	 * @param cfg  the cfg containing the node
+	 * @param node the node
+	 *
+	 * @return {@code true} if and only if the node has to be dumped
+	 */
+	public boolean accepts(CFG cfg, Statement node) {
+		return !entryExitOnly || cfg.getEntrypoints().contains(node) || cfg.getAllExitpoints().contains(node);
+	}
+
+	private boolean hasWarnings(CFG cfg) {
+		if (warned.isEmpty())
+			return false;
+		if (isWarned(cfg.getDescriptor().getLocation()))
+			return true;
+		for (Statement node : cfg.getNodes())
+			if (isWarned(node.getLocation()))
+				return true;
+		return false;
+	}
+
+	private boolean isWarned(CodeLocation location) {
+		// the report only holds the textual form of the locations, so whole
+		// locations are compared through it (':1:' does not match ':11:')
+		return location != null && warned.contains(location.toString());
+	}
+
+	/**
+	 * Reads the messages of the warnings from a LiSA json report.
+	 *
+	 * @param report the report file
+	 *
+	 * @return the messages of the warnings
+	 *
+	 * @throws IOException if the report cannot be read
+	 */
+	public static Collection<String> readWarnings(Path report) throws IOException {
+		if (!Files.exists(report))
+			return Collections.emptyList();
+
+		List<String> result = new ArrayList<>();
+		try (Reader reader = Files.newBufferedReader(report, StandardCharsets.UTF_8)) {
+			JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+			JsonArray warnings = json.getAsJsonArray("warnings");
+			if (warnings != null)
+				for (JsonElement warning : warnings)
+					result.add(warning.isJsonObject() && warning.getAsJsonObject().has("message")
+							? warning.getAsJsonObject().get("message").getAsString()
+							: warning.toString());
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,224 @@
+package it.unive.golisa.outputs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Statement;
+
+/**
+ * A compact, gzipped binary dump of the abstract states computed on a cfg.
+ * Dumps are written right after the analysis, honoring a {@link DumpFilter},
+ * and can be rendered to dot files later, on demand, through
+ * {@link #render(Path, Path)}.
+ */
+public class StateDump {
+
+	/**
+	 * The extension of binary state dumps.
+	 */
+	public static final String EXTENSION = ".gsd";
+
+	private static final int MAGIC = 0x47534431; // GSD1
+
+	private static final byte SEQUENTIAL = 0, TRUE = 1, FALSE = 2;
+
+	private final String name;
+
+	private final List<String> labels;
+
+	private final List<String> states;
+
+	private final List<int[]> edges;
+
+	private StateDump(String name) {
+		this.name = name;
+		this.labels = new ArrayList<>();
+		this.states = new ArrayList<>();
+		this.edges = new ArrayList<>();
+	}
+
+	/**
+	 * Writes the binary dump of the results of a cfg in {@code workdir}, if
+	 * {@code filter} accepts the cfg.
+	 *
+	 * @param <A>     the type of {@link AbstractState}
+	 * @param <H>     the type of the {@link HeapDomain}
+	 * @param <V>     the type of the {@link ValueDomain}
+	 * @param result  the results of the analysis of the cfg
+	 * @param filter  the filter selecting cfgs and nodes
+	 * @param workdir the directory where the dump is written
+	 *
+	 * @return the written file, or {@code null} if the cfg has been filtered
+	 *             out
+	 *
+	 * @throws IOException if the dump cannot be written
+	 */
+	public static <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> Path write(CFGWithAnalysisResults<A, H, V> result, DumpFilter filter,
+					Path workdir) throws IOException {
+		if (!filter.accepts(result))
+			return null;
+
+		StateDump dump = new StateDump(result.getDescriptor().getFullSignatureWithParNames());
+		Map<Statement, Integer> ids = new HashMap<>();
+		for (Statement node : result.getNodes())
+			if (filter.accepts(result, node)) {
+				ids.put(node, dump.labels.size());
+				dump.labels.add(node.toString());
+				dump.states.add(String.valueOf(result.getAnalysisStateAfter(node).representation()));
+			}
+
+		for (Edge edge : result.getEdges()) {
+			Integer src = ids.get(edge.getSource());
+			Integer dest = ids.get(edge.getDestination());
+			if (src != null && dest != null)
+				dump.edges.add(new int[] { src, dest,
+						edge instanceof TrueEdge ? TRUE : edge instanceof FalseEdge ? FALSE : SEQUENTIAL });
+		}
+
+		Files.createDirectories(workdir);
+		Path file = workdir.resolve(fileName(dump.name) + EXTENSION);
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))))) {
+			out.writeInt(MAGIC);
+			writeString(out, dump.name);
+			out.writeInt(dump.labels.size());
+			for (int i = 0; i < dump.labels.size(); i++) {
+				writeString(out, dump.labels.get(i));
+				writeString(out, dump.states.get(i));
+			}
+			out.writeInt(dump.edges.size());
+			for (int[] edge : dump.edges) {
+				out.writeInt(edge[0]);
+				out.writeInt(edge[1]);
+				out.writeByte(edge[2]);
+			}
+		}
+
+		return file;
+	}
+
+	/**
+	 * Reads a binary dump.
+	 *
+	 * @param file the file containing the dump
+	 *
+	 * @return the dump
+	 *
+	 * @throws IOException if the file cannot be read, or it is not a state
+	 *                         dump
+	 */
+	public static StateDump read(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException(file + " is not a state dump");
+
+			StateDump dump = new StateDump(readString(in));
+			int nodes = in.readInt();
+			for (int i = 0; i < nodes; i++) {
+				dump.labels.add(readString(in));
+				dump.states.add(readString(in));
+			}
+			int edges = in.readInt();
+			for (int i = 0; i < edges; i++)
+				dump.edges.add(new int[] { in.readInt(), in.readInt(), in.readByte() });
+			return dump;
+		}
+	}
+
+	/**
+	 * Renders this dump as a dot graph.
+	 *
+	 * @param writer the writer where the graph is written
+	 *
+	 * @throws IOException if the graph cannot be written
+	 */
+	public void toDot(Writer writer) throws IOException {
+		writer.write("digraph \"" + escape(name) + "\" {\n");
+		for (int i = 0; i < labels.size(); i++)
+			writer.write("node" + i + " [shape=rect,label=\"" + escape(labels.get(i)) + "\\n\\n"
+					+ escape(states.get(i)) + "\"];\n");
+		for (int[] edge : edges)
+			writer.write("node" + edge[0] + " -> node" + edge[1]
+					+ (edge[2] == TRUE ? " [color=blue]" : edge[2] == FALSE ? " [color=red]" : "") + ";\n");
+		writer.write("}\n");
+	}
+
+	/**
+	 * Renders all the binary dumps contained in {@code dumps} as dot files in
+	 * {@code outputDir}.
+	 *
+	 * @param dumps     the directory containing the dumps
+	 * @param outputDir the directory where the dot files are written
+	 *
+	 * @return the number of rendered dumps
+	 *
+	 * @throws IOException if a dump cannot be read or rendered
+	 */
+	public static int render(Path dumps, Path outputDir) throws IOException {
+		Files.createDirectories(outputDir);
+		List<Path> files;
+		try (Stream<Path> list = Files.list(dumps)) {
+			files = list.filter(p -> p.toString().endsWith(EXTENSION)).sorted().collect(Collectors.toList());
+		}
+
+		for (Path file : files) {
+			String name = file.getFileName().toString();
+			Path dot = outputDir.resolve(name.substring(0, name.length() - EXTENSION.length()) + ".dot");
+			try (BufferedWriter writer = Files.newBufferedWriter(dot, StandardCharsets.UTF_8)) {
+				read(file).toDot(writer);
+			}
+		}
+
+		return files.size();
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		// writeUTF is limited to 64KB, while states can be larger
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static String fileName(String signature) {
+		// different signatures can be sanitized to the same name (e.g., the
+		// ones of methods of different receivers, or whose parameters differ
+		// only in their types), so the hash of the signature is appended
+		return signature.replaceAll("[^a-zA-Z0-9_.()\\-]", "_") + "_" + String.format("%08x", signature.hashCode());
+	}
+}
@@ -0,0 +1,182 @@
+package it.unive.golisa.outputs;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.stream.JsonWriter;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.cfg.statement.Statement;
+
+/**
+ * A report that is written while the analysis runs, instead of being
+ * assembled in memory and serialized at the end. The results of each cfg are
+ * streamed to their own json file (optionally gzipped) as soon as the
+ * fixpoint over that cfg terminates, through a buffered file channel, and are
+ * then released. When the report is closed, {@code report.json} is written in
+ * the same format of LiSA's {@code JsonReport} (a list of warnings and a list
+ * of the generated files), so that it can be checked with
+ * {@code JsonReportComparer}.
+ */
+public class StreamingJsonReport implements Closeable {
+
+	private static final Logger log = LogManager.getLogger(StreamingJsonReport.class);
+
+	/**
+	 * The name of the report file.
+	 */
+	public static final String REPORT = "report.json";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Path workdir;
+
+	private final boolean gzip;
+
+	private final List<String> warnings;
+
+	private final Set<String> files;
+
+	private boolean closed;
+
+	/**
+	 * Builds the report.
+	 *
+	 * @param workdir the directory where the report and the results are
+	 *                    written
+	 * @param gzip    whether or not the results of each cfg are gzipped
+	 *
+	 * @throws IOException if the directory cannot be created
+	 */
+	public StreamingJsonReport(Path workdir, boolean gzip) throws IOException {
+		this.workdir = Files.createDirectories(workdir);
+		this.gzip = gzip;
+		this.warnings = new ArrayList<>();
+		this.files = new LinkedHashSet<>();
+	}
+
+	/**
+	 * Writes the results of a cfg to disk.
+	 *
+	 * @param <A>    the type of {@link AbstractState}
+	 * @param <H>    the type of the {@link HeapDomain}
+	 * @param <V>    the type of the {@link ValueDomain}
+	 * @param result the results of the fixpoint over the cfg
+	 *
+	 * @throws IOException if the results cannot be written
+	 */
+	public synchronized <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> void write(CFGWithAnalysisResults<A, H, V> result) throws IOException {
+		if (closed)
+			throw new IllegalStateException("The report has already been closed");
+
+		String name = fileName(result.getDescriptor().getFullSignatureWithParNames());
+		// signatures whose hashes collide as well get a counter
+		for (int i = 1; files.contains(name + (gzip ? ".json.gz" : ".json")); i++)
+			name = fileName(result.getDescriptor().getFullSignatureWithParNames()) + "_" + i;
+		name += gzip ? ".json.gz" : ".json";
+		try (JsonWriter writer = new JsonWriter(open(workdir.resolve(name), gzip))) {
+			writer.beginObject();
+			writer.name("name").value(result.getDescriptor().getFullSignatureWithParNames());
+			writer.name("location").value(String.valueOf(result.getDescriptor().getLocation()));
+			writer.name("nodes").beginArray();
+			for (Statement node : result.getNodes()) {
+				AnalysisState<A, H, V> state = result.getAnalysisStateAfter(node);
+				writer.beginObject();
+				writer.name("node").value(node.toString());
+				writer.name("location").value(String.valueOf(node.getLocation()));
+				writer.name("state").value(String.valueOf(state.representation()));
+				writer.endObject();
+			}
+			writer.endArray();
+			writer.endObject();
+		}
+
+		files.add(name);
+		if (log.isDebugEnabled())
+			log.debug("Results of {} written to {}", result.getDescriptor().getFullSignature(), name);
+	}
+
+	/**
+	 * Adds a warning to the report.
+	 *
+	 * @param message the message of the warning
+	 */
+	public synchronized void addWarning(String message) {
+		warnings.add(message);
+	}
+
+	/**
+	 * Yields the files written so far, relative to the working directory.
+	 *
+	 * @return the files
+	 */
+	public synchronized Collection<String> getFiles() {
+		return new ArrayList<>(files);
+	}
+
+	/**
+	 * Writes {@code report.json}. No more results can be written after the
+	 * report has been closed.
+	 *
+	 * @throws IOException if the report cannot be written
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+
+		try (JsonWriter writer = new JsonWriter(open(workdir.resolve(REPORT), false))) {
+			writer.setIndent("  ");
+			writer.beginObject();
+			writer.name("warnings").beginArray();
+			for (String warning : warnings)
+				writer.beginObject().name("message").value(warning).endObject();
+			writer.endArray();
+			writer.name("files").beginArray();
+			for (String file : files)
+				writer.value(file);
+			writer.endArray();
+			writer.endObject();
+		}
+	}
+
+	private static BufferedWriter open(Path file, boolean gzip) throws IOException {
+		OutputStream stream = Channels.newOutputStream(FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+		if (gzip)
+			stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+		return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	private static String fileName(String signature) {
+		// different signatures can be sanitized to the same name (e.g., the
+		// ones of methods of different receivers), so the hash of the
+		// signature is appended, as for state dumps
+		return signature.replaceAll("[^a-zA-Z0-9_.()\\-]", "_") + "_" + String.format("%08x", signature.hashCode());
+	}
+}
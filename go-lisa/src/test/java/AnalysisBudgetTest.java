@@ -0,0 +1,107 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import it.unive.golisa.analysis.AnalysisBudget;
+import it.unive.golisa.analysis.AnalysisBudget.Degradation;
+import it.unive.golisa.analysis.BudgetedDomain;
+import it.unive.golisa.analysis.ModularWorstCaseWithNativeCalls;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.golisa.cli.GoLiSA;
+import it.unive.golisa.outputs.DumpFilter;
+import it.unive.golisa.outputs.StreamingJsonReport;
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.AnalysisSetupException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.impl.heap.pointbased.PointBasedHeap;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+
+public class AnalysisBudgetTest {
+
+	private static final String SOURCE = "go-testcases/cfg/for/go-for.go";
+
+	private static final long STEPS = 3;
+
+	@Rule
+	public TemporaryFolder workdir = new TemporaryFolder();
+
+	@After
+	public void uninstall() {
+		AnalysisBudget.install(null);
+	}
+
+	@Test(timeout = 60_000)
+	public void testStepBudgetDegradesLoopsToTop() throws IOException, AnalysisException {
+		Program program = GoFrontEnd.processFile(SOURCE);
+		AnalysisBudget budget = new AnalysisBudget(0, STEPS, 0, 0);
+		AnalysisBudget.install(budget);
+
+		ModularWorstCaseWithNativeCalls<?, ?, ?> analysis = new ModularWorstCaseWithNativeCalls<>();
+		LiSAConfiguration conf = new LiSAConfiguration()
+				.setWorkdir(workdir.getRoot().getPath())
+				.setAbstractState(new SimpleAbstractState<>(new PointBasedHeap(),
+						new BudgetedDomain<>(new ValueEnvironment<>(new Interval()))))
+				.setInterproceduralAnalysis(analysis);
+		// the fixpoint terminates even if the cfgs are not analysed in full
+		new LiSA(conf).run(program);
+
+		Map<String, CFG> cfgs = new HashMap<>();
+		for (CFG cfg : program.getAllCFGs())
+			cfgs.put(cfg.getDescriptor().getFullSignature(), cfg);
+
+		assertFalse(budget.getDegradations().isEmpty());
+		for (Degradation degradation : budget.getDegradations()) {
+			assertTrue(degradation.getReason(), degradation.getReason().contains(STEPS + " transfer function"));
+			CFG cfg = cfgs.get(degradation.getCfg());
+			for (CFGWithAnalysisResults<?, ?, ?> result : analysis.getAnalysisResultsOf(cfg))
+				assertTrue("Exit state of " + degradation.getCfg(),
+						result.getExitState().getState().getValueState().isTop());
+		}
+	}
+
+	@Test(timeout = 60_000)
+	public void testDegradationsAreReported() throws IOException, AnalysisSetupException {
+		Path out = workdir.getRoot().toPath();
+		GoLiSA.main(new String[] { SOURCE, out.toString(), "-stream", "-budget-cfg-steps", String.valueOf(STEPS) });
+
+		Path file = out.resolve("budget.json");
+		assertTrue(Files.exists(file));
+		JsonArray degradations;
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+			assertEquals(STEPS, json.getAsJsonObject("budget").get("cfgSteps").getAsLong());
+			degradations = json.getAsJsonArray("degradations");
+		}
+		assertTrue(degradations.size() > 0);
+
+		// each degraded cfg is also warned about in the report of the analysis
+		String warnings = String.join("\n", DumpFilter.readWarnings(out.resolve(StreamingJsonReport.REPORT)));
+		for (int i = 0; i < degradations.size(); i++) {
+			String cfg = degradations.get(i).getAsJsonObject().get("cfg").getAsString();
+			assertTrue("Missing warning for " + cfg, warnings.contains("Analysis of " + cfg + " degraded to top"));
+		}
+	}
+}
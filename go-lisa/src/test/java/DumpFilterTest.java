@@ -0,0 +1,58 @@
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.golisa.outputs.DumpFilter;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+
+public class DumpFilterTest {
+
+	private static final String SOURCE = "go-testcases/cfg/if/go-if.go";
+
+	@Test
+	public void testWarningsSelectCfgsByLocation() throws IOException {
+		Program program = GoFrontEnd.processFile(SOURCE);
+		List<CFG> cfgs = new ArrayList<>(program.getAllCFGs());
+		CFG warned = cfgs.get(0);
+		Statement node = warned.getNodes().iterator().next();
+
+		DumpFilter filter = new DumpFilter().withWarningsOnly();
+		filter.setWarnings(Collections.singleton("[STATEMENT] [" + node.getLocation() + "] a warning"));
+		assertTrue(filter.accepts(warned));
+
+		for (CFG cfg : cfgs)
+			if (!locations(cfg).contains(String.valueOf(node.getLocation())))
+				assertFalse(cfg.getDescriptor().getFullSignature(), filter.accepts(cfg));
+	}
+
+	@Test
+	public void testLocationsAreNotMatchedAsSubstrings() throws IOException {
+		Program program = GoFrontEnd.processFile(SOURCE);
+		CFG cfg = program.getAllCFGs().iterator().next();
+		Statement node = cfg.getNodes().iterator().next();
+
+		DumpFilter filter = new DumpFilter().withWarningsOnly();
+		filter.setWarnings(Collections.singleton("[STATEMENT] [" + node.getLocation() + "1] a warning"));
+		if (!locations(cfg).contains(node.getLocation() + "1"))
+			assertFalse(filter.accepts(cfg));
+	}
+
+	private static Set<String> locations(CFG cfg) {
+		Set<String> locations = new HashSet<>();
+		locations.add(String.valueOf(cfg.getDescriptor().getLocation()));
+		for (Statement node : cfg.getNodes())
+			locations.add(String.valueOf(node.getLocation()));
+		return locations;
+	}
+}
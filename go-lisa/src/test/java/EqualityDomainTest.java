@@ -0,0 +1,97 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import it.unive.golisa.analysis.EqualityDomain;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Variable;
+
+public class EqualityDomainTest {
+
+	private static final Variable X = variable("x");
+	private static final Variable Y = variable("y");
+	private static final Variable Z = variable("z");
+	private static final Variable W = variable("w");
+
+	@Test
+	public void testAssign() throws SemanticException {
+		EqualityDomain state = new EqualityDomain().assign(X, Y, null).assign(Z, X, null);
+		assertTrue(state.areEqual(X, Y));
+		assertTrue(state.areEqual(Y, Z));
+
+		// z leaves the class, x and y are still equal
+		EqualityDomain reassigned = state.assign(Z, new Constant(GoIntType.INSTANCE, 1, SyntheticLocation.INSTANCE), null);
+		assertTrue(reassigned.areEqual(X, Y));
+		assertFalse(reassigned.areEqual(X, Z));
+
+		// the original state is not modified
+		assertTrue(state.areEqual(X, Z));
+
+		// y is only equal to itself once x leaves the pair
+		EqualityDomain single = reassigned.assign(X, W, null);
+		assertFalse(single.areEqual(X, Y));
+		assertTrue(single.areEqual(X, W));
+		assertEquals(new EqualityDomain().assign(X, W, null), single);
+	}
+
+	@Test
+	public void testLub() throws SemanticException {
+		EqualityDomain left = new EqualityDomain().assign(X, Y, null).assign(Z, X, null);
+		EqualityDomain right = new EqualityDomain().assign(X, Y, null).assign(Z, W, null);
+
+		EqualityDomain lub = left.lub(right);
+		assertTrue(lub.areEqual(X, Y));
+		assertFalse(lub.areEqual(X, Z));
+		assertFalse(lub.areEqual(Z, W));
+		assertEquals(new EqualityDomain().assign(X, Y, null), lub);
+		assertTrue(new EqualityDomain().assign(X, Y, null).lub(new EqualityDomain().assign(X, Z, null)).isTop());
+	}
+
+	@Test
+	public void testLessOrEqual() throws SemanticException {
+		EqualityDomain pair = new EqualityDomain().assign(X, Y, null);
+		EqualityDomain triple = pair.assign(Z, Y, null);
+
+		assertTrue(triple.lessOrEqual(pair));
+		assertFalse(pair.lessOrEqual(triple));
+		assertTrue(pair.lessOrEqual(new EqualityDomain()));
+		assertTrue(triple.lessOrEqual(pair.lub(new EqualityDomain().assign(Z, W, null))));
+		assertTrue(new EqualityDomain().bottom().lessOrEqual(triple));
+	}
+
+	@Test
+	public void testLongChainsOfUpdates() throws SemanticException {
+		EqualityDomain state = new EqualityDomain();
+		Variable previous = X;
+		for (int i = 0; i < 50; i++) {
+			Variable next = variable("v" + i);
+			state = state.assign(next, previous, null);
+			previous = next;
+		}
+
+		assertTrue(state.areEqual(X, previous));
+		state = state.forgetIdentifier(X);
+		assertFalse(state.areEqual(X, previous));
+		assertTrue(state.areEqual(variable("v0"), previous));
+		assertEquals(state, state.lub(state));
+
+		// enough forgotten identifiers to rebuild the forest
+		EqualityDomain reduced = state;
+		for (int i = 0; i < 40; i++)
+			reduced = reduced.forgetIdentifier(variable("v" + i));
+		assertTrue(reduced.areEqual(variable("v40"), previous));
+		assertFalse(reduced.areEqual(variable("v39"), previous));
+		assertTrue(state.lessOrEqual(reduced));
+		assertFalse(reduced.lessOrEqual(state));
+	}
+
+	private static Variable variable(String name) {
+		return new Variable(Caches.types().mkSingletonSet(GoIntType.INSTANCE), name, SyntheticLocation.INSTANCE);
+	}
+}
@@ -0,0 +1,101 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import it.unive.golisa.analysis.BlockFixpoint;
+import it.unive.golisa.analysis.FixpointStrategy;
+import it.unive.golisa.analysis.ModularWorstCaseWithNativeCalls;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.golisa.metrics.Metrics;
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.LiSAFactory;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.impl.heap.pointbased.PointBasedHeap;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Call;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Statement;
+
+public class FixpointStrategyTest {
+
+	private static final String SOURCE = "go-testcases/cfg/for/go-for.go";
+
+	@Rule
+	public TemporaryFolder workdir = new TemporaryFolder();
+
+	@Test
+	public void testWtoEvaluatesNoMoreBlocksOnLoops() throws IOException, AnalysisException {
+		Program program = GoFrontEnd.processFile(SOURCE);
+
+		Metrics metrics = Metrics.reset();
+		ModularWorstCaseWithNativeCalls<?, ?, ?> blocks = analyse(program, FixpointStrategy.BLOCKS);
+		long blockEvaluations = metrics.getCounter(BlockFixpoint.EVALUATIONS);
+
+		metrics = Metrics.reset();
+		ModularWorstCaseWithNativeCalls<?, ?, ?> wto = analyse(program, FixpointStrategy.WTO);
+		long wtoEvaluations = metrics.getCounter(BlockFixpoint.EVALUATIONS);
+
+		assertTrue(wtoEvaluations > 0);
+		assertTrue("The weak topological order evaluated " + wtoEvaluations + " blocks, the worklist "
+				+ blockEvaluations, wtoEvaluations <= blockEvaluations);
+
+		// both strategies widen at the heads of the loops, so they reach the
+		// same results
+		for (CFG cfg : program.getAllCFGs())
+			for (Statement node : cfg.getNodes())
+				assertSameState(cfg, node, single(blocks, cfg), single(wto, cfg));
+	}
+
+	@Test
+	public void testBlocksMatchStatementsWithoutLoops() throws IOException, AnalysisException {
+		for (String source : new String[] { "go-testcases/cfg/decl/go-decl.go", "go-testcases/cfg/if/go-if.go",
+				"go-testcases/cfg/switch/go-switch.go" }) {
+			Program program = GoFrontEnd.processFile(source);
+			ModularWorstCaseWithNativeCalls<?, ?, ?> statements = analyse(program, FixpointStrategy.STATEMENTS);
+			ModularWorstCaseWithNativeCalls<?, ?, ?> blocks = analyse(program, FixpointStrategy.BLOCKS);
+			for (CFG cfg : program.getAllCFGs()) {
+				CFGWithAnalysisResults<?, ?, ?> expected = single(statements, cfg);
+				CFGWithAnalysisResults<?, ?, ?> actual = single(blocks, cfg);
+				for (Statement node : cfg.getNodes()) {
+					assertSameState(cfg, node, expected, actual);
+					// inner expressions are recomputed with their block
+					if (node instanceof Call)
+						for (Expression param : ((Call) node).getParameters())
+							assertSameState(cfg, param, expected, actual);
+				}
+			}
+		}
+	}
+
+	private static void assertSameState(CFG cfg, Statement st, CFGWithAnalysisResults<?, ?, ?> expected,
+			CFGWithAnalysisResults<?, ?, ?> actual) {
+		AnalysisState<?, ?, ?> state = expected.getAnalysisStateAfter(st);
+		assertEquals("State after " + st + " in " + cfg, state, actual.getAnalysisStateAfter(st));
+	}
+
+	private static CFGWithAnalysisResults<?, ?, ?> single(ModularWorstCaseWithNativeCalls<?, ?, ?> analysis, CFG cfg) {
+		return analysis.getAnalysisResultsOf(cfg).iterator().next();
+	}
+
+	private ModularWorstCaseWithNativeCalls<?, ?, ?> analyse(Program program, FixpointStrategy strategy)
+			throws AnalysisException {
+		ModularWorstCaseWithNativeCalls<?, ?, ?> analysis = new ModularWorstCaseWithNativeCalls<>(strategy);
+		LiSAConfiguration conf = new LiSAConfiguration()
+				.setWorkdir(workdir.getRoot().getPath())
+				.setAbstractState(LiSAFactory.getDefaultFor(AbstractState.class, new PointBasedHeap(), new Interval()))
+				.setInterproceduralAnalysis(analysis);
+		new LiSA(conf).run(program);
+		return analysis;
+	}
+}
@@ -0,0 +1,200 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import it.unive.golisa.cli.GoLiSAServer;
+
+public class GoLiSAServerTest {
+
+	private static final String SOURCE = "go-testcases/cfg/if/go-if.go";
+
+	private static final String TOKEN = "secret";
+
+	@Rule
+	public TemporaryFolder workdir = new TemporaryFolder();
+
+	private Path root;
+
+	private GoLiSAServer server;
+
+	private Thread thread;
+
+	private Socket client;
+
+	private BufferedReader in;
+
+	private BufferedWriter out;
+
+	@Before
+	public void start() throws IOException, InterruptedException {
+		root = workdir.newFolder("root").toPath();
+		Files.copy(Paths.get(SOURCE), root.resolve("go-if.go"));
+
+		server = new GoLiSAServer(0, 4, root, TOKEN);
+		thread = new Thread(() -> {
+			try {
+				server.serve();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		thread.start();
+
+		for (int i = 0; i < 600 && server.getLocalPort() < 0; i++)
+			Thread.sleep(100);
+		assertTrue("The server did not start", server.getLocalPort() > 0);
+		connect();
+	}
+
+	@After
+	public void stop() throws IOException, InterruptedException {
+		if (thread.isAlive())
+			try {
+				send("{\"command\":\"shutdown\",\"token\":\"" + TOKEN + "\"}");
+			} catch (IOException e) {
+				// the server is already stopping
+			}
+		client.close();
+		thread.join(10_000);
+	}
+
+	@Test
+	public void testMalformedRequests() throws IOException {
+		assertError("Malformed request", send("{\"command\":"));
+		assertError("Malformed request", send("[\"ping\"]"));
+		assertError("Missing command", send("{\"command\":42,\"token\":\"" + TOKEN + "\"}"));
+		assertError("Unknown command", send("{\"command\":\"pong\",\"token\":\"" + TOKEN + "\"}"));
+		assertError("dump flag", send(analyze("go-if.go", "out", "\"yes\"")));
+
+		// the connection is still usable
+		assertOk(send("{\"command\":\"ping\",\"token\":\"" + TOKEN + "\"}"));
+	}
+
+	@Test
+	public void testWrongToken() throws IOException {
+		assertError("token", send("{\"command\":\"ping\"}"));
+		assertError("token", send("{\"command\":\"ping\",\"token\":\"secre\"}"));
+		assertError("token", send("{\"command\":\"shutdown\",\"token\":42}"));
+		assertTrue(thread.isAlive());
+		assertOk(send("{\"command\":\"ping\",\"token\":\"" + TOKEN + "\"}"));
+	}
+
+	@Test
+	public void testPathsOutsideTheRoot() throws IOException {
+		Files.copy(Paths.get(SOURCE), workdir.getRoot().toPath().resolve("outside.go"));
+
+		assertError("below", send(analyze("../outside.go", "out", null)));
+		assertError("below", send(analyze(workdir.getRoot().toPath().resolve("outside.go").toString(), "out", null)));
+		assertError("below", send(analyze("go-if.go", "../out", null)));
+		assertError("below", send(analyze("go-if.go", "out/../../out", null)));
+		assertFalse(Files.exists(workdir.getRoot().toPath().resolve("out")));
+
+		// escaping through a symbolic link
+		Files.createSymbolicLink(root.resolve("link"), workdir.getRoot().toPath());
+		assertError("below", send(analyze("link/outside.go", "out", null)));
+		assertError("below", send(analyze("go-if.go", "link/out", null)));
+	}
+
+	@Test
+	public void testParseCacheHits() throws IOException {
+		JsonObject first = send(analyze("go-if.go", "out", null));
+		assertOk(first);
+		assertFalse(first.get("cached").getAsBoolean());
+		// server requests do not dump the results unless asked to
+		assertEquals(0, count(root.resolve("out")));
+
+		JsonObject second = send(analyze("go-if.go", "out", "true"));
+		assertOk(second);
+		assertTrue(second.get("cached").getAsBoolean());
+		assertTrue(count(root.resolve("out")) > 0);
+
+		// a modified file is parsed again
+		Files.write(root.resolve("go-if.go"), "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertFalse(send(analyze("go-if.go", "out", null)).get("cached").getAsBoolean());
+		assertTrue(send(analyze("go-if.go", "out", null)).get("cached").getAsBoolean());
+
+		assertOk(send("{\"command\":\"invalidate\",\"token\":\"" + TOKEN + "\"}"));
+		assertFalse(send(analyze("go-if.go", "out", null)).get("cached").getAsBoolean());
+	}
+
+	@Test
+	public void testShutdown() throws IOException, InterruptedException {
+		assertOk(send("{\"command\":\"shutdown\",\"token\":\"" + TOKEN + "\"}"));
+		thread.join(10_000);
+		assertFalse(thread.isAlive());
+
+		try (Socket refused = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+			fail("The server still accepts connections");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	private void connect() throws IOException {
+		client = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+		in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+		out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8));
+	}
+
+	private JsonObject send(String request) throws IOException {
+		out.write(request);
+		out.newLine();
+		out.flush();
+		String response = in.readLine();
+		if (response == null)
+			throw new IOException("Connection closed by the server");
+		return JsonParser.parseString(response).getAsJsonObject();
+	}
+
+	private static String analyze(String file, String output, String dump) {
+		JsonObject request = new JsonObject();
+		request.addProperty("command", "analyze");
+		request.addProperty("token", TOKEN);
+		request.addProperty("file", file);
+		request.addProperty("output", output);
+		String json = request.toString();
+		return dump == null ? json : json.substring(0, json.length() - 1) + ",\"dump\":" + dump + "}";
+	}
+
+	private static long count(Path dir) throws IOException {
+		if (!Files.exists(dir))
+			return 0;
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.count();
+		}
+	}
+
+	private static void assertOk(JsonObject response) {
+		assertEquals(response.toString(), "ok", response.get("status").getAsString());
+	}
+
+	private static void assertError(String message, JsonObject response) {
+		assertEquals(response.toString(), "error", response.get("status").getAsString());
+		assertTrue(response.toString(), response.get("message").getAsString().contains(message));
+	}
+}
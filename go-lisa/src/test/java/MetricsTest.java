@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import it.unive.golisa.metrics.Metrics;
+import it.unive.golisa.metrics.Metrics.Measure;
+import it.unive.golisa.metrics.Metrics.Sample;
+
+public class MetricsTest {
+
+	@Rule
+	public TemporaryFolder workdir = new TemporaryFolder();
+
+	@After
+	public void reset() {
+		Metrics.reset();
+	}
+
+	@Test
+	public void testWorkersRecordIntoTheWaitingThread() throws Exception {
+		Metrics metrics = Metrics.reset();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try (Measure m = metrics.phase("work")) {
+			pool.submit(() -> IntStream.range(0, 64).parallel().forEach(i -> {
+				Metrics.install(metrics);
+				try (Measure w = metrics.work("work")) {
+					assertSame(metrics, Metrics.current());
+					Metrics.current().count("items", 1);
+					burn();
+				} finally {
+					Metrics.install(null);
+				}
+			})).get();
+		} finally {
+			pool.shutdown();
+		}
+
+		Sample sample = metrics.getPhases().get("work");
+		assertEquals(64, metrics.getCounter("items"));
+		// the wall time is measured once, by the waiting thread
+		assertEquals(1, sample.getCount());
+		assertTrue(sample.getAllocatedBytes() >= 64 * 1024);
+	}
+
+	@Test
+	public void testPrometheusNames() throws IOException {
+		Metrics metrics = Metrics.reset();
+		try (Measure m = metrics.phase("parsing")) {
+			metrics.count(Metrics.LEXED_BYTES, 10);
+		}
+
+		Path file = workdir.getRoot().toPath().resolve("metrics.prom");
+		metrics.writePrometheus(file);
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		assertTrue(lines.contains("# TYPE golisa_phase_measurements_total counter"));
+		assertTrue(lines.contains("golisa_lexed_bytes_total 10"));
+		for (String line : lines)
+			if (line.startsWith("# TYPE")) {
+				String name = line.split(" ")[2];
+				assertFalse(line, name.endsWith("_count"));
+				assertTrue(line, !line.endsWith(" counter") || name.endsWith("_total"));
+			}
+	}
+
+	private static volatile Object sink;
+
+	private static void burn() {
+		byte[][] chunks = new byte[4][];
+		for (int i = 0; i < chunks.length; i++)
+			chunks[i] = new byte[1024];
+		sink = chunks;
+	}
+}
@@ -0,0 +1,135 @@
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import it.unive.golisa.analysis.ModularWorstCaseWithNativeCalls;
+import it.unive.golisa.analysis.tarsis.Tarsis;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.impl.heap.pointbased.PointBasedHeap;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.callgraph.impl.RTACallGraph;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Untyped;
+
+public class RuntimeModelsTest {
+
+	private static final String SOURCE = "go-testcases/runtime/models.go";
+
+	private static Program program;
+
+	private static ModularWorstCaseWithNativeCalls<SimpleAbstractState<PointBasedHeap, ValueEnvironment<Tarsis>>, PointBasedHeap, ValueEnvironment<Tarsis>> analysis;
+
+	@BeforeClass
+	public static void analyse() throws IOException, AnalysisException {
+		program = GoFrontEnd.processFile(SOURCE);
+		analysis = new ModularWorstCaseWithNativeCalls<>();
+		LiSAConfiguration conf = new LiSAConfiguration()
+				.setAbstractState(new SimpleAbstractState<>(new PointBasedHeap(), new ValueEnvironment<>(new Tarsis())))
+				.setCallGraph(new RTACallGraph())
+				.setInterproceduralAnalysis(analysis);
+		new LiSA(conf).run(program);
+	}
+
+	@Test
+	public void testStringsBuilder() throws SemanticException {
+		Tarsis s = valueOf("builder", "s");
+		assertTrue(s.lessOrEqual(string("abc")));
+		assertTrue(string("abc").lessOrEqual(s));
+	}
+
+	@Test
+	public void testBytesBufferReset() throws SemanticException {
+		Tarsis s = valueOf("buffer", "s");
+		assertTrue(s.lessOrEqual(string("yz")));
+		assertTrue(string("yz").lessOrEqual(s));
+	}
+
+	@Test
+	public void testBufferThroughPointerIsNotTracked() throws SemanticException {
+		assertFalse(valueOf("pointer", "s").lessOrEqual(string("x")));
+	}
+
+	@Test
+	public void testTrimSpace() throws SemanticException {
+		Tarsis t = valueOf("trim", "t");
+		assertTrue(string("a").lessOrEqual(t));
+		assertTrue(string("b").lessOrEqual(t));
+		assertFalse(string("c").lessOrEqual(t));
+	}
+
+	@Test
+	public void testToLower() throws SemanticException {
+		Tarsis l = valueOf("lower", "l");
+		assertTrue(string("ab").lessOrEqual(l));
+		assertTrue(string("cd").lessOrEqual(l));
+	}
+
+	@Test
+	public void testToLowerNonAscii() throws SemanticException {
+		// code point by code point, as unicode.ToLower: U+0130 becomes i
+		Tarsis l = valueOf("lowerUnicode", "l");
+		assertTrue(string("\u00e9ia").lessOrEqual(l));
+		assertTrue(l.lessOrEqual(string("\u00e9ia")));
+
+		Tarsis unknown = valueOf("lowerUnknown", "l");
+		assertTrue(string("\u00e9").lessOrEqual(unknown));
+		assertTrue(string("b").lessOrEqual(unknown));
+	}
+
+	@Test
+	public void testClosureVariablesAreForgotten() {
+		for (String function : new String[] { "itoa", "join" })
+			for (Identifier id : exitState(function).getState().getValueState().getKeys())
+				assertFalse(function + " keeps " + id, id.getName().contains("@"));
+	}
+
+	@Test
+	public void testItoa() throws SemanticException {
+		Tarsis s = valueOf("itoa", "s");
+		assertTrue(string("42").lessOrEqual(s));
+		assertTrue(string("-7").lessOrEqual(s));
+		assertFalse(string("4a").lessOrEqual(s));
+	}
+
+	@Test
+	public void testSplitAndJoin() throws SemanticException {
+		Tarsis j = valueOf("join", "j");
+		assertTrue(string("a-b").lessOrEqual(j));
+		assertTrue(string("c").lessOrEqual(j));
+		assertTrue(string("").lessOrEqual(j));
+	}
+
+	private static Tarsis valueOf(String function, String variable) throws SemanticException {
+		Variable id = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), variable, SyntheticLocation.INSTANCE);
+		return exitState(function).getState().getValueState().getState(id);
+	}
+
+	private static AnalysisState<SimpleAbstractState<PointBasedHeap, ValueEnvironment<Tarsis>>, PointBasedHeap, ValueEnvironment<Tarsis>> exitState(
+			String function) {
+		for (CFG cfg : program.getAllCFGs())
+			if (cfg.getDescriptor().getName().equals(function))
+				return analysis.getAnalysisResultsOf(cfg).iterator().next().getExitState();
+		throw new IllegalArgumentException("No function " + function + " in " + SOURCE);
+	}
+
+	private static Tarsis string(String value) throws SemanticException {
+		return new Tarsis().eval(new Constant(GoStringType.INSTANCE, value, SyntheticLocation.INSTANCE), null, null);
+	}
+}
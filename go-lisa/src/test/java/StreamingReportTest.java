@@ -0,0 +1,87 @@
+import static it.unive.lisa.outputs.compare.JsonReportComparer.compare;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import it.unive.golisa.analysis.ModularWorstCaseWithNativeCalls;
+import it.unive.golisa.analysis.tarsis.Tarsis;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.golisa.outputs.StreamingJsonReport;
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.impl.heap.pointbased.PointBasedHeap;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.interprocedural.callgraph.impl.RTACallGraph;
+import it.unive.lisa.outputs.JsonReport;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+
+public class StreamingReportTest {
+
+	private static final String SOURCE = "go-testcases/cfg/if/go-if.go";
+
+	@Rule
+	public TemporaryFolder workdir = new TemporaryFolder();
+
+	@Test
+	public void testReportRoundTrip() throws IOException, AnalysisException {
+		File first = workdir.newFolder("first");
+		File second = workdir.newFolder("second");
+		StreamingJsonReport written = analyse(first);
+		int cfgs = GoFrontEnd.processFile(SOURCE).getAllCFGs().size();
+		analyse(second);
+
+		try (FileReader l = new FileReader(new File(first, StreamingJsonReport.REPORT));
+				FileReader r = new FileReader(new File(second, StreamingJsonReport.REPORT))) {
+			JsonReport expected = JsonReport.read(l);
+			JsonReport actual = JsonReport.read(r);
+			assertEquals(new HashSet<>(written.getFiles()), new HashSet<>(expected.getFiles()));
+			// one file for each cfg, none overwritten
+			assertEquals(written.getFiles().size(), expected.getFiles().size());
+			assertEquals(cfgs, first.list((dir, name) -> name.endsWith(".json")
+					&& !name.equals(StreamingJsonReport.REPORT)).length);
+			for (String file : expected.getFiles())
+				assertTrue("Missing " + file, new File(first, file).isFile());
+			assertTrue("Results are different", compare(expected, actual, first, second));
+		}
+	}
+
+	@Test
+	public void testStreamedResultsAreNotRetained() throws IOException, AnalysisException {
+		Program program = GoFrontEnd.processFile(SOURCE);
+		try (StreamingJsonReport report = new StreamingJsonReport(workdir.getRoot().toPath(), false)) {
+			ModularWorstCaseWithNativeCalls<?, ?, ?> analysis = new ModularWorstCaseWithNativeCalls<>(report);
+			new LiSA(configuration(analysis)).run(program);
+			for (CFG cfg : program.getAllCFGs())
+				assertTrue(analysis.getAnalysisResultsOf(cfg).isEmpty());
+		}
+	}
+
+	private static StreamingJsonReport analyse(File dir) throws IOException, AnalysisException {
+		Program program = GoFrontEnd.processFile(SOURCE);
+		StreamingJsonReport report = new StreamingJsonReport(dir.toPath(), false);
+		try {
+			new LiSA(configuration(new ModularWorstCaseWithNativeCalls<>(report))).run(program);
+		} finally {
+			report.close();
+		}
+		return report;
+	}
+
+	private static LiSAConfiguration configuration(ModularWorstCaseWithNativeCalls<?, ?, ?> analysis) {
+		return new LiSAConfiguration()
+				.setAbstractState(new SimpleAbstractState<>(new PointBasedHeap(), new ValueEnvironment<>(new Tarsis())))
+				.setCallGraph(new RTACallGraph())
+				.setInterproceduralAnalysis(analysis);
+	}
+}
@@ -0,0 +1,109 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import it.unive.golisa.analysis.StringConstantPropagation;
+import it.unive.golisa.cfg.type.GoBoolType;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.TernaryOperator;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+
+public class StringConstantPropagationTest {
+
+	@Test
+	public void testSameConstantIsStable() throws SemanticException {
+		StringConstantPropagation domain = new StringConstantPropagation();
+		StringConstantPropagation first = domain.eval(string("a"), null, null);
+		StringConstantPropagation second = domain.eval(string("a"), null, null);
+
+		assertEquals(first, second);
+		assertTrue(first.lessOrEqual(second));
+		assertTrue(second.lessOrEqual(first));
+		assertEquals(first, first.lub(second));
+	}
+
+	@Test
+	public void testDifferentConstantsAreIncomparable() throws SemanticException {
+		StringConstantPropagation domain = new StringConstantPropagation();
+		StringConstantPropagation a = domain.eval(string("a"), null, null);
+		StringConstantPropagation b = domain.eval(string("b"), null, null);
+
+		assertFalse(a.lessOrEqual(b));
+		assertFalse(b.lessOrEqual(a));
+		assertTrue(a.lub(b).isTop());
+	}
+
+	@Test
+	public void testOperations() throws SemanticException {
+		StringConstantPropagation domain = new StringConstantPropagation();
+		ValueExpression concat = new BinaryExpression(Caches.types().mkSingletonSet(GoStringType.INSTANCE), string("ab"), string("cb"),
+				BinaryOperator.STRING_CONCAT, SyntheticLocation.INSTANCE);
+		ValueExpression replace = new TernaryExpression(Caches.types().mkSingletonSet(GoStringType.INSTANCE), concat, string("b"),
+				string("x"), TernaryOperator.STRING_REPLACE, SyntheticLocation.INSTANCE);
+
+		assertEquals("abcb", domain.eval(concat, null, null).getString());
+		assertEquals("axcx", domain.eval(replace, null, null).getString());
+		assertEquals(domain.eval(string("abcb"), null, null), domain.eval(concat, null, null));
+	}
+
+	@Test
+	public void testValuesOfDifferentPools() throws SemanticException {
+		// "a" and "b" get the same id in their own pools
+		StringConstantPropagation a = new StringConstantPropagation().eval(string("a"), null, null);
+		StringConstantPropagation b = new StringConstantPropagation().eval(string("b"), null, null);
+		StringConstantPropagation otherA = new StringConstantPropagation().eval(string("a"), null, null);
+
+		assertFalse(a.lessOrEqual(b));
+		assertFalse(b.lessOrEqual(a));
+		assertTrue(a.lub(b).isTop());
+		assertNotEquals(a, b);
+
+		assertTrue(a.lessOrEqual(otherA));
+		assertTrue(otherA.lessOrEqual(a));
+		assertEquals(a, otherA);
+		assertEquals(a.hashCode(), otherA.hashCode());
+		assertEquals("a", a.lub(otherA).getString());
+	}
+
+	@Test
+	public void testOperationsOnValuesOfDifferentPools() throws SemanticException {
+		StringConstantPropagation domain = new StringConstantPropagation();
+		domain.eval(string("a"), null, null);
+		// "b" and "xyz" get ids that, in the pool of domain, are "a" or do
+		// not exist
+		StringConstantPropagation other = new StringConstantPropagation();
+		Variable x = new Variable(Caches.types().mkSingletonSet(GoStringType.INSTANCE), "x", SyntheticLocation.INSTANCE);
+		Variable y = new Variable(Caches.types().mkSingletonSet(GoStringType.INSTANCE), "y", SyntheticLocation.INSTANCE);
+		ValueEnvironment<StringConstantPropagation> env = new ValueEnvironment<>(domain)
+				.putState(x, other.eval(string("b"), null, null))
+				.putState(y, other.eval(string("xyz"), null, null));
+
+		assertEquals("ab", domain.eval(concat(string("a"), x), env, null).getString());
+		assertEquals("axyz", domain.eval(concat(string("a"), y), env, null).getString());
+		assertEquals(Satisfiability.NOT_SATISFIED, domain.satisfies(new BinaryExpression(
+				Caches.types().mkSingletonSet(GoBoolType.INSTANCE), string("a"), x, BinaryOperator.STRING_EQUALS,
+				SyntheticLocation.INSTANCE), env, null));
+	}
+
+	private static ValueExpression concat(ValueExpression left, ValueExpression right) {
+		return new BinaryExpression(Caches.types().mkSingletonSet(GoStringType.INSTANCE), left, right,
+				BinaryOperator.STRING_CONCAT, SyntheticLocation.INSTANCE);
+	}
+
+	private static Constant string(String value) {
+		return new Constant(GoStringType.INSTANCE, value, SyntheticLocation.INSTANCE);
+	}
+}
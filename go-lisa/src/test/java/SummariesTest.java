@@ -0,0 +1,95 @@
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import it.unive.golisa.analysis.ModularWorstCaseWithNativeCalls;
+import it.unive.golisa.cfg.type.composite.GoArrayType;
+import it.unive.golisa.cfg.type.composite.GoStructType;
+import it.unive.golisa.cfg.type.numeric.signed.GoIntType;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.impl.heap.pointbased.FieldSensitivePointBasedHeap;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.interprocedural.callgraph.impl.RTACallGraph;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Untyped;
+
+public class SummariesTest {
+
+	private static final String SOURCE = "go-testcases/summaries/summaries.go";
+
+	private static Program program;
+
+	private static ModularWorstCaseWithNativeCalls<SimpleAbstractState<FieldSensitivePointBasedHeap, ValueEnvironment<Interval>>, FieldSensitivePointBasedHeap, ValueEnvironment<Interval>> analysis;
+
+	@BeforeClass
+	public static void analyse() throws IOException, AnalysisException {
+		// all arrays are summarized, and all structs are field-insensitive
+		GoArrayType.setSummarizationThreshold(0);
+		GoStructType.setFieldSensitivityThreshold(0);
+
+		program = GoFrontEnd.processFile(SOURCE);
+		analysis = new ModularWorstCaseWithNativeCalls<>();
+		LiSAConfiguration conf = new LiSAConfiguration()
+				.setAbstractState(new SimpleAbstractState<>(new FieldSensitivePointBasedHeap(), new ValueEnvironment<>(new Interval())))
+				.setCallGraph(new RTACallGraph())
+				.setInterproceduralAnalysis(analysis);
+		new LiSA(conf).run(program);
+	}
+
+	@AfterClass
+	public static void reset() {
+		GoArrayType.setSummarizationThreshold(Integer.MAX_VALUE);
+		GoStructType.setFieldSensitivityThreshold(Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void testArrayAccessReadsTheSummary() throws SemanticException {
+		// a[1] is any of the elements of the array, not an unknown value
+		Interval x = valueOf("array", "x");
+		assertTrue(x.lessOrEqual(range(1, 3)));
+		assertTrue(range(1, 3).lessOrEqual(x));
+	}
+
+	@Test
+	public void testFieldAccessReadsTheSummary() throws SemanticException {
+		// p.b is any of the fields of the struct, not an unknown value
+		Interval y = valueOf("structs", "y");
+		assertFalse(y.isTop());
+		assertTrue(y.lessOrEqual(range(1, 3)));
+		assertTrue(range(1, 3).lessOrEqual(y));
+	}
+
+	private static Interval valueOf(String function, String variable) throws SemanticException {
+		for (CFG cfg : program.getAllCFGs())
+			if (cfg.getDescriptor().getName().equals(function)) {
+				AnalysisState<SimpleAbstractState<FieldSensitivePointBasedHeap, ValueEnvironment<Interval>>, FieldSensitivePointBasedHeap, ValueEnvironment<Interval>> exit = analysis
+						.getAnalysisResultsOf(cfg).iterator().next().getExitState();
+				Variable id = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), variable, SyntheticLocation.INSTANCE);
+				return exit.getState().getValueState().getState(id);
+			}
+		throw new IllegalArgumentException("No function " + function + " in " + SOURCE);
+	}
+
+	private static Interval range(int low, int high) throws SemanticException {
+		Interval interval = new Interval();
+		return interval.eval(new Constant(GoIntType.INSTANCE, low, SyntheticLocation.INSTANCE), null, null)
+				.lub(interval.eval(new Constant(GoIntType.INSTANCE, high, SyntheticLocation.INSTANCE), null, null));
+	}
+}
@@ -0,0 +1,52 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import it.unive.golisa.antlr.GoLexer;
+import it.unive.golisa.cli.TokenCache;
+
+public class TokenCacheTest {
+
+	@Rule
+	public TemporaryFolder directory = new TemporaryFolder();
+
+	@Test
+	public void testLongTokensRoundTrip() throws IOException {
+		// longer than the 64KB limit of DataOutput.writeUTF
+		StringBuilder raw = new StringBuilder("`");
+		for (int i = 0; i < 70_000; i++)
+			raw.append('è');
+		raw.append('`');
+
+		CommonToken token = new CommonToken(GoLexer.RAW_STRING_LIT, raw.toString());
+		token.setLine(3);
+		token.setCharPositionInLine(7);
+
+		TokenCache cache = new TokenCache(directory.getRoot().toPath());
+		String key = TokenCache.key(ByteBuffer.wrap(raw.toString().getBytes(StandardCharsets.UTF_8)));
+		cache.put(key, List.of(token));
+
+		List<Token> cached = cache.get(key);
+		assertEquals(1, cached.size());
+		assertEquals(GoLexer.RAW_STRING_LIT, cached.get(0).getType());
+		assertEquals(raw.toString(), cached.get(0).getText());
+		assertEquals(3, cached.get(0).getLine());
+		assertEquals(7, cached.get(0).getCharPositionInLine());
+	}
+
+	@Test
+	public void testMissingEntry() throws IOException {
+		TokenCache cache = new TokenCache(directory.getRoot().toPath());
+		assertNull(cache.get(TokenCache.key(ByteBuffer.wrap(new byte[] { 1, 2, 3 }))));
+	}
+}
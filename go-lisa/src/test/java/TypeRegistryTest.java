@@ -0,0 +1,49 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import it.unive.golisa.cfg.type.composite.GoStructType;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.Global;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+
+public class TypeRegistryTest {
+
+	private static final String CARTESIAN = "go-testcases/registry/point-cartesian.go";
+
+	private static final String GEO = "go-testcases/registry/point-geo.go";
+
+	@Test
+	public void testSameStructNameInDifferentFiles() throws IOException {
+		Program cartesian = GoFrontEnd.processFile(CARTESIAN);
+		GoStructType cartesianPoint = GoStructType.get("Point");
+		assertEquals(Set.of("X", "Y"), fields(cartesian.getUnit("Point")));
+
+		Program geo = GoFrontEnd.processFile(GEO);
+		GoStructType geoPoint = GoStructType.get("Point");
+		CompilationUnit unit = geo.getUnit("Point");
+		assertSame(unit, geoPoint.getUnit());
+		assertEquals(Set.of("Lat"), fields(unit));
+
+		// the receivers of the methods are typed with the struct of their file
+		for (CFG method : unit.getInstanceCFGs(false))
+			assertSame(unit, ((GoStructType) method.getDescriptor().getArgs()[0].getStaticType()).getUnit());
+
+		assertFalse(geo.getRegisteredTypes().contains(cartesianPoint));
+	}
+
+	private static Set<String> fields(CompilationUnit unit) {
+		Set<String> names = new TreeSet<>();
+		for (Global field : unit.getInstanceGlobals(false))
+			names.add(field.getName());
+		return names;
+	}
+}
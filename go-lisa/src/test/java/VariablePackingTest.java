@@ -0,0 +1,66 @@
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import it.unive.golisa.analysis.rsubs.RelationalSubstringDomain;
+import it.unive.golisa.cfg.VariablePacking;
+import it.unive.golisa.cfg.VariableScopingCFG;
+import it.unive.golisa.cfg.type.GoStringType;
+import it.unive.golisa.cli.GoFrontEnd;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Variable;
+
+public class VariablePackingTest {
+
+	private static final String SOURCE = "go-testcases/rsubs/packing.go";
+
+	private static final Variable X = new Variable(Caches.types().mkSingletonSet(GoStringType.INSTANCE), "x", SyntheticLocation.INSTANCE);
+
+	private static final Variable Y = new Variable(Caches.types().mkSingletonSet(GoStringType.INSTANCE), "y", SyntheticLocation.INSTANCE);
+
+	@Test
+	public void testRelationAcrossPacks() throws IOException, SemanticException {
+		VariableScopingCFG main = main();
+		VariablePacking packing = main.getVariablePacking();
+		assertNotEquals(packing.getPack("x"), packing.getPack("y"));
+
+		// y and x never appear in the same statement, but y contains x
+		assertTrue(analyse(main).getState(Y).contains(X));
+	}
+
+	@Test
+	public void testPackingLosesRelationsAcrossPacks() throws IOException, SemanticException {
+		VariableScopingCFG main = main();
+		VariablePacking.setEnabled(true);
+		try {
+			assertFalse(analyse(main).getState(Y).contains(X));
+		} finally {
+			VariablePacking.setEnabled(false);
+		}
+	}
+
+	private static RelationalSubstringDomain analyse(CFG main) throws SemanticException {
+		Statement pp = main.getEntrypoints().iterator().next();
+		return new RelationalSubstringDomain()
+				.assign(Y, new Constant(GoStringType.INSTANCE, "xabcx", SyntheticLocation.INSTANCE), pp)
+				.assign(X, new Constant(GoStringType.INSTANCE, "abc", SyntheticLocation.INSTANCE), pp);
+	}
+
+	private static VariableScopingCFG main() throws IOException {
+		Program program = GoFrontEnd.processFile(SOURCE);
+		for (CFG cfg : program.getAllCFGs())
+			if (cfg.getDescriptor().getName().equals("main"))
+				return (VariableScopingCFG) cfg;
+		throw new IllegalArgumentException("No main in " + SOURCE);
+	}
+}